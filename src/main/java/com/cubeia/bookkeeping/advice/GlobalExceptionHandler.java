@@ -1,8 +1,14 @@
 package com.cubeia.bookkeeping.advice;
 
+import com.cubeia.bookkeeping.exception.AuditInProgressException;
+import com.cubeia.bookkeeping.exception.ConcurrencyLimitExceededException;
+import com.cubeia.bookkeeping.exception.IdempotencyKeyMismatchException;
 import com.cubeia.bookkeeping.exception.InsufficientFundsException;
+import com.cubeia.bookkeeping.exception.InvalidCursorException;
+import com.cubeia.bookkeeping.exception.InvalidTimeRangeException;
 import com.cubeia.bookkeeping.exception.NotFoundException;
 import com.cubeia.bookkeeping.exception.SameAccountTransferException;
+import com.cubeia.bookkeeping.exception.TransferRejectedException;
 import com.cubeia.bookkeeping.exception.UniqueException;
 import java.util.HashMap;
 import java.util.Map;
@@ -10,11 +16,15 @@ import org.postgresql.util.PSQLException;
 import org.postgresql.util.ServerErrorMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.CannotAcquireLockException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -23,6 +33,7 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 @RestControllerAdvice
+@Profile("!reactive")
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
   /**
@@ -37,7 +48,8 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
   @ExceptionHandler({
     InsufficientFundsException.class,
-    UniqueException.class
+    UniqueException.class,
+    AuditInProgressException.class
   })
   ProblemDetail handleConflict(RuntimeException ex, WebRequest request) {
     return super.createProblemDetail(
@@ -82,7 +94,9 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
   }
 
   @ExceptionHandler({
-    SameAccountTransferException.class
+    SameAccountTransferException.class,
+    InvalidCursorException.class,
+    InvalidTimeRangeException.class
   })
   ProblemDetail handleBadRequest(RuntimeException ex, WebRequest request) {
     return super.createProblemDetail(
@@ -95,6 +109,46 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     );
   }
 
+  @ExceptionHandler({
+    IdempotencyKeyMismatchException.class
+  })
+  ProblemDetail handleUnprocessableEntity(RuntimeException ex, WebRequest request) {
+    return super.createProblemDetail(
+      ex,
+      HttpStatus.UNPROCESSABLE_ENTITY,
+      ex.getMessage(),
+      null,
+      null,
+      request
+    );
+  }
+
+  /**
+   * A wallet row lock that could not be taken within {@code lock_timeout}, or a connection that
+   * could not be had in time, is reported like a rejected transfer, the client can retry. So is a
+   * request shed by a concurrency limiter.
+   */
+  @ExceptionHandler({
+    TransferRejectedException.class,
+    ConcurrencyLimitExceededException.class,
+    CannotAcquireLockException.class,
+    CannotGetJdbcConnectionException.class,
+    CannotCreateTransactionException.class
+  })
+  ResponseEntity<ProblemDetail> handleServiceUnavailable(RuntimeException ex, WebRequest request) {
+    var problemDetail = super.createProblemDetail(
+      ex,
+      HttpStatus.SERVICE_UNAVAILABLE,
+      ex.getMessage(),
+      null,
+      null,
+      request
+    );
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+      .header(HttpHeaders.RETRY_AFTER, "1")
+      .body(problemDetail);
+  }
+
   @Override
   protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex,
     HttpHeaders headers, HttpStatusCode status, WebRequest request) {
@@ -0,0 +1,177 @@
+package com.cubeia.bookkeeping.advice;
+
+import com.cubeia.bookkeeping.exception.IdempotencyKeyMismatchException;
+import com.cubeia.bookkeeping.exception.InsufficientFundsException;
+import com.cubeia.bookkeeping.exception.InvalidCursorException;
+import com.cubeia.bookkeeping.exception.InvalidTimeRangeException;
+import com.cubeia.bookkeeping.exception.NotFoundException;
+import com.cubeia.bookkeeping.exception.SameAccountTransferException;
+import com.cubeia.bookkeeping.exception.TransferRejectedException;
+import com.cubeia.bookkeeping.exception.UniqueException;
+import java.util.HashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.reactive.result.method.annotation.ResponseEntityExceptionHandler;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux counterpart of {@link GlobalExceptionHandler}, gives the reactive controllers the same
+ * status codes and problem details.
+ */
+@RestControllerAdvice
+@Profile("reactive")
+public class ReactiveExceptionHandler extends ResponseEntityExceptionHandler {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReactiveExceptionHandler.class);
+
+  @ExceptionHandler({
+    InsufficientFundsException.class,
+    UniqueException.class
+  })
+  ProblemDetail handleConflict(RuntimeException ex, ServerWebExchange exchange) {
+    return super.createProblemDetail(
+      ex,
+      HttpStatus.CONFLICT,
+      ex.getMessage(),
+      null,
+      null,
+      exchange
+    );
+  }
+
+  @ExceptionHandler({
+    DuplicateKeyException.class
+  })
+  ProblemDetail handleDuplicateKey(DuplicateKeyException ex, ServerWebExchange exchange) {
+    return super.createProblemDetail(
+      ex,
+      HttpStatus.CONFLICT,
+      "Resource already exists.",
+      null,
+      null,
+      exchange
+    );
+  }
+
+  @ExceptionHandler({
+    RuntimeException.class
+  })
+  ProblemDetail handleInternalServerError(RuntimeException ex, ServerWebExchange exchange) {
+
+    LOG.error("Unhandled error", ex);
+
+    return super.createProblemDetail(
+      ex,
+      HttpStatus.INTERNAL_SERVER_ERROR,
+      "Internal server error",
+      null,
+      null,
+      exchange
+    );
+  }
+
+  @ExceptionHandler({
+    NotFoundException.class
+  })
+  ProblemDetail handleNotFound(NotFoundException ex, ServerWebExchange exchange) {
+    return super.createProblemDetail(
+      ex,
+      HttpStatus.NOT_FOUND,
+      ex.getMessage(),
+      null,
+      null,
+      exchange
+    );
+  }
+
+  @ExceptionHandler({
+    SameAccountTransferException.class,
+    InvalidCursorException.class,
+    InvalidTimeRangeException.class
+  })
+  ProblemDetail handleBadRequest(RuntimeException ex, ServerWebExchange exchange) {
+    return super.createProblemDetail(
+      ex,
+      HttpStatus.BAD_REQUEST,
+      ex.getMessage(),
+      null,
+      null,
+      exchange
+    );
+  }
+
+  @ExceptionHandler({
+    IdempotencyKeyMismatchException.class
+  })
+  ProblemDetail handleUnprocessableEntity(RuntimeException ex, ServerWebExchange exchange) {
+    return super.createProblemDetail(
+      ex,
+      HttpStatus.UNPROCESSABLE_ENTITY,
+      ex.getMessage(),
+      null,
+      null,
+      exchange
+    );
+  }
+
+  /**
+   * R2DBC reports a lock timeout as a {@link PessimisticLockingFailureException}, the blocking
+   * fallbacks as {@link org.springframework.dao.CannotAcquireLockException}, both can be retried.
+   */
+  @ExceptionHandler({
+    TransferRejectedException.class,
+    PessimisticLockingFailureException.class,
+    CannotGetJdbcConnectionException.class,
+    CannotCreateTransactionException.class
+  })
+  ResponseEntity<ProblemDetail> handleServiceUnavailable(RuntimeException ex,
+    ServerWebExchange exchange) {
+    var problemDetail = super.createProblemDetail(
+      ex,
+      HttpStatus.SERVICE_UNAVAILABLE,
+      ex.getMessage(),
+      null,
+      null,
+      exchange
+    );
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+      .header(HttpHeaders.RETRY_AFTER, "1")
+      .body(problemDetail);
+  }
+
+  @Override
+  protected Mono<ResponseEntity<Object>> handleWebExchangeBindException(
+    WebExchangeBindException ex, HttpHeaders headers, HttpStatusCode status,
+    ServerWebExchange exchange) {
+    ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(status, "Validation failed");
+    problemDetail.setTitle("Constraint Violation");
+
+    Map<String, String> errors = new HashMap<>();
+    ex.getBindingResult().getAllErrors().forEach((error) -> {
+      String fieldName = ((FieldError) error).getField();
+      String errorMessage = error.getDefaultMessage();
+      errors.put(fieldName, errorMessage);
+    });
+
+    problemDetail.setProperty("errors", errors);
+
+    return Mono.just(ResponseEntity.status(status).body(problemDetail));
+  }
+
+}
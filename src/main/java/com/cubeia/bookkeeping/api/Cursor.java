@@ -0,0 +1,57 @@
+package com.cubeia.bookkeeping.api;
+
+import com.cubeia.bookkeeping.exception.InvalidCursorException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset pagination position: the creation time and time ordered id of the last row of a page.
+ * Clients only see it as an opaque token.
+ */
+public record Cursor(
+  Instant createdAt,
+  UUID id
+) {
+
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  private static final int TOKEN_LENGTH = Long.BYTES * 3;
+
+  public static Cursor decode(String token) {
+    byte[] bytes;
+    try {
+      bytes = Base64.getUrlDecoder().decode(token);
+    } catch (IllegalArgumentException e) {
+      throw new InvalidCursorException();
+    }
+    if (bytes.length != TOKEN_LENGTH) {
+      throw new InvalidCursorException();
+    }
+    var buffer = ByteBuffer.wrap(bytes);
+    long micros = buffer.getLong();
+    var createdAt = Instant.ofEpochSecond(
+      Math.floorDiv(micros, 1_000_000L),
+      Math.floorMod(micros, 1_000_000L) * 1_000L
+    );
+    return new Cursor(createdAt, new UUID(buffer.getLong(), buffer.getLong()));
+  }
+
+  public String encode() {
+    // Postgres timestamps have microsecond precision
+    long micros = createdAt.getEpochSecond() * 1_000_000L + createdAt.getNano() / 1_000L;
+    var buffer = ByteBuffer.allocate(TOKEN_LENGTH)
+      .putLong(micros)
+      .putLong(id.getMostSignificantBits())
+      .putLong(id.getLeastSignificantBits());
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+  }
+
+  public OffsetDateTime createdAtParam() {
+    return createdAt.atOffset(ZoneOffset.UTC);
+  }
+
+}
@@ -1,11 +1,37 @@
 package com.cubeia.bookkeeping.api;
 
 import jakarta.validation.constraints.Max;
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestParam;
 
 public record Page(
-  @RequestParam(required = false) @Max(200) Integer limit,
-  @RequestParam(required = false) Integer offset
+  @RequestParam(required = false) @Max(MAX_LIMIT) Integer limit,
+  @RequestParam(required = false) Integer offset,
+  @RequestParam(required = false) String after
 ) {
 
+  public static final int DEFAULT_LIMIT = 10;
+  public static final int MAX_LIMIT = 200;
+
+  /**
+   * The keyset position to continue from, {@code offset} is ignored when it is set.
+   */
+  public Cursor afterCursor() {
+    return after == null || after.isEmpty() ? null : Cursor.decode(after);
+  }
+
+  /**
+   * Wraps a page of items, adding the cursor of the next page when the page is full.
+   */
+  public <T> ResponseEntity<List<T>> toResponse(List<T> items, Function<T, Cursor> cursor) {
+    int pageSize = limit == null || limit <= 0 ? DEFAULT_LIMIT : limit;
+    var response = ResponseEntity.ok();
+    if (!items.isEmpty() && items.size() >= pageSize) {
+      response.header(Cursor.NEXT_CURSOR_HEADER, cursor.apply(items.get(items.size() - 1)).encode());
+    }
+    return response.body(items);
+  }
+
 }
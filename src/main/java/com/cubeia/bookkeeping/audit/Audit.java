@@ -0,0 +1,95 @@
+package com.cubeia.bookkeeping.audit;
+
+import com.cubeia.bookkeeping.audit.AuditStatus.State;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress of one audit, updated by the range workers and read by status requests while it runs.
+ */
+final class Audit {
+
+  private final UUID id;
+  private final Instant startedAt;
+  private final int maxReportedFindings;
+  private final AtomicInteger completedRanges = new AtomicInteger();
+  private final LongAdder wallets = new LongAdder();
+  private final LongAdder entries = new LongAdder();
+  private final LongAdder balanceMismatches = new LongAdder();
+  private final LongAdder runningBalanceBreaks = new LongAdder();
+  private final List<AuditFinding> findings = new ArrayList<>();
+  private volatile int ranges;
+  private volatile State state = State.RUNNING;
+  private volatile Instant finishedAt;
+  private volatile String error;
+
+  Audit(UUID id, Instant startedAt, int maxReportedFindings) {
+    this.id = id;
+    this.startedAt = startedAt;
+    this.maxReportedFindings = maxReportedFindings;
+  }
+
+  UUID id() {
+    return id;
+  }
+
+  boolean isRunning() {
+    return state == State.RUNNING;
+  }
+
+  void ranges(int ranges) {
+    this.ranges = ranges;
+  }
+
+  int completeRange() {
+    return completedRanges.incrementAndGet();
+  }
+
+  void read(long wallets, long entries) {
+    this.wallets.add(wallets);
+    this.entries.add(entries);
+  }
+
+  void report(AuditFinding finding) {
+    (finding.type() == AuditFinding.Type.BALANCE_MISMATCH ? balanceMismatches
+      : runningBalanceBreaks).increment();
+    synchronized (findings) {
+      if (findings.size() < maxReportedFindings) {
+        findings.add(finding);
+      }
+    }
+  }
+
+  void complete() {
+    finish(State.COMPLETED, null);
+  }
+
+  void fail(Throwable cause) {
+    finish(State.FAILED, String.valueOf(cause.getMessage()));
+  }
+
+  private void finish(State state, String error) {
+    this.error = error;
+    this.finishedAt = Instant.now();
+    this.state = state;
+  }
+
+  AuditStatus toStatus() {
+    var end = finishedAt != null ? finishedAt : Instant.now();
+    long entries = this.entries.sum();
+    long elapsedMillis = Math.max(Duration.between(startedAt, end).toMillis(), 1);
+    List<AuditFinding> reported;
+    synchronized (findings) {
+      reported = List.copyOf(findings);
+    }
+    return new AuditStatus(id, state, startedAt, finishedAt, ranges, completedRanges.get(),
+      wallets.sum(), entries, entries * 1000.0 / elapsedMillis, balanceMismatches.sum(),
+      runningBalanceBreaks.sum(), reported, error);
+  }
+
+}
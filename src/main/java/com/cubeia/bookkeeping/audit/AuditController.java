@@ -0,0 +1,46 @@
+package com.cubeia.bookkeeping.audit;
+
+import io.swagger.v3.oas.annotations.Operation;
+import java.util.UUID;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/audits")
+@Profile("!reactive")
+public class AuditController {
+
+  private final AuditEngine auditEngine;
+
+  public AuditController(AuditEngine auditEngine) {
+    this.auditEngine = auditEngine;
+  }
+
+  @PostMapping
+  @ResponseStatus(HttpStatus.ACCEPTED)
+  @Operation(
+    description = "Start a full audit of the ledger in the background: every wallet balance is "
+      + "recomputed from its ledger entries and every running balance chain is checked. Only one "
+      + "audit runs at a time.",
+    summary = "Start ledger audit"
+  )
+  public AuditStatus startAudit() {
+    return auditEngine.start();
+  }
+
+  @GetMapping("/{auditId}")
+  @Operation(
+    description = "Get the progress of an audit, its throughput and the findings so far.",
+    summary = "Get ledger audit"
+  )
+  public AuditStatus getAudit(@PathVariable UUID auditId) {
+    return auditEngine.getStatus(auditId);
+  }
+
+}
@@ -0,0 +1,146 @@
+package com.cubeia.bookkeeping.audit;
+
+import com.cubeia.bookkeeping.exception.AuditInProgressException;
+import com.cubeia.bookkeeping.exception.NotFoundException;
+import com.cubeia.bookkeeping.id.Uuids;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Audits the full ledger: recomputes the balance of every wallet from its ledger entries, checks
+ * the running balance chain of every wallet and compares the result with the wallet balances.
+ * Unlike the incremental reconciliation it trusts no checkpoint, so it reads every entry.
+ *
+ * <p>The wallets are split into ranges of about the same size that a fork-join pool audits in
+ * parallel, each range on a connection of its own reading the same exported snapshot, and each
+ * streamed through cursors so that memory does not grow with the ledger. One audit runs at a time.
+ */
+@Service
+public class AuditEngine {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AuditEngine.class);
+
+  private final AuditRepository auditRepository;
+  private final AuditProperties auditProperties;
+  private final Map<UUID, Audit> audits = new ConcurrentHashMap<>();
+  private Audit current;
+
+  public AuditEngine(AuditRepository auditRepository, AuditProperties auditProperties) {
+    this.auditRepository = auditRepository;
+    this.auditProperties = auditProperties;
+  }
+
+  /**
+   * Starts an audit in the background.
+   *
+   * @return the status of the audit just started, {@link #getStatus(UUID)} follows its progress
+   */
+  public synchronized AuditStatus start() {
+    if (current != null && current.isRunning()) {
+      throw new AuditInProgressException("Audit " + current.id() + " is still running");
+    }
+    var audit = new Audit(Uuids.next(), Instant.now(), auditProperties.maxReportedFindings());
+    audits.put(audit.id(), audit);
+    current = audit;
+    Thread.ofPlatform().name("ledger-audit").daemon().start(() -> run(audit));
+    return audit.toStatus();
+  }
+
+  public AuditStatus getStatus(UUID auditId) {
+    var audit = audits.get(auditId);
+    if (audit == null) {
+      throw new NotFoundException("Audit not found");
+    }
+    return audit.toStatus();
+  }
+
+  private void run(Audit audit) {
+    int parallelism = auditProperties.effectiveParallelism();
+    var pool = new ForkJoinPool(parallelism);
+    try (var snapshot = auditRepository.openSnapshot()) {
+      var bounds = new ArrayList<UUID>();
+      bounds.add(null);
+      bounds.addAll(snapshot.rangeBoundaries(parallelism * auditProperties.rangesPerThread()));
+      bounds.add(null);
+      audit.ranges(bounds.size() - 1);
+      LOG.info("Audit {} started: {} ranges on {} workers", audit.id(), bounds.size() - 1,
+        parallelism);
+
+      pool.invoke(new RangeTask(audit, snapshot.id(), bounds, 0, bounds.size() - 1));
+
+      audit.complete();
+      var status = audit.toStatus();
+      LOG.info("Audit {} completed: {} wallets, {} entries at {} entries/s, {} balance "
+          + "mismatches, {} running balance breaks", audit.id(), status.wallets(),
+        status.entries(), Math.round(status.entriesPerSecond()), status.balanceMismatches(),
+        status.runningBalanceBreaks());
+    } catch (Exception e) {
+      audit.fail(e);
+      LOG.error("Audit {} failed", audit.id(), e);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private void auditRange(Audit audit, String snapshotId, UUID from, UUID to) {
+    var auditor = new RangeAuditor(audit, auditProperties.reorderWindow().toMillis(),
+      auditProperties.fetchSize());
+    try {
+      auditRepository.readRange(snapshotId, from, to, auditor);
+    } catch (SQLException e) {
+      throw new IllegalStateException("Audit of wallets from " + from + " to " + to + " failed: "
+        + e.getMessage(), e);
+    }
+    auditor.flush();
+
+    int completed = audit.completeRange();
+    var status = audit.toStatus();
+    LOG.info("Audit {}: {}/{} ranges, {} wallets, {} entries, {} entries/s", audit.id(),
+      completed, status.ranges(), status.wallets(), status.entries(),
+      Math.round(status.entriesPerSecond()));
+  }
+
+  /**
+   * Splits its ranges in halves until a single range is left to audit, the ranges between
+   * {@code bounds[lo]} and {@code bounds[hi]}.
+   */
+  private final class RangeTask extends RecursiveAction {
+
+    private final Audit audit;
+    private final String snapshotId;
+    private final List<UUID> bounds;
+    private final int lo;
+    private final int hi;
+
+    private RangeTask(Audit audit, String snapshotId, List<UUID> bounds, int lo, int hi) {
+      this.audit = audit;
+      this.snapshotId = snapshotId;
+      this.bounds = bounds;
+      this.lo = lo;
+      this.hi = hi;
+    }
+
+    @Override
+    protected void compute() {
+      if (hi - lo == 1) {
+        auditRange(audit, snapshotId, bounds.get(lo), bounds.get(hi));
+        return;
+      }
+      int mid = (lo + hi) >>> 1;
+      invokeAll(new RangeTask(audit, snapshotId, bounds, lo, mid),
+        new RangeTask(audit, snapshotId, bounds, mid, hi));
+    }
+
+  }
+
+}
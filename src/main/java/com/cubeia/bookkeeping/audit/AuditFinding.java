@@ -0,0 +1,28 @@
+package com.cubeia.bookkeeping.audit;
+
+import java.util.UUID;
+
+/**
+ * @param ledgerId the entry that breaks the running balance, {@code null} for balance mismatches
+ * @param expected the sum of the ledger for a balance mismatch, the running balance before the
+ *                 entry for a break
+ * @param actual   the wallet balance for a balance mismatch, the running balance of the entry minus
+ *                 its amount for a break
+ * @param sharded  whether the wallet is sharded; its running balances are those of its shards
+ *                 and are not followed, so only balance mismatches are reported for it
+ */
+public record AuditFinding(
+  Type type,
+  UUID walletId,
+  UUID ledgerId,
+  long expected,
+  long actual,
+  boolean sharded
+) {
+
+  public enum Type {
+    BALANCE_MISMATCH,
+    RUNNING_BALANCE_BREAK
+  }
+
+}
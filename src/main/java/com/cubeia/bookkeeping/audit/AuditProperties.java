@@ -0,0 +1,30 @@
+package com.cubeia.bookkeeping.audit;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param parallelism         ranges audited at the same time, each on a connection of its own; 0
+ *                            for one per available processor
+ * @param rangesPerThread     wallet id ranges per parallel worker, more ranges even out ranges
+ *                            that take longer than others
+ * @param fetchSize           rows fetched per round trip from each cursor
+ * @param reorderWindow       how much older than the newest entry of a wallet an entry that does
+ *                            not continue its running balance may get before it counts as a break
+ * @param maxReportedFindings findings listed in the audit status, the counts are always complete
+ */
+@ConfigurationProperties(prefix = "bookkeeping.audit")
+public record AuditProperties(
+  @DefaultValue("0") int parallelism,
+  @DefaultValue("4") int rangesPerThread,
+  @DefaultValue("10000") int fetchSize,
+  @DefaultValue("30s") Duration reorderWindow,
+  @DefaultValue("1000") int maxReportedFindings
+) {
+
+  public int effectiveParallelism() {
+    return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+  }
+
+}
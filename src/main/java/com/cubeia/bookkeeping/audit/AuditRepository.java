@@ -0,0 +1,256 @@
+package com.cubeia.bookkeeping.audit;
+
+import com.cubeia.bookkeeping.partition.PartitionedTable;
+import com.cubeia.bookkeeping.partition.PartitioningProperties;
+import com.cubeia.bookkeeping.wallet.WalletRepository;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reads the whole ledger for {@link AuditEngine} on connections of its own rather than from the
+ * application pool, so that a long audit neither starves transfers of connections nor gets its
+ * cursors cut by the pool. Every connection reads the snapshot exported by {@link #openSnapshot()},
+ * so the ranges audited in parallel together see one consistent state of the ledger.
+ */
+@Repository
+public class AuditRepository {
+
+  private static final String WALLETS = "SELECT w.id, " + WalletRepository.BALANCE
+    + " AS balance, w.shard_count FROM mng.wallet w WHERE %s ORDER BY w.id";
+  private static final String ENTRY_COLUMNS = "wallet_id, id, amount, running_balance, created_at";
+  private static final String ENTRIES = "SELECT " + ENTRY_COLUMNS + " FROM (%s) e "
+    + "WHERE %%s ORDER BY wallet_id, created_at, id";
+  /**
+   * Ledger partitions moved to the archive schema by the partition manager, and those it detached
+   * but has not moved yet.
+   */
+  private static final String DETACHED_LEDGER_PARTITIONS = """
+    SELECT quote_ident(n.nspname) || '.' || quote_ident(c.relname), c.relname
+    FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace
+    WHERE c.relkind = 'r' AND NOT c.relispartition AND n.nspname IN (?, ?)
+    ORDER BY c.relname""";
+
+  private final DataSource dataSource;
+  private final AuditProperties auditProperties;
+  private final PartitioningProperties partitioningProperties;
+
+  public AuditRepository(DataSourceProperties dataSourceProperties,
+    ObjectProvider<JdbcConnectionDetails> connectionDetails, AuditProperties auditProperties,
+    PartitioningProperties partitioningProperties) {
+    var details = connectionDetails.getIfAvailable();
+    this.dataSource = details != null
+      ? new DriverManagerDataSource(details.getJdbcUrl(), details.getUsername(),
+      details.getPassword())
+      : new DriverManagerDataSource(dataSourceProperties.determineUrl(),
+        dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+    this.auditProperties = auditProperties;
+    this.partitioningProperties = partitioningProperties;
+  }
+
+  /**
+   * Starts a read only repeatable read transaction and exports its snapshot. The snapshot can only
+   * be imported as long as this transaction is open, so the returned snapshot has to stay open
+   * until every range has been read.
+   */
+  public Snapshot openSnapshot() throws SQLException {
+    var connection = begin();
+    try (var statement = connection.createStatement();
+      var rs = statement.executeQuery("SELECT pg_export_snapshot()")) {
+      rs.next();
+      return new Snapshot(connection, rs.getString(1));
+    } catch (SQLException e) {
+      connection.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Streams the wallets with ids from {@code from}, inclusive, to {@code to}, exclusive, each
+   * followed by its ledger entries in the order they were created. Wallets and entries are read
+   * through two cursors on the same connection and merged on the wallet id, so only a fetch of
+   * each is held in memory whatever the size of the range. Entries in ledger partitions that were
+   * archived are read along with the attached ones, an archived partition that was dropped shows
+   * up as balance mismatches.
+   *
+   * @param from the first wallet id, {@code null} to start at the lowest
+   * @param to   the wallet id the range ends before, {@code null} to end after the highest
+   */
+  public void readRange(String snapshotId, UUID from, UUID to, RangeVisitor visitor)
+    throws SQLException {
+    try (var connection = begin()) {
+      try (var statement = connection.createStatement()) {
+        // Snapshot ids only come from pg_export_snapshot(), which cannot be bound as a parameter
+        statement.execute("SET TRANSACTION SNAPSHOT '" + snapshotId + "'");
+      }
+      try (var wallets = prepare(connection, WALLETS, "w.id", from, to);
+        var entries = prepare(connection, entries(connection), "wallet_id", from, to);
+        var walletRows = wallets.executeQuery();
+        var entryRows = entries.executeQuery()) {
+        merge(walletRows, entryRows, visitor);
+      }
+      connection.commit();
+    }
+  }
+
+  private String entries(Connection connection) throws SQLException {
+    var tables = new StringBuilder("SELECT " + ENTRY_COLUMNS + " FROM "
+      + PartitionedTable.LEDGER.qualifiedName());
+    try (var statement = connection.prepareStatement(DETACHED_LEDGER_PARTITIONS)) {
+      statement.setString(1, partitioningProperties.archiveSchema());
+      statement.setString(2, PartitionedTable.LEDGER.schema());
+      try (var rs = statement.executeQuery()) {
+        while (rs.next()) {
+          if (PartitionedTable.LEDGER.monthOf(rs.getString(2)).isPresent()) {
+            tables.append(" UNION ALL SELECT ").append(ENTRY_COLUMNS).append(" FROM ")
+              .append(rs.getString(1));
+          }
+        }
+      }
+    }
+    return ENTRIES.formatted(tables);
+  }
+
+  private static void merge(ResultSet walletRows, ResultSet entryRows, RangeVisitor visitor)
+    throws SQLException {
+    boolean hasEntry = entryRows.next();
+    UUID entryWalletId = hasEntry ? entryRows.getObject(1, UUID.class) : null;
+    while (walletRows.next()) {
+      var walletId = walletRows.getObject(1, UUID.class);
+      visitor.startWallet(walletId, walletRows.getLong(2), walletRows.getInt(3) > 0);
+      // The foreign key rules out entries of wallets that do not exist, skipped all the same
+      while (hasEntry && compare(entryWalletId, walletId) < 0) {
+        hasEntry = entryRows.next();
+        entryWalletId = hasEntry ? entryRows.getObject(1, UUID.class) : null;
+      }
+      while (hasEntry && entryWalletId.equals(walletId)) {
+        visitor.entry(entryRows.getObject(2, UUID.class), entryRows.getLong(3),
+          entryRows.getLong(4), entryRows.getTimestamp(5).getTime());
+        hasEntry = entryRows.next();
+        entryWalletId = hasEntry ? entryRows.getObject(1, UUID.class) : null;
+      }
+      visitor.endWallet();
+    }
+  }
+
+  /**
+   * Orders UUIDs like PostgreSQL, byte by byte unsigned, where {@link UUID#compareTo(UUID)}
+   * compares signed longs.
+   */
+  static int compare(UUID a, UUID b) {
+    int result = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+    return result != 0
+      ? result
+      : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+  }
+
+  private Connection begin() throws SQLException {
+    var connection = dataSource.getConnection();
+    try {
+      connection.setAutoCommit(false);
+      connection.setReadOnly(true);
+      connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+      return connection;
+    } catch (SQLException e) {
+      connection.close();
+      throw e;
+    }
+  }
+
+  private PreparedStatement prepare(Connection connection, String sql, String column, UUID from,
+    UUID to) throws SQLException {
+    var conditions = new ArrayList<String>();
+    if (from != null) {
+      conditions.add(column + " >= ?");
+    }
+    if (to != null) {
+      conditions.add(column + " < ?");
+    }
+    var statement = connection.prepareStatement(sql.formatted(
+      conditions.isEmpty() ? "TRUE" : String.join(" AND ", conditions)));
+    statement.setFetchSize(auditProperties.fetchSize());
+    int index = 1;
+    if (from != null) {
+      statement.setObject(index++, from);
+    }
+    if (to != null) {
+      statement.setObject(index, to);
+    }
+    return statement;
+  }
+
+  public interface RangeVisitor {
+
+    void startWallet(UUID walletId, long balance, boolean sharded);
+
+    void entry(UUID ledgerId, long amount, long runningBalance, long createdAtMillis);
+
+    void endWallet();
+
+  }
+
+  public static final class Snapshot implements AutoCloseable {
+
+    private final Connection connection;
+    private final String id;
+
+    private Snapshot(Connection connection, String id) {
+      this.connection = connection;
+      this.id = id;
+    }
+
+    public String id() {
+      return id;
+    }
+
+    /**
+     * Wallet ids that split the wallets into {@code ranges} ranges of about the same number of
+     * wallets. Time ordered ids crowd into a small part of the UUID space, so the boundaries are
+     * quantiles of the ids that exist rather than even steps through the space.
+     *
+     * @return the distinct boundaries in ascending order, at most {@code ranges - 1}
+     */
+    public List<UUID> rangeBoundaries(int ranges) throws SQLException {
+      var fractions = new Double[Math.max(ranges - 1, 0)];
+      for (int i = 0; i < fractions.length; i++) {
+        fractions[i] = (double) (i + 1) / ranges;
+      }
+      var boundaries = new ArrayList<UUID>();
+      try (var statement = connection.prepareStatement("""
+        SELECT DISTINCT unnest(percentile_disc(?::float8[]) WITHIN GROUP (ORDER BY id)) AS id
+        FROM mng.wallet
+        ORDER BY id""")) {
+        statement.setArray(1, connection.createArrayOf("float8", fractions));
+        try (var rs = statement.executeQuery()) {
+          while (rs.next()) {
+            if (rs.getObject(1) != null) {
+              boundaries.add(rs.getObject(1, UUID.class));
+            }
+          }
+        }
+      }
+      return boundaries;
+    }
+
+    @Override
+    public void close() throws SQLException {
+      try {
+        connection.commit();
+      } finally {
+        connection.close();
+      }
+    }
+
+  }
+
+}
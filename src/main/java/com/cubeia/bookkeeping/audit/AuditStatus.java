@@ -0,0 +1,32 @@
+package com.cubeia.bookkeeping.audit;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * @param findings the first findings, at most {@link AuditProperties#maxReportedFindings()}
+ */
+public record AuditStatus(
+  UUID id,
+  State state,
+  Instant startedAt,
+  Instant finishedAt,
+  int ranges,
+  int completedRanges,
+  long wallets,
+  long entries,
+  double entriesPerSecond,
+  long balanceMismatches,
+  long runningBalanceBreaks,
+  List<AuditFinding> findings,
+  String error
+) {
+
+  public enum State {
+    RUNNING,
+    COMPLETED,
+    FAILED
+  }
+
+}
@@ -0,0 +1,71 @@
+package com.cubeia.bookkeeping.audit;
+
+import com.cubeia.bookkeeping.audit.AuditFinding.Type;
+import com.cubeia.bookkeeping.audit.AuditRepository.RangeVisitor;
+import java.util.UUID;
+
+/**
+ * Checks the wallets of one range as {@link AuditRepository} streams them: the sum of the ledger
+ * entries of every wallet has to equal its balance, and the running balances of the entries of an
+ * unsharded wallet have to form a chain. The entries of a sharded wallet record the balance of a
+ * shard, see {@link com.cubeia.bookkeeping.wallet.WalletShardService#debit}, so its chain is not
+ * followed; a wallet merged back from shards can still break its chain at entries written while
+ * it was sharded. Counts are handed to the audit every {@code progressEvery} entries rather than
+ * per entry, so the workers do not contend on them.
+ */
+final class RangeAuditor implements RangeVisitor {
+
+  private final Audit audit;
+  private final int progressEvery;
+  private final RunningBalanceChain chain;
+  private UUID walletId;
+  private long balance;
+  private boolean sharded;
+  private long sum;
+  private long wallets;
+  private long entries;
+
+  RangeAuditor(Audit audit, long reorderWindowMillis, int progressEvery) {
+    this.audit = audit;
+    this.progressEvery = progressEvery;
+    this.chain = new RunningBalanceChain(reorderWindowMillis, (ledgerId, expected, actual) ->
+      audit.report(new AuditFinding(Type.RUNNING_BALANCE_BREAK, walletId, ledgerId, expected,
+        actual, sharded)));
+  }
+
+  @Override
+  public void startWallet(UUID walletId, long balance, boolean sharded) {
+    this.walletId = walletId;
+    this.balance = balance;
+    this.sharded = sharded;
+    this.sum = 0;
+    chain.start();
+  }
+
+  @Override
+  public void entry(UUID ledgerId, long amount, long runningBalance, long createdAtMillis) {
+    sum += amount;
+    if (!sharded) {
+      chain.add(ledgerId, amount, runningBalance, createdAtMillis);
+    }
+    if (++entries >= progressEvery) {
+      flush();
+    }
+  }
+
+  @Override
+  public void endWallet() {
+    chain.finish();
+    if (sum != balance) {
+      audit.report(new AuditFinding(Type.BALANCE_MISMATCH, walletId, null, sum, balance, sharded));
+    }
+    wallets++;
+  }
+
+  void flush() {
+    audit.read(wallets, entries);
+    wallets = 0;
+    entries = 0;
+  }
+
+}
@@ -0,0 +1,113 @@
+package com.cubeia.bookkeeping.audit;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Follows the running balance of one wallet through its ledger entries, every entry has to start
+ * from the running balance of the one before it.
+ *
+ * <p>Entries are read in the order they were created, but running balances are assigned in the
+ * order the transfers locked the wallet, which differs for transfers that overlap in time. An entry
+ * that does not continue the chain is therefore held back until an entry created more than the
+ * reorder window after it arrives, and only reported as a break when no other entry has picked up
+ * the chain from its balance by then. Only held back entries take memory, at most those of one
+ * window of one wallet.
+ */
+final class RunningBalanceChain {
+
+  private final long windowMillis;
+  private final BreakListener listener;
+  private final ArrayDeque<Entry> pending = new ArrayDeque<>();
+  private final Map<Long, ArrayDeque<Entry>> pendingByPrior = new HashMap<>();
+  private long balance;
+
+  RunningBalanceChain(long windowMillis, BreakListener listener) {
+    this.windowMillis = windowMillis;
+    this.listener = listener;
+  }
+
+  void start() {
+    pending.clear();
+    pendingByPrior.clear();
+    balance = 0;
+  }
+
+  void add(UUID ledgerId, long amount, long runningBalance, long createdAtMillis) {
+    long prior = runningBalance - amount;
+    if (pending.isEmpty() && prior == balance) {
+      balance = runningBalance;
+      return;
+    }
+    var entry = new Entry(ledgerId, prior, runningBalance, createdAtMillis);
+    pending.add(entry);
+    pendingByPrior.computeIfAbsent(prior, key -> new ArrayDeque<>()).add(entry);
+    resolve(createdAtMillis - windowMillis);
+  }
+
+  /**
+   * @return the running balance of the last entry in the chain
+   */
+  long finish() {
+    resolve(Long.MAX_VALUE);
+    return balance;
+  }
+
+  private void resolve(long expiredBefore) {
+    while (true) {
+      var next = pendingByPrior.get(balance);
+      if (next != null) {
+        var entry = next.poll();
+        if (next.isEmpty()) {
+          pendingByPrior.remove(balance);
+        }
+        entry.chained = true;
+        balance = entry.runningBalance;
+        continue;
+      }
+
+      while (!pending.isEmpty() && pending.peek().chained) {
+        pending.poll();
+      }
+      var oldest = pending.peek();
+      if (oldest == null || oldest.createdAtMillis >= expiredBefore) {
+        return;
+      }
+      // The oldest entry waiting is also the first waiting with its prior balance
+      pending.poll();
+      var samePrior = pendingByPrior.get(oldest.prior);
+      samePrior.poll();
+      if (samePrior.isEmpty()) {
+        pendingByPrior.remove(oldest.prior);
+      }
+      listener.onBreak(oldest.ledgerId, balance, oldest.prior);
+      balance = oldest.runningBalance;
+    }
+  }
+
+  interface BreakListener {
+
+    void onBreak(UUID ledgerId, long expectedPrior, long actualPrior);
+
+  }
+
+  private static final class Entry {
+
+    private final UUID ledgerId;
+    private final long prior;
+    private final long runningBalance;
+    private final long createdAtMillis;
+    private boolean chained;
+
+    private Entry(UUID ledgerId, long prior, long runningBalance, long createdAtMillis) {
+      this.ledgerId = ledgerId;
+      this.prior = prior;
+      this.runningBalance = runningBalance;
+      this.createdAtMillis = createdAtMillis;
+    }
+
+  }
+
+}
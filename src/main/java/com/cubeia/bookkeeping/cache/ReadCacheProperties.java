@@ -0,0 +1,21 @@
+package com.cubeia.bookkeeping.cache;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled     whether balance and history reads are served from memory
+ * @param balanceSize number of wallet balances kept in memory
+ * @param historySize number of first history pages kept in memory
+ * @param ttl         upper bound on how long an entry is served, covers writes made on other nodes
+ */
+@ConfigurationProperties(prefix = "bookkeeping.read-cache")
+public record ReadCacheProperties(
+  @DefaultValue("true") boolean enabled,
+  @DefaultValue("10000") long balanceSize,
+  @DefaultValue("1000") long historySize,
+  @DefaultValue("30s") Duration ttl
+) {
+
+}
@@ -0,0 +1,68 @@
+package com.cubeia.bookkeeping.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache in front of a database read. Every key maps to a generation stripe that
+ * is bumped on invalidation, a value loaded while the stripe moved on is not stored, so a read that
+ * raced a committed write can never put an older value back after the write invalidated it.
+ */
+public class ReadThroughCache<K, V> {
+
+  private static final int STRIPES = 256;
+
+  private final Cache<K, V> cache;
+  private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+  private final boolean enabled;
+
+  public ReadThroughCache(String name, long maximumSize, Duration ttl, boolean enabled,
+    MeterRegistry meterRegistry) {
+    this.cache = Caffeine.newBuilder()
+      .maximumSize(maximumSize)
+      .expireAfterWrite(ttl)
+      .recordStats()
+      .build();
+    this.enabled = enabled;
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+  }
+
+  /**
+   * Returns the cached value or loads it, a {@code null} from the loader is returned but not cached.
+   */
+  public V get(K key, Function<K, V> loader) {
+    if (!enabled) {
+      return loader.apply(key);
+    }
+
+    var value = cache.getIfPresent(key);
+    if (value != null) {
+      return value;
+    }
+
+    int stripe = stripe(key);
+    long generation = generations.get(stripe);
+    var loaded = loader.apply(key);
+    if (loaded != null) {
+      // Checked under the entry lock, an invalidation of the key waits for this to finish
+      cache.asMap().compute(key, (k, current) ->
+        generations.get(stripe) == generation ? loaded : current);
+    }
+    return loaded;
+  }
+
+  public void invalidate(K key) {
+    generations.incrementAndGet(stripe(key));
+    cache.asMap().remove(key);
+  }
+
+  private static int stripe(Object key) {
+    return (key.hashCode() & Integer.MAX_VALUE) % STRIPES;
+  }
+
+}
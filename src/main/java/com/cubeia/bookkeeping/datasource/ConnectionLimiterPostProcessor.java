@@ -0,0 +1,47 @@
+package com.cubeia.bookkeeping.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps the application data source in a {@link LimitedDataSource} when the limiter is enabled.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bookkeeping.datasource.limiter", name = "enabled",
+  havingValue = "true")
+public class ConnectionLimiterPostProcessor implements BeanPostProcessor {
+
+  private final ObjectProvider<ConnectionLimiterProperties> properties;
+  private final ObjectProvider<MeterRegistry> meterRegistry;
+
+  public ConnectionLimiterPostProcessor(ObjectProvider<ConnectionLimiterProperties> properties,
+    ObjectProvider<MeterRegistry> meterRegistry) {
+    this.properties = properties;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (!(bean instanceof DataSource dataSource) || bean instanceof LimitedDataSource) {
+      return bean;
+    }
+    var limited = new LimitedDataSource(dataSource, properties.getObject());
+    meterRegistry.ifAvailable(registry -> {
+      Gauge.builder("bookkeeping.datasource.limiter.waiting", limited,
+          LimitedDataSource::getWaiting)
+        .description("Threads waiting for a connection permit")
+        .register(registry);
+      Gauge.builder("bookkeeping.datasource.limiter.available", limited,
+          LimitedDataSource::getAvailablePermits)
+        .description("Connection permits not in use")
+        .register(registry);
+    });
+    return limited;
+  }
+
+}
@@ -0,0 +1,21 @@
+package com.cubeia.bookkeeping.datasource;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled    whether connections are handed out through the limiter
+ * @param permits    connections that may be in use at the same time, at most the pool size
+ * @param maxWaiting threads allowed to wait for a permit, further requests are rejected at once
+ * @param maxWait    how long a thread waits for a permit before it is rejected
+ */
+@ConfigurationProperties(prefix = "bookkeeping.datasource.limiter")
+public record ConnectionLimiterProperties(
+  @DefaultValue("false") boolean enabled,
+  @DefaultValue("10") int permits,
+  @DefaultValue("200") int maxWaiting,
+  @DefaultValue("2s") Duration maxWait
+) {
+
+}
@@ -0,0 +1,22 @@
+package com.cubeia.bookkeeping.datasource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Installs the {@link LockTimeoutExceptionTranslator} on the auto-configured {@link JdbcTemplate},
+ * which is also the one behind the {@code JdbcClient} used by the repositories.
+ */
+@Component
+public class JdbcTemplatePostProcessor implements BeanPostProcessor {
+
+  @Override
+  public Object postProcessBeforeInitialization(Object bean, String beanName) {
+    if (bean instanceof JdbcTemplate jdbcTemplate) {
+      jdbcTemplate.setExceptionTranslator(new LockTimeoutExceptionTranslator());
+    }
+    return bean;
+  }
+
+}
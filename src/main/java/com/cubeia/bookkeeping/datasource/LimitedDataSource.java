@@ -0,0 +1,110 @@
+package com.cubeia.bookkeeping.datasource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Bounds the number of connections in use with a fair semaphore and the number of threads waiting
+ * for one. With virtual threads every request gets its own thread, without this they would all
+ * queue inside the pool until its connection timeout, here excess requests fail fast instead.
+ */
+public class LimitedDataSource extends DelegatingDataSource {
+
+  private final Semaphore permits;
+  private final AtomicInteger waiting = new AtomicInteger();
+  private final int maxWaiting;
+  private final long maxWaitNanos;
+
+  public LimitedDataSource(DataSource dataSource, ConnectionLimiterProperties properties) {
+    super(dataSource);
+    this.permits = new Semaphore(properties.permits(), true);
+    this.maxWaiting = properties.maxWaiting();
+    this.maxWaitNanos = properties.maxWait().toNanos();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    acquire();
+    try {
+      return limited(super.getConnection());
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    acquire();
+    try {
+      return limited(super.getConnection(username, password));
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  public int getWaiting() {
+    return waiting.get();
+  }
+
+  public int getAvailablePermits() {
+    return permits.availablePermits();
+  }
+
+  private void acquire() throws SQLException {
+    if (permits.tryAcquire()) {
+      return;
+    }
+    if (waiting.incrementAndGet() > maxWaiting) {
+      waiting.decrementAndGet();
+      throw new SQLTransientConnectionException("Too many threads waiting for a connection");
+    }
+    try {
+      if (!permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+        throw new SQLTransientConnectionException("Timed out waiting for a connection");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLTransientConnectionException("Interrupted waiting for a connection", e);
+    } finally {
+      waiting.decrementAndGet();
+    }
+  }
+
+  /**
+   * Releases the permit when the connection is closed, at most once.
+   */
+  private Connection limited(Connection connection) {
+    var released = new AtomicBoolean();
+    return (Connection) Proxy.newProxyInstance(
+      Connection.class.getClassLoader(),
+      new Class<?>[]{Connection.class},
+      (proxy, method, args) -> {
+        if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+          try {
+            connection.close();
+          } finally {
+            permits.release();
+          }
+          return null;
+        }
+        try {
+          return method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+          throw e.getTargetException();
+        }
+      }
+    );
+  }
+
+}
@@ -0,0 +1,25 @@
+package com.cubeia.bookkeeping.datasource;
+
+import java.sql.SQLException;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.support.SQLExceptionSubclassTranslator;
+
+/**
+ * The default translator leaves Postgres' {@code lock_not_available} uncategorized, it is
+ * translated to {@link CannotAcquireLockException} here so that a {@code lock_timeout} can be told
+ * apart from other errors.
+ */
+public class LockTimeoutExceptionTranslator extends SQLExceptionSubclassTranslator {
+
+  private static final String LOCK_NOT_AVAILABLE = "55P03";
+
+  @Override
+  protected DataAccessException doTranslate(String task, String sql, SQLException ex) {
+    if (LOCK_NOT_AVAILABLE.equals(ex.getSQLState())) {
+      return new CannotAcquireLockException(buildMessage(task, sql, ex), ex);
+    }
+    return super.doTranslate(task, sql, ex);
+  }
+
+}
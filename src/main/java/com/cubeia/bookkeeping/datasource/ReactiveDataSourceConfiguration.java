@@ -0,0 +1,38 @@
+package com.cubeia.bookkeeping.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * The JDBC data source for the reactive profile. Spring Boot backs off its own data source as soon
+ * as an R2DBC connection factory exists, but Flyway and the blocking fallbacks of the reactive
+ * services still need one, configured from the same {@code spring.datasource.*} properties.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("reactive")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveDataSourceConfiguration {
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  HikariDataSource dataSource(DataSourceProperties properties,
+    ObjectProvider<JdbcConnectionDetails> connectionDetails) {
+    var dataSource = properties.initializeDataSourceBuilder()
+      .type(HikariDataSource.class)
+      .build();
+    connectionDetails.ifAvailable(details -> {
+      dataSource.setJdbcUrl(details.getJdbcUrl());
+      dataSource.setUsername(details.getUsername());
+      dataSource.setPassword(details.getPassword());
+    });
+    return dataSource;
+  }
+
+}
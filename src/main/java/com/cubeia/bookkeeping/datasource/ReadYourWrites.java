@@ -0,0 +1,46 @@
+package com.cubeia.bookkeeping.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Keeps the read only transactions of the current thread on the primary, for callers that have to
+ * see their own writes and cannot wait for the replicas to catch up.
+ */
+public final class ReadYourWrites {
+
+  private static final ThreadLocal<Boolean> REQUESTED = new ThreadLocal<>();
+
+  private ReadYourWrites() {
+  }
+
+  public static boolean isRequested() {
+    return REQUESTED.get() != null;
+  }
+
+  public static <T> T call(Supplier<T> supplier) {
+    boolean entered = enter();
+    try {
+      return supplier.get();
+    } finally {
+      if (entered) {
+        exit();
+      }
+    }
+  }
+
+  /**
+   * @return whether this call requested read your writes, and therefore has to {@link #exit()}
+   */
+  static boolean enter() {
+    if (isRequested()) {
+      return false;
+    }
+    REQUESTED.set(Boolean.TRUE);
+    return true;
+  }
+
+  static void exit() {
+    REQUESTED.remove();
+  }
+
+}
@@ -0,0 +1,38 @@
+package com.cubeia.bookkeeping.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Serves requests sent with {@value #HEADER}{@code : true} from the primary, e.g. a read of a
+ * wallet's history right after a transfer.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "bookkeeping.datasource.replicas", name = "enabled",
+  havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+  public static final String HEADER = "X-Read-Your-Writes";
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+    FilterChain filterChain) throws ServletException, IOException {
+    boolean entered = Boolean.parseBoolean(request.getHeader(HEADER)) && ReadYourWrites.enter();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      if (entered) {
+        ReadYourWrites.exit();
+      }
+    }
+  }
+
+}
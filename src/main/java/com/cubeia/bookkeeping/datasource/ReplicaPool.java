@@ -0,0 +1,161 @@
+package com.cubeia.bookkeeping.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * A connection pool per streaming replica, handed out round robin among the replicas whose
+ * replication lag is within {@link ReplicaProperties#maxLag()}. A replica that lags further, is not
+ * streaming from a primary (a promoted or disconnected standby), or cannot be reached, is out of
+ * rotation until a later check finds it caught up.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bookkeeping.datasource.replicas", name = "enabled",
+  havingValue = "true")
+public class ReplicaPool implements DisposableBean {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReplicaPool.class);
+
+  // Null unless the server is a standby streaming from its primary, reading the receiver's status
+  // takes pg_read_all_stats. Zero while it has replayed everything it received, an idle primary
+  // sends nothing.
+  private static final String LAG = """
+    SELECT CASE
+      WHEN NOT pg_is_in_recovery()
+        OR NOT EXISTS (SELECT FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL
+      WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+      ELSE (EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000)::BIGINT
+    END""";
+
+  private static final long UNREACHABLE = -1;
+  private static final long NOT_STREAMING = -2;
+
+  private final List<Replica> replicas = new ArrayList<>();
+  private final AtomicInteger next = new AtomicInteger();
+  private final long maxLagMillis;
+
+  public ReplicaPool(ReplicaProperties replicaProperties, DataSourceProperties dataSourceProperties,
+    ObjectProvider<JdbcConnectionDetails> connectionDetails,
+    ObjectProvider<MeterRegistry> meterRegistry) {
+    this.maxLagMillis = replicaProperties.maxLag().toMillis();
+    var details = connectionDetails.getIfAvailable();
+    var username = replicaProperties.username() != null ? replicaProperties.username()
+      : details != null ? details.getUsername() : dataSourceProperties.determineUsername();
+    var password = replicaProperties.password() != null ? replicaProperties.password()
+      : details != null ? details.getPassword() : dataSourceProperties.determinePassword();
+
+    for (var url : replicaProperties.urls()) {
+      var name = "replica-" + replicas.size();
+      var dataSource = new HikariDataSource();
+      dataSource.setPoolName(name);
+      dataSource.setJdbcUrl(url);
+      dataSource.setUsername(username);
+      dataSource.setPassword(password);
+      dataSource.setMaximumPoolSize(replicaProperties.maximumPoolSize());
+      dataSource.setConnectionTimeout(replicaProperties.connectionTimeout().toMillis());
+      dataSource.setReadOnly(true);
+      dataSource.addDataSourceProperty("ApplicationName", name);
+      // A replica that is down at startup stays out of rotation instead of failing the application
+      dataSource.setInitializationFailTimeout(-1);
+      meterRegistry.ifAvailable(registry ->
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+      var replica = new Replica(name, dataSource);
+      replicas.add(replica);
+      meterRegistry.ifAvailable(registry -> {
+        Gauge.builder("bookkeeping.datasource.replica.lag", replica,
+          r -> r.lagMillis < 0 ? -1 : r.lagMillis / 1000.0)
+          .tag("replica", name)
+          .baseUnit("seconds")
+          .description("Replication lag at the last check, -1 when unreachable or not streaming")
+          .register(registry);
+        Gauge.builder("bookkeeping.datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+          .tag("replica", name)
+          .description("Whether the replica is in rotation")
+          .register(registry);
+      });
+    }
+  }
+
+  /**
+   * @return the next replica in rotation, or {@code null} when every replica is out of rotation
+   */
+  public DataSource next() {
+    int size = replicas.size();
+    int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+    for (int i = 0; i < size; i++) {
+      var replica = replicas.get((start + i) % size);
+      if (replica.healthy) {
+        return replica.dataSource;
+      }
+    }
+    return null;
+  }
+
+  @Scheduled(fixedDelayString = "${bookkeeping.datasource.replicas.lag-check-interval:PT1S}")
+  public void checkLag() {
+    for (var replica : replicas) {
+      long lagMillis;
+      try (var connection = replica.dataSource.getConnection();
+        var statement = connection.createStatement();
+        var rs = statement.executeQuery(LAG)) {
+        rs.next();
+        lagMillis = rs.getLong(1);
+        if (rs.wasNull()) {
+          lagMillis = NOT_STREAMING;
+        }
+      } catch (SQLException e) {
+        lagMillis = UNREACHABLE;
+      }
+
+      boolean healthy = lagMillis >= 0 && lagMillis <= maxLagMillis;
+      if (healthy != replica.healthy) {
+        if (healthy) {
+          LOG.info("Replica {} back in rotation, lag {} ms", replica.name, lagMillis);
+        } else {
+          LOG.warn("Replica {} out of rotation, lag {}", replica.name,
+            lagMillis == UNREACHABLE ? "unknown, unreachable"
+              : lagMillis == NOT_STREAMING ? "unknown, not streaming from a primary"
+              : lagMillis + " ms");
+        }
+      }
+      replica.lagMillis = lagMillis;
+      replica.healthy = healthy;
+    }
+  }
+
+  @Override
+  public void destroy() {
+    replicas.forEach(replica -> replica.dataSource.close());
+  }
+
+  private static final class Replica {
+
+    private final String name;
+    private final HikariDataSource dataSource;
+    private volatile long lagMillis = -1;
+    private volatile boolean healthy;
+
+    private Replica(String name, HikariDataSource dataSource) {
+      this.name = name;
+      this.dataSource = dataSource;
+    }
+
+  }
+
+}
@@ -0,0 +1,29 @@
+package com.cubeia.bookkeeping.datasource;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled           whether read only transactions are routed to the replicas
+ * @param urls              JDBC URLs of the streaming replicas
+ * @param username          user on the replicas, the primary's when not set
+ * @param password          password on the replicas, the primary's when not set
+ * @param maximumPoolSize   connections per replica
+ * @param connectionTimeout how long a read waits for a replica connection before it falls back
+ *                          to the primary, also bounds the lag check of an unreachable replica
+ * @param maxLag            replication lag above which a replica is taken out of rotation
+ */
+@ConfigurationProperties(prefix = "bookkeeping.datasource.replicas")
+public record ReplicaProperties(
+  @DefaultValue("false") boolean enabled,
+  @DefaultValue List<String> urls,
+  String username,
+  String password,
+  @DefaultValue("10") int maximumPoolSize,
+  @DefaultValue("2s") Duration connectionTimeout,
+  @DefaultValue("5s") Duration maxLag
+) {
+
+}
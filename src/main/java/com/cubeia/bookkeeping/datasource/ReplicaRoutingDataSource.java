@@ -0,0 +1,69 @@
+package com.cubeia.bookkeeping.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * The read only data source of the {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * in front of the primary: connections of read only transactions come from a replica in rotation.
+ * They come from the primary when read your writes was requested, when no replica is in rotation
+ * or the one picked fails to connect, and for read only work outside of a transaction. The latter
+ * is how the in-memory caches load their entries, so a cache never keeps a value older than the
+ * write that invalidated it.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+  private final DataSource primary;
+  private final ReplicaPool replicaPool;
+
+  public ReplicaRoutingDataSource(DataSource primary, ReplicaPool replicaPool) {
+    this.primary = primary;
+    this.replicaPool = replicaPool;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    var replica = route();
+    if (replica != null) {
+      try {
+        return replica.getConnection();
+      } catch (SQLException e) {
+        LOG.warn("Replica connection failed, reading from the primary: {}", e.getMessage());
+      }
+    }
+    var connection = primary.getConnection();
+    connection.setReadOnly(true);
+    return connection;
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    var replica = route();
+    if (replica != null) {
+      try {
+        return replica.getConnection(username, password);
+      } catch (SQLException e) {
+        LOG.warn("Replica connection failed, reading from the primary: {}", e.getMessage());
+      }
+    }
+    var connection = primary.getConnection(username, password);
+    connection.setReadOnly(true);
+    return connection;
+  }
+
+  private DataSource route() {
+    if (ReadYourWrites.isRequested()
+      || !TransactionSynchronizationManager.isActualTransactionActive()) {
+      return null;
+    }
+    return replicaPool.next();
+  }
+
+}
@@ -0,0 +1,38 @@
+package com.cubeia.bookkeeping.datasource;
+
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Puts a {@link LazyConnectionDataSourceProxy} in front of the application data source when
+ * replicas are enabled. The transaction manager marks the connection of a read only transaction
+ * read only before its first statement, and the proxy only fetches a real connection at that
+ * statement, from the {@link ReplicaRoutingDataSource} for read only ones.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bookkeeping.datasource.replicas", name = "enabled",
+  havingValue = "true")
+public class ReplicaRoutingPostProcessor implements BeanPostProcessor {
+
+  private final ObjectProvider<ReplicaPool> replicaPool;
+
+  public ReplicaRoutingPostProcessor(ObjectProvider<ReplicaPool> replicaPool) {
+    this.replicaPool = replicaPool;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (!(bean instanceof DataSource dataSource)
+      || bean instanceof LazyConnectionDataSourceProxy) {
+      return bean;
+    }
+    var proxy = new LazyConnectionDataSourceProxy(dataSource);
+    proxy.setReadOnlyDataSource(new ReplicaRoutingDataSource(dataSource, replicaPool.getObject()));
+    return proxy;
+  }
+
+}
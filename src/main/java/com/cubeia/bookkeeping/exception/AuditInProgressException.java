@@ -0,0 +1,9 @@
+package com.cubeia.bookkeeping.exception;
+
+public class AuditInProgressException extends RuntimeException {
+
+  public AuditInProgressException(String message) {
+    super(message, null, false, false);
+  }
+
+}
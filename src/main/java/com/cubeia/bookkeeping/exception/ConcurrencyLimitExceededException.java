@@ -0,0 +1,9 @@
+package com.cubeia.bookkeeping.exception;
+
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+  public ConcurrencyLimitExceededException(String message) {
+    super(message, null, false, false);
+  }
+
+}
@@ -0,0 +1,9 @@
+package com.cubeia.bookkeeping.exception;
+
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+  public IdempotencyKeyMismatchException() {
+    super("Idempotency key was already used for a different transfer", null, false, false);
+  }
+
+}
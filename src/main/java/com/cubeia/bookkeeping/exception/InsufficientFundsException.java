@@ -3,6 +3,6 @@ package com.cubeia.bookkeeping.exception;
 public class InsufficientFundsException extends RuntimeException {
 
   public InsufficientFundsException(String message) {
-    super(message);
+    super(message, null, false, false);
   }
 }
@@ -0,0 +1,9 @@
+package com.cubeia.bookkeeping.exception;
+
+public class InvalidCursorException extends RuntimeException {
+
+  public InvalidCursorException() {
+    super("Invalid page cursor", null, false, false);
+  }
+
+}
@@ -0,0 +1,9 @@
+package com.cubeia.bookkeeping.exception;
+
+public class InvalidTimeRangeException extends RuntimeException {
+
+  public InvalidTimeRangeException() {
+    super("'from' must be before 'to'", null, false, false);
+  }
+
+}
@@ -3,7 +3,7 @@ package com.cubeia.bookkeeping.exception;
 public class SameAccountTransferException extends RuntimeException {
 
   public SameAccountTransferException() {
-    super("Cannot transfer to the same wallet");
+    super("Cannot transfer to the same wallet", null, false, false);
   }
 
 
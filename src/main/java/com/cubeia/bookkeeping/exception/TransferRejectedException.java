@@ -0,0 +1,9 @@
+package com.cubeia.bookkeeping.exception;
+
+public class TransferRejectedException extends RuntimeException {
+
+  public TransferRejectedException(String message) {
+    super(message, null, false, false);
+  }
+
+}
@@ -3,7 +3,7 @@ package com.cubeia.bookkeeping.exception;
 public class UniqueException extends RuntimeException {
 
   public UniqueException(String message) {
-    super(message);
+    super(message, null, false, false);
   }
 
 
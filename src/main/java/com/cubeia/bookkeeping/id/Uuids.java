@@ -0,0 +1,23 @@
+package com.cubeia.bookkeeping.id;
+
+import com.fasterxml.uuid.Generators;
+import com.fasterxml.uuid.impl.TimeBasedEpochRandomGenerator;
+import java.util.UUID;
+
+/**
+ * Time-ordered UUIDv7 ids for wallets, transactions and ledger entries. One generator is shared by
+ * all threads, {@link Generators#timeBasedEpochRandomGenerator()} builds a new one on every call.
+ */
+public final class Uuids {
+
+  private static final TimeBasedEpochRandomGenerator GENERATOR =
+    Generators.timeBasedEpochRandomGenerator();
+
+  private Uuids() {
+  }
+
+  public static UUID next() {
+    return GENERATOR.generate();
+  }
+
+}
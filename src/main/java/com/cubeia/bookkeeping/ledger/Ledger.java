@@ -1,6 +1,5 @@
 package com.cubeia.bookkeeping.ledger;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -8,8 +7,8 @@ public record Ledger(
   UUID id,
   UUID transactionId,
   UUID walletId,
-  BigDecimal amount,
-  BigDecimal runningBalance,
+  long amount,
+  long runningBalance,
   Instant createdAt
 ) {
 
@@ -19,8 +18,8 @@ public record Ledger(
     private UUID id;
     private UUID transactionId;
     private UUID walletId;
-    private BigDecimal amount;
-    private BigDecimal runningBalance;
+    private long amount;
+    private long runningBalance;
     private Instant createdAt;
 
     public LedgerBuilder() {
@@ -54,12 +53,12 @@ public record Ledger(
       return this;
     }
 
-    public LedgerBuilder amount(BigDecimal amount) {
+    public LedgerBuilder amount(long amount) {
       this.amount = amount;
       return this;
     }
 
-    public LedgerBuilder runningBalance(BigDecimal runningBalance) {
+    public LedgerBuilder runningBalance(long runningBalance) {
       this.runningBalance = runningBalance;
       return this;
     }
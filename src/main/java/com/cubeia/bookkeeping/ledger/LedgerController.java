@@ -0,0 +1,61 @@
+package com.cubeia.bookkeeping.ledger;
+
+import com.cubeia.bookkeeping.exception.InvalidTimeRangeException;
+import com.cubeia.bookkeeping.wallet.WalletService;
+import io.swagger.v3.oas.annotations.Operation;
+import java.time.Instant;
+import java.util.UUID;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/wallets")
+@Profile("!reactive")
+public class LedgerController {
+
+  private final LedgerService ledgerService;
+  private final WalletService walletService;
+
+  public LedgerController(LedgerService ledgerService, WalletService walletService) {
+    this.ledgerService = ledgerService;
+    this.walletService = walletService;
+  }
+
+  @GetMapping("/{walletId}/ledger/export")
+  @Operation(
+    description = "Stream the full ledger of a wallet, oldest entry first, as NDJSON or CSV. "
+      + "'from' is inclusive and 'to' exclusive, both optional ISO-8601 instants.",
+    summary = "Export wallet ledger"
+  )
+  public ResponseEntity<StreamingResponseBody> exportLedger(
+    @PathVariable UUID walletId,
+    @RequestParam(defaultValue = "NDJSON") LedgerExportFormat format,
+    @RequestParam(required = false) Instant from,
+    @RequestParam(required = false) Instant to
+  ) {
+    if (from != null && to != null && !from.isBefore(to)) {
+      throw new InvalidTimeRangeException();
+    }
+    // Fail before the response is committed, the export itself can no longer change the status
+    walletService.getWalletById(walletId, false);
+
+    StreamingResponseBody body = outputStream ->
+      ledgerService.exportLedgerEntries(walletId, from, to, format, outputStream);
+    return ResponseEntity.ok()
+      .contentType(format.mediaType())
+      .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+        .filename("ledger-" + walletId + "." + format.fileExtension())
+        .build()
+        .toString())
+      .body(body);
+  }
+
+}
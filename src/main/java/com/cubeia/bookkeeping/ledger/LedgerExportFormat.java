@@ -0,0 +1,33 @@
+package com.cubeia.bookkeeping.ledger;
+
+import org.springframework.http.MediaType;
+
+public enum LedgerExportFormat {
+
+  /**
+   * One JSON object per line.
+   */
+  NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+
+  /**
+   * Comma separated values with a header line.
+   */
+  CSV(new MediaType("text", "csv"), "csv");
+
+  private final MediaType mediaType;
+  private final String fileExtension;
+
+  LedgerExportFormat(MediaType mediaType, String fileExtension) {
+    this.mediaType = mediaType;
+    this.fileExtension = fileExtension;
+  }
+
+  public MediaType mediaType() {
+    return mediaType;
+  }
+
+  public String fileExtension() {
+    return fileExtension;
+  }
+
+}
@@ -0,0 +1,15 @@
+package com.cubeia.bookkeeping.ledger;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param fetchSize rows fetched per round trip from the server-side cursor, and rows written
+ *                  between two flushes of the response
+ */
+@ConfigurationProperties(prefix = "bookkeeping.ledger.export")
+public record LedgerExportProperties(
+  @DefaultValue("1000") int fetchSize
+) {
+
+}
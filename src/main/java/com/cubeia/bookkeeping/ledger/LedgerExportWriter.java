@@ -0,0 +1,122 @@
+package com.cubeia.bookkeeping.ledger;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+/**
+ * Writes the rows of {@link LedgerRepository#streamLedgerEntries} straight from the
+ * {@link ResultSet} to the response, without building {@link Ledger} objects. Output is buffered
+ * and flushed every {@code flushEvery} rows; a slow client blocks the flush, and with it the
+ * cursor.
+ */
+abstract class LedgerExportWriter implements RowCallbackHandler {
+
+  private final int flushEvery;
+  private long rows;
+
+  private LedgerExportWriter(int flushEvery) {
+    this.flushEvery = flushEvery;
+  }
+
+  static LedgerExportWriter create(LedgerExportFormat format, OutputStream outputStream,
+    JsonFactory jsonFactory, int flushEvery) throws IOException {
+    return switch (format) {
+      case NDJSON -> new NdjsonWriter(jsonFactory, outputStream, flushEvery);
+      case CSV -> new CsvWriter(outputStream, flushEvery);
+    };
+  }
+
+  @Override
+  public void processRow(ResultSet rs) throws SQLException {
+    try {
+      writeRow(rs);
+      if (++rows % flushEvery == 0) {
+        flush();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  abstract void writeRow(ResultSet rs) throws SQLException, IOException;
+
+  abstract void flush() throws IOException;
+
+  private static final class NdjsonWriter extends LedgerExportWriter {
+
+    private final JsonGenerator generator;
+
+    private NdjsonWriter(JsonFactory jsonFactory, OutputStream outputStream, int flushEvery)
+      throws IOException {
+      super(flushEvery);
+      this.generator = jsonFactory.createGenerator(outputStream)
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    void writeRow(ResultSet rs) throws SQLException, IOException {
+      generator.writeStartObject();
+      generator.writeStringField("id", rs.getString(1));
+      generator.writeStringField("transactionId", rs.getString(2));
+      generator.writeStringField("walletId", rs.getString(3));
+      generator.writeNumberField("amount", rs.getLong(4));
+      generator.writeNumberField("runningBalance", rs.getLong(5));
+      generator.writeStringField("createdAt", rs.getTimestamp(6).toInstant().toString());
+      generator.writeEndObject();
+      generator.writeRaw('\n');
+    }
+
+    @Override
+    void flush() throws IOException {
+      generator.flush();
+    }
+
+  }
+
+  private static final class CsvWriter extends LedgerExportWriter {
+
+    private final Writer writer;
+
+    private CsvWriter(OutputStream outputStream, int flushEvery) throws IOException {
+      super(flushEvery);
+      this.writer = new BufferedWriter(
+        new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+      this.writer.write("id,transactionId,walletId,amount,runningBalance,createdAt\n");
+    }
+
+    @Override
+    void writeRow(ResultSet rs) throws SQLException, IOException {
+      // Ids, numbers and ISO timestamps, nothing that needs quoting
+      writer.write(rs.getString(1));
+      writer.write(',');
+      writer.write(rs.getString(2));
+      writer.write(',');
+      writer.write(rs.getString(3));
+      writer.write(',');
+      writer.write(Long.toString(rs.getLong(4)));
+      writer.write(',');
+      writer.write(Long.toString(rs.getLong(5)));
+      writer.write(',');
+      writer.write(rs.getTimestamp(6).toInstant().toString());
+      writer.write('\n');
+    }
+
+    @Override
+    void flush() throws IOException {
+      writer.flush();
+    }
+
+  }
+
+}
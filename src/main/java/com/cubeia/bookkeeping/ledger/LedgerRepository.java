@@ -1,25 +1,38 @@
 package com.cubeia.bookkeeping.ledger;
 
+import com.cubeia.bookkeeping.api.Cursor;
+import com.cubeia.bookkeeping.api.Page;
+import io.micrometer.core.annotation.Timed;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.stereotype.Repository;
 
 @Repository
+@Timed("bookkeeping.repository")
 public class LedgerRepository {
 
   private static final RowMapper<Ledger> LEDGER_ROW_MAPPER = (rs, rowNum) -> new Ledger.LedgerBuilder()
     .id(rs.getObject("id", UUID.class))
     .transactionId(rs.getObject("transaction_id", UUID.class))
     .walletId(rs.getObject("wallet_id", UUID.class))
-    .amount(rs.getBigDecimal("amount"))
+    .amount(rs.getLong("amount"))
     .createdAt(rs.getTimestamp("created_at").toInstant())
     .build();
   private final JdbcClient jdbcClient;
+  private final JdbcTemplate jdbcTemplate;
 
-  public LedgerRepository(JdbcClient jdbcClient) {
+  public LedgerRepository(JdbcClient jdbcClient, JdbcTemplate jdbcTemplate) {
     this.jdbcClient = jdbcClient;
+    this.jdbcTemplate = jdbcTemplate;
   }
 
   public void createLedgerEntry(Ledger ledger) {
@@ -33,14 +46,28 @@ public class LedgerRepository {
       .update();
   }
 
-  public List<Ledger> getLedgerEntriesByWalletId(UUID walletId, Integer limit, Integer offset) {
+  public List<Ledger> getLedgerEntriesByWalletId(UUID walletId, Integer limit, Integer offset,
+    Cursor after) {
     if (limit == null || limit <= 0) {
-      limit = 10;
+      limit = Page.DEFAULT_LIMIT;
+    }
+    if (after != null) {
+      String sql = "SELECT id, transaction_id, wallet_id, amount, created_at FROM gnl.ledger "
+        + "WHERE wallet_id = ? AND created_at <= ? AND (created_at, id) < (?, ?) "
+        + "ORDER BY created_at DESC, id DESC LIMIT ?";
+      return jdbcClient.sql(sql)
+        .param(walletId)
+        .param(after.createdAtParam())
+        .param(after.createdAtParam())
+        .param(after.id())
+        .param(limit)
+        .query(LEDGER_ROW_MAPPER)
+        .list();
     }
     if (offset == null || offset < 0) {
       offset = 0;
     }
-    String sql = "SELECT id, transaction_id, wallet_id, amount, created_at FROM gnl.ledger WHERE wallet_id = ? ORDER BY created_at DESC LIMIT ? OFFSET ?";
+    String sql = "SELECT id, transaction_id, wallet_id, amount, created_at FROM gnl.ledger WHERE wallet_id = ? ORDER BY created_at DESC, id DESC LIMIT ? OFFSET ?";
     return jdbcClient.sql(sql)
       .param(walletId)
       .param(limit)
@@ -49,4 +76,36 @@ public class LedgerRepository {
       .list();
   }
 
+  /**
+   * Passes the ledger of a wallet, oldest entry first and optionally limited to
+   * {@code [from, to)}, row by row to {@code handler}. The rows are read from a server-side
+   * cursor {@code fetchSize} at a time, which Postgres only opens inside a transaction.
+   */
+  public void streamLedgerEntries(UUID walletId, Instant from, Instant to, int fetchSize,
+    RowCallbackHandler handler) {
+    var sql = new StringBuilder("SELECT id, transaction_id, wallet_id, amount, running_balance, "
+      + "created_at FROM gnl.ledger WHERE wallet_id = ?");
+    List<Object> params = new ArrayList<>();
+    params.add(walletId);
+    if (from != null) {
+      sql.append(" AND created_at >= ?");
+      params.add(from.atOffset(ZoneOffset.UTC));
+    }
+    if (to != null) {
+      sql.append(" AND created_at < ?");
+      params.add(to.atOffset(ZoneOffset.UTC));
+    }
+    sql.append(" ORDER BY created_at, id");
+
+    jdbcTemplate.query(connection -> {
+      PreparedStatement statement = connection.prepareStatement(sql.toString(),
+        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      statement.setFetchSize(fetchSize);
+      for (int i = 0; i < params.size(); i++) {
+        statement.setObject(i + 1, params.get(i));
+      }
+      return statement;
+    }, handler);
+  }
+
 }
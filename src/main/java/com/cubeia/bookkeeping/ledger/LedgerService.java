@@ -1,5 +1,11 @@
 package com.cubeia.bookkeeping.ledger;
 
+import com.cubeia.bookkeeping.api.Cursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.stereotype.Service;
@@ -10,9 +16,14 @@ import org.springframework.transaction.annotation.Transactional;
 public class LedgerService {
 
   private final LedgerRepository ledgerRepository;
+  private final LedgerExportProperties exportProperties;
+  private final ObjectMapper objectMapper;
 
-  public LedgerService(LedgerRepository ledgerRepository) {
+  public LedgerService(LedgerRepository ledgerRepository,
+    LedgerExportProperties exportProperties, ObjectMapper objectMapper) {
     this.ledgerRepository = ledgerRepository;
+    this.exportProperties = exportProperties;
+    this.objectMapper = objectMapper;
   }
 
   public void createLedgerEntry(Ledger ledger) {
@@ -20,8 +31,29 @@ public class LedgerService {
   }
 
   @Transactional(readOnly = true)
-  public List<Ledger> getLedgerEntriesByWalletId(UUID walletId, Integer limit, Integer offset) {
-    return ledgerRepository.getLedgerEntriesByWalletId(walletId, limit, offset);
+  public List<Ledger> getLedgerEntriesByWalletId(UUID walletId, Integer limit, Integer offset,
+    Cursor after) {
+    return ledgerRepository.getLedgerEntriesByWalletId(walletId, limit, offset, after);
+  }
+
+  /**
+   * Writes the ledger of a wallet to {@code outputStream} while it is being read. Memory use does
+   * not depend on the size of the ledger, but one connection is held until the client has read
+   * the last row.
+   */
+  @Transactional(readOnly = true)
+  public void exportLedgerEntries(UUID walletId, Instant from, Instant to,
+    LedgerExportFormat format, OutputStream outputStream) throws IOException {
+    var writer = LedgerExportWriter.create(format, outputStream, objectMapper.getFactory(),
+      exportProperties.fetchSize());
+    try {
+      ledgerRepository.streamLedgerEntries(walletId, from, to, exportProperties.fetchSize(),
+        writer);
+    } catch (UncheckedIOException e) {
+      // Most likely the client went away, let the caller see it as such
+      throw e.getCause();
+    }
+    writer.flush();
   }
 
 }
@@ -0,0 +1,82 @@
+package com.cubeia.bookkeeping.ledger;
+
+import com.cubeia.bookkeeping.api.Cursor;
+import com.cubeia.bookkeeping.api.Page;
+import io.r2dbc.spi.Readable;
+import java.time.Instant;
+import java.util.UUID;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2DBC counterpart of {@link LedgerRepository} for the reactive stack.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveLedgerRepository {
+
+  private final DatabaseClient databaseClient;
+
+  public ReactiveLedgerRepository(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+  }
+
+  private static Ledger mapLedger(Readable row) {
+    return new Ledger.LedgerBuilder()
+      .id(row.get("id", UUID.class))
+      .transactionId(row.get("transaction_id", UUID.class))
+      .walletId(row.get("wallet_id", UUID.class))
+      .amount(row.get("amount", Long.class))
+      .createdAt(row.get("created_at", Instant.class))
+      .build();
+  }
+
+  public Mono<Void> createLedgerEntry(Ledger ledger) {
+    String sql = "INSERT INTO gnl.ledger (id, transaction_id, wallet_id, amount, running_balance) "
+      + "VALUES (:id, :transactionId, :walletId, :amount, :runningBalance)";
+    return databaseClient.sql(sql)
+      .bind("id", ledger.id())
+      .bind("transactionId", ledger.transactionId())
+      .bind("walletId", ledger.walletId())
+      .bind("amount", ledger.amount())
+      .bind("runningBalance", ledger.runningBalance())
+      .fetch()
+      .rowsUpdated()
+      .then();
+  }
+
+  public Flux<Ledger> getLedgerEntriesByWalletId(UUID walletId, Integer limit, Integer offset,
+    Cursor after) {
+    if (limit == null || limit <= 0) {
+      limit = Page.DEFAULT_LIMIT;
+    }
+    if (after != null) {
+      String sql = "SELECT id, transaction_id, wallet_id, amount, created_at FROM gnl.ledger "
+        + "WHERE wallet_id = :walletId AND created_at <= :createdAt "
+        + "AND (created_at, id) < (:createdAt, :id) "
+        + "ORDER BY created_at DESC, id DESC LIMIT :limit";
+      return databaseClient.sql(sql)
+        .bind("walletId", walletId)
+        .bind("createdAt", after.createdAtParam())
+        .bind("id", after.id())
+        .bind("limit", limit)
+        .map(ReactiveLedgerRepository::mapLedger)
+        .all();
+    }
+    if (offset == null || offset < 0) {
+      offset = 0;
+    }
+    String sql = "SELECT id, transaction_id, wallet_id, amount, created_at FROM gnl.ledger "
+      + "WHERE wallet_id = :walletId ORDER BY created_at DESC, id DESC LIMIT :limit OFFSET :offset";
+    return databaseClient.sql(sql)
+      .bind("walletId", walletId)
+      .bind("limit", limit)
+      .bind("offset", offset)
+      .map(ReactiveLedgerRepository::mapLedger)
+      .all();
+  }
+
+}
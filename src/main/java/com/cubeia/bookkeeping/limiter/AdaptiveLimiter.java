@@ -0,0 +1,116 @@
+package com.cubeia.bookkeeping.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the requests in flight to a limit that adapts to their latency, additive increase and
+ * multiplicative decrease. The recent latency, an average over about the last ten requests, is
+ * compared with the long term latency, an average over about the last five hundred. While the
+ * recent latency stays within {@link ConcurrencyLimitProperties.Limit#tolerance()} times the long
+ * term latency and the limit is at least half used, the limit grows by about one per round of
+ * requests. When requests queue up, on row locks or for connections, the recent latency rises and
+ * the limit is cut by {@link ConcurrencyLimitProperties.Limit#backoffRatio()}, as it is when a
+ * request fails with a lock or connection timeout. Requests over the limit are rejected at once.
+ */
+public class AdaptiveLimiter {
+
+  private static final double RECENT_WEIGHT = 0.1;
+  private static final double LONG_TERM_WEIGHT = 0.002;
+
+  private final String name;
+  private final ConcurrencyLimitProperties.Limit properties;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final Counter rejected;
+  private volatile int limit;
+
+  // Guarded by this
+  private double exactLimit;
+  private double recentLatency;
+  private double longTermLatency;
+  private long samplesSinceDecrease;
+
+  public AdaptiveLimiter(String name, ConcurrencyLimitProperties.Limit properties,
+    MeterRegistry meterRegistry) {
+    this.name = name;
+    this.properties = properties;
+    this.exactLimit = Math.clamp(properties.initialLimit(), properties.minLimit(),
+      properties.maxLimit());
+    this.limit = (int) exactLimit;
+    this.rejected = Counter.builder("bookkeeping.concurrency-limit.rejected")
+      .tag("limiter", name)
+      .description("Requests rejected because the limit was reached")
+      .register(meterRegistry);
+    Gauge.builder("bookkeeping.concurrency-limit.limit", this, AdaptiveLimiter::getLimit)
+      .tag("limiter", name)
+      .description("Requests admitted in flight at the same time")
+      .register(meterRegistry);
+    Gauge.builder("bookkeeping.concurrency-limit.in-flight", this, AdaptiveLimiter::getInFlight)
+      .tag("limiter", name)
+      .description("Requests in flight")
+      .register(meterRegistry);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  /**
+   * @return whether the request is admitted, if so it has to be {@link #release released}
+   */
+  public boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= limit) {
+        rejected.increment();
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * @param latencyNanos how long the admitted request took
+   * @param dropped      whether it failed because the service was overloaded, e.g. a lock timeout
+   */
+  public void release(long latencyNanos, boolean dropped) {
+    int current = inFlight.getAndDecrement();
+    update(latencyNanos, dropped, current);
+  }
+
+  private synchronized void update(long latencyNanos, boolean dropped, int inFlight) {
+    if (longTermLatency == 0) {
+      recentLatency = latencyNanos;
+      longTermLatency = latencyNanos;
+    }
+    recentLatency += (latencyNanos - recentLatency) * RECENT_WEIGHT;
+    longTermLatency += (latencyNanos - longTermLatency) * LONG_TERM_WEIGHT;
+    samplesSinceDecrease++;
+
+    if (dropped || recentLatency > longTermLatency * properties.tolerance()) {
+      // At most one decrease per round, requests admitted before the last one still report the
+      // latency of the old limit
+      if (samplesSinceDecrease >= exactLimit) {
+        exactLimit = Math.max(properties.minLimit(), exactLimit * properties.backoffRatio());
+        samplesSinceDecrease = 0;
+      }
+    } else if (inFlight * 2 >= exactLimit) {
+      // Only a limit that is actually used is grown, or it would drift to the maximum when idle
+      exactLimit = Math.min(properties.maxLimit(), exactLimit + 1 / exactLimit);
+    }
+    limit = (int) exactLimit;
+  }
+
+}
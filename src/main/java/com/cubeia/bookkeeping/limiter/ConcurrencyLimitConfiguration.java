@@ -0,0 +1,50 @@
+package com.cubeia.bookkeeping.limiter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Sheds load in front of the transfer endpoints and the read endpoints, each with a limiter of its
+ * own. Wallet creation, imports, ledger exports and the admin endpoints are not limited.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "bookkeeping.concurrency-limit", name = "enabled",
+  havingValue = "true")
+public class ConcurrencyLimitConfiguration implements WebMvcConfigurer {
+
+  private final AdaptiveLimiter transferLimiter;
+  private final AdaptiveLimiter readLimiter;
+
+  public ConcurrencyLimitConfiguration(ConcurrencyLimitProperties properties,
+    MeterRegistry meterRegistry) {
+    this.transferLimiter = new AdaptiveLimiter("transfers", properties.transfers(), meterRegistry);
+    this.readLimiter = new AdaptiveLimiter("reads", properties.reads(), meterRegistry);
+  }
+
+  @Bean
+  AdaptiveLimiter transferLimiter() {
+    return transferLimiter;
+  }
+
+  @Bean
+  AdaptiveLimiter readLimiter() {
+    return readLimiter;
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new ConcurrencyLimitInterceptor(transferLimiter, "POST"))
+      .addPathPatterns("/transactions/transfer", "/transactions/transfers/batch");
+    registry.addInterceptor(new ConcurrencyLimitInterceptor(readLimiter, "GET"))
+      .addPathPatterns("/wallets", "/wallets/*/balance", "/transactions/*")
+      // Answered from memory, and needed most when the service is overloaded
+      .excludePathPatterns("/transactions/hot-wallets");
+  }
+
+}
@@ -0,0 +1,50 @@
+package com.cubeia.bookkeeping.limiter;
+
+import com.cubeia.bookkeeping.exception.ConcurrencyLimitExceededException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Admits requests with the given method through a limiter, requests over its limit fail with
+ * {@link ConcurrencyLimitExceededException} before they reach the controller. A request that ends
+ * with 503, a lock or connection timeout, counts as dropped.
+ */
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+  private final AdaptiveLimiter limiter;
+  private final String method;
+  private final String startedAttribute;
+
+  public ConcurrencyLimitInterceptor(AdaptiveLimiter limiter, String method) {
+    this.limiter = limiter;
+    this.method = method;
+    this.startedAttribute = ConcurrencyLimitInterceptor.class.getName() + "." + limiter.getName();
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+    Object handler) {
+    if (!method.equals(request.getMethod())) {
+      return true;
+    }
+    if (!limiter.tryAcquire()) {
+      throw new ConcurrencyLimitExceededException(
+        "Too many " + limiter.getName() + " in flight, retry later");
+    }
+    request.setAttribute(startedAttribute, System.nanoTime());
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+    Object handler, Exception ex) {
+    if (request.getAttribute(startedAttribute) instanceof Long started) {
+      request.removeAttribute(startedAttribute);
+      limiter.release(System.nanoTime() - started,
+        response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+  }
+
+}
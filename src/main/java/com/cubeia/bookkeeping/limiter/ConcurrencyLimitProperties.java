@@ -0,0 +1,37 @@
+package com.cubeia.bookkeeping.limiter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled   whether transfers and reads are admitted through their limiters
+ * @param transfers limit of transfer requests in flight
+ * @param reads     limit of read requests in flight, separate so that reads stay available while
+ *                  transfers are shed and the other way round
+ */
+@ConfigurationProperties(prefix = "bookkeeping.concurrency-limit")
+public record ConcurrencyLimitProperties(
+  @DefaultValue("false") boolean enabled,
+  @DefaultValue Limit transfers,
+  @DefaultValue Limit reads
+) {
+
+  /**
+   * @param initialLimit requests in flight admitted before any latency has been observed
+   * @param minLimit     the limit never drops below this
+   * @param maxLimit     the limit never grows beyond this
+   * @param tolerance    how many times the long term latency the recent latency may reach before
+   *                     the limit is decreased
+   * @param backoffRatio factor the limit is multiplied with on a decrease
+   */
+  public record Limit(
+    @DefaultValue("20") int initialLimit,
+    @DefaultValue("1") int minLimit,
+    @DefaultValue("200") int maxLimit,
+    @DefaultValue("2.0") double tolerance,
+    @DefaultValue("0.9") double backoffRatio
+  ) {
+
+  }
+
+}
@@ -0,0 +1,53 @@
+package com.cubeia.bookkeeping.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Appends events to a local NDJSON file, a stand-in for a message broker. The file is synced
+ * before the batch counts as delivered.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bookkeeping.outbox", name = "sink", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+
+  private final OutboxProperties outboxProperties;
+  private final ObjectMapper objectMapper;
+
+  public FileOutboxSink(OutboxProperties outboxProperties, ObjectMapper objectMapper) {
+    if (outboxProperties.file() == null) {
+      throw new IllegalStateException("bookkeeping.outbox.file is required by the file sink");
+    }
+    this.outboxProperties = outboxProperties;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public void publish(List<TransferEvent> events) {
+    var lines = new StringBuilder(events.size() * 200);
+    try {
+      for (var event : events) {
+        lines.append(objectMapper.writeValueAsString(event)).append('\n');
+      }
+      try (var channel = FileChannel.open(outboxProperties.file(), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+        var buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+        channel.force(false);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+}
@@ -0,0 +1,33 @@
+package com.cubeia.bookkeeping.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+
+@Component
+public class OutboxMetrics {
+
+  private final Counter delivered;
+  private final AtomicLong lagMillis = new AtomicLong();
+
+  public OutboxMetrics(MeterRegistry meterRegistry) {
+    this.delivered = Counter.builder("bookkeeping.outbox.delivered")
+      .description("Transfer events delivered to the outbox sink")
+      .register(meterRegistry);
+    Gauge.builder("bookkeeping.outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+      .baseUnit("seconds")
+      .description("Time from creation to delivery of the last delivered transfer event")
+      .register(meterRegistry);
+  }
+
+  void delivered(List<TransferEvent> events) {
+    delivered.increment(events.size());
+    lagMillis.set(Duration.between(events.getLast().createdAt(), Instant.now()).toMillis());
+  }
+
+}
@@ -0,0 +1,21 @@
+package com.cubeia.bookkeeping.outbox;
+
+import java.nio.file.Path;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled   whether events are recorded and the relay delivers them
+ * @param batchSize events claimed and delivered per transaction
+ * @param sink      the sink to deliver to, required when the relay is enabled
+ * @param file      the file the {@code file} sink appends events to, one JSON object per line
+ */
+@ConfigurationProperties(prefix = "bookkeeping.outbox")
+public record OutboxProperties(
+  @DefaultValue("false") boolean enabled,
+  @DefaultValue("500") int batchSize,
+  String sink,
+  Path file
+) {
+
+}
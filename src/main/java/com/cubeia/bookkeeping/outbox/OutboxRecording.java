@@ -0,0 +1,37 @@
+package com.cubeia.bookkeeping.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records transfer events only while the relay is enabled, so that the outbox does not grow
+ * without a relay draining it. At startup the trigger that writes the events is enabled or
+ * disabled to match {@link OutboxProperties#enabled()}. The trigger is shared by every instance,
+ * they are expected to agree on the setting.
+ */
+@Component
+public class OutboxRecording implements InitializingBean {
+
+  private static final Logger LOG = LoggerFactory.getLogger(OutboxRecording.class);
+
+  private final OutboxRepository outboxRepository;
+  private final OutboxProperties outboxProperties;
+
+  public OutboxRecording(OutboxRepository outboxRepository, OutboxProperties outboxProperties) {
+    this.outboxRepository = outboxRepository;
+    this.outboxProperties = outboxProperties;
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    // Altering the trigger locks out transfers for a moment, only done when the setting changed
+    if (outboxRepository.isRecording() != outboxProperties.enabled()) {
+      outboxRepository.setRecording(outboxProperties.enabled());
+      LOG.info("Transfer events {} recorded in the outbox",
+        outboxProperties.enabled() ? "are now" : "are no longer");
+    }
+  }
+
+}
@@ -0,0 +1,49 @@
+package com.cubeia.bookkeeping.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers transfer events from the outbox off the request path, batch after batch until the
+ * outbox is drained, then waits for the next poll.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bookkeeping.outbox", name = "enabled", havingValue = "true")
+public class OutboxRelay {
+
+  private static final Logger LOG = LoggerFactory.getLogger(OutboxRelay.class);
+
+  private final OutboxService outboxService;
+  private final OutboxProperties outboxProperties;
+
+  public OutboxRelay(OutboxService outboxService, OutboxProperties outboxProperties) {
+    this.outboxService = outboxService;
+    this.outboxProperties = outboxProperties;
+  }
+
+  @Scheduled(fixedDelayString = "${bookkeeping.outbox.poll-interval:PT0.5S}")
+  public void scheduledRelay() {
+    try {
+      relay();
+    } catch (RuntimeException e) {
+      LOG.warn("Outbox delivery failed, retrying at the next poll", e);
+    }
+  }
+
+  /**
+   * @return the number of events delivered
+   */
+  public long relay() {
+    long delivered = 0;
+    int batch;
+    do {
+      batch = outboxService.deliverBatch(outboxProperties.batchSize());
+      delivered += batch;
+    } while (batch == outboxProperties.batchSize());
+    return delivered;
+  }
+
+}
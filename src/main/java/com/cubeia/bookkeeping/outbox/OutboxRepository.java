@@ -0,0 +1,84 @@
+package com.cubeia.bookkeeping.outbox;
+
+import io.micrometer.core.annotation.Timed;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@Timed("bookkeeping.repository")
+public class OutboxRepository {
+
+  private static final RowMapper<TransferEvent> EVENT_ROW_MAPPER = (rs, rowNum) -> new TransferEvent(
+    rs.getLong("id"),
+    rs.getObject("transaction_id", UUID.class),
+    rs.getObject("from_id", UUID.class),
+    rs.getObject("to_id", UUID.class),
+    rs.getLong("amount"),
+    rs.getTimestamp("created_at").toInstant()
+  );
+  private final JdbcClient jdbcClient;
+
+  public OutboxRepository(JdbcClient jdbcClient) {
+    this.jdbcClient = jdbcClient;
+  }
+
+  /**
+   * @return whether inserts into {@code txn.transaction} record their events, through the trigger
+   * created by V9
+   */
+  public boolean isRecording() {
+    return jdbcClient.sql("""
+        SELECT tgenabled <> 'D' FROM pg_trigger
+        WHERE tgrelid = CAST('txn.transaction' AS regclass) AND tgname = 'transaction_outbox'""")
+      .query(Boolean.class)
+      .single();
+  }
+
+  public void setRecording(boolean recording) {
+    jdbcClient.sql("ALTER TABLE txn.transaction " + (recording ? "ENABLE" : "DISABLE")
+        + " TRIGGER transaction_outbox")
+      .update();
+  }
+
+  /**
+   * Only one relay delivers at a time, across all instances, otherwise two relays could each
+   * deliver events of the same wallet and the order between them would be lost. The lock is held
+   * until the batch commits, so the other relays skip that poll rather than wait.
+   */
+  public boolean tryLock() {
+    return jdbcClient.sql("SELECT pg_try_advisory_xact_lock(hashtext('bookkeeping.outbox'))")
+      .query(Boolean.class)
+      .single();
+  }
+
+  /**
+   * Reads the oldest committed events, under the {@link #tryLock() relay lock}, so no row lock is
+   * needed. Events committed later may still appear with lower ids, those belong to other wallets
+   * and are read by a later batch.
+   */
+  public List<TransferEvent> claim(int limit) {
+    return jdbcClient.sql("""
+        SELECT id, transaction_id, from_id, to_id, amount, created_at
+        FROM txn.outbox
+        ORDER BY id
+        LIMIT :limit""")
+      .param("limit", limit)
+      .query(EVENT_ROW_MAPPER)
+      .list();
+  }
+
+  /**
+   * Deletes exactly the delivered events, not a range of ids, which could include events that
+   * committed after they were claimed.
+   */
+  public void delete(List<TransferEvent> events) {
+    jdbcClient.sql("DELETE FROM txn.outbox WHERE id = ANY(:ids)")
+      .param("ids", events.stream().mapToLong(TransferEvent::sequence).boxed()
+        .toArray(Long[]::new))
+      .update();
+  }
+
+}
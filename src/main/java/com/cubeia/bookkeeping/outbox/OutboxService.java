@@ -0,0 +1,45 @@
+package com.cubeia.bookkeeping.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Transactional
+@ConditionalOnProperty(prefix = "bookkeeping.outbox", name = "enabled", havingValue = "true")
+public class OutboxService {
+
+  private final OutboxRepository outboxRepository;
+  private final OutboxSink outboxSink;
+  private final OutboxMetrics outboxMetrics;
+
+  public OutboxService(OutboxRepository outboxRepository, OutboxSink outboxSink,
+    OutboxMetrics outboxMetrics) {
+    this.outboxRepository = outboxRepository;
+    this.outboxSink = outboxSink;
+    this.outboxMetrics = outboxMetrics;
+  }
+
+  /**
+   * Delivers the oldest events and deletes them in the same transaction. When the sink fails the
+   * transaction rolls back and the events stay for the next attempt, in the same order. A single
+   * relay delivers at a time over all instances, since the order per wallet needs a single reader
+   * of the outbox; the others deliver nothing until it is done.
+   *
+   * @return the number of events delivered, 0 when another relay holds the outbox
+   */
+  public int deliverBatch(int limit) {
+    if (!outboxRepository.tryLock()) {
+      return 0;
+    }
+    var events = outboxRepository.claim(limit);
+    if (events.isEmpty()) {
+      return 0;
+    }
+    outboxSink.publish(events);
+    outboxRepository.delete(events);
+    outboxMetrics.delivered(events);
+    return events.size();
+  }
+
+}
@@ -0,0 +1,17 @@
+package com.cubeia.bookkeeping.outbox;
+
+import java.util.List;
+
+/**
+ * Where the outbox relay delivers transfer events. A batch counts as delivered once
+ * {@link #publish(List)} returns; when it throws, the whole batch is delivered again later, so a
+ * sink has to tolerate duplicates.
+ */
+public interface OutboxSink {
+
+  /**
+   * @param events in delivery order, which is the order of the events of every unsharded wallet
+   */
+  void publish(List<TransferEvent> events);
+
+}
@@ -0,0 +1,21 @@
+package com.cubeia.bookkeeping.outbox;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * @param sequence increases with every event of an unsharded wallet, in the order its balance
+ *                 changed; transfers on different shards of a sharded wallet run concurrently,
+ *                 so its events are not ordered
+ * @param fromId   {@code null} for the opening deposit of a wallet
+ */
+public record TransferEvent(
+  long sequence,
+  UUID transactionId,
+  UUID fromId,
+  UUID toId,
+  long amount,
+  Instant createdAt
+) {
+
+}
@@ -0,0 +1,105 @@
+package com.cubeia.bookkeeping.partition;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the monthly partitions of the {@link PartitionedTable}s ahead of time and, with a
+ * retention configured, moves partitions past it out of the live tables. Runs at startup and then
+ * periodically; every step is idempotent and picks up where a failed one stopped, a detach left
+ * pending is finalized and a detached partition left in the live schema is moved, so a failed step
+ * is simply retried by the next run and several instances can run it side by side.
+ */
+@Service
+public class PartitionManager {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PartitionManager.class);
+
+  private final PartitionRepository partitionRepository;
+  private final PartitioningProperties partitioningProperties;
+
+  public PartitionManager(PartitionRepository partitionRepository,
+    PartitioningProperties partitioningProperties) {
+    this.partitionRepository = partitionRepository;
+    this.partitioningProperties = partitioningProperties;
+  }
+
+  @Scheduled(fixedDelayString = "${bookkeeping.partitioning.check-interval:PT6H}")
+  public synchronized void maintainPartitions() {
+    if (!partitioningProperties.enabled()) {
+      return;
+    }
+    var currentMonth = YearMonth.now(ZoneOffset.UTC);
+    for (var table : PartitionedTable.values()) {
+      var months = partitionRepository.getPartitionMonths(table);
+
+      for (int i = 0; i <= partitioningProperties.monthsAhead(); i++) {
+        var month = currentMonth.plusMonths(i);
+        if (!months.contains(month)) {
+          createPartition(table, month);
+        }
+      }
+
+      if (partitioningProperties.retention() != null) {
+        var oldestKept = currentMonth.minus(partitioningProperties.retention());
+        partitionRepository.getPendingDetachMonths(table)
+          .forEach(month -> finalizeDetach(table, month));
+        months.stream()
+          .filter(month -> month.isBefore(oldestKept))
+          .forEach(month -> detachPartition(table, month));
+        // Also picks up partitions a previous run detached but failed to move
+        partitionRepository.getDetachedMonths(table).stream()
+          .filter(month -> month.isBefore(oldestKept))
+          .forEach(month -> archivePartition(table, month));
+      }
+    }
+  }
+
+  private void createPartition(PartitionedTable table, YearMonth month) {
+    try {
+      partitionRepository.createPartition(table, month);
+      LOG.info("Created partition {} of {}", table.partitionName(month), table.qualifiedName());
+    } catch (DataAccessException e) {
+      LOG.warn("Could not create partition {} of {}", table.partitionName(month),
+        table.qualifiedName(), e);
+    }
+  }
+
+  private void finalizeDetach(PartitionedTable table, YearMonth month) {
+    try {
+      partitionRepository.finalizeDetach(table, month);
+      LOG.info("Finalized detach of partition {} of {}", table.partitionName(month),
+        table.qualifiedName());
+    } catch (DataAccessException e) {
+      LOG.warn("Could not finalize detach of partition {} of {}", table.partitionName(month),
+        table.qualifiedName(), e);
+    }
+  }
+
+  private void detachPartition(PartitionedTable table, YearMonth month) {
+    try {
+      partitionRepository.detachPartition(table, month);
+      LOG.info("Detached partition {} of {}", table.partitionName(month), table.qualifiedName());
+    } catch (DataAccessException e) {
+      LOG.warn("Could not detach partition {} of {}", table.partitionName(month),
+        table.qualifiedName(), e);
+    }
+  }
+
+  private void archivePartition(PartitionedTable table, YearMonth month) {
+    try {
+      partitionRepository.archivePartition(table, month, partitioningProperties.archiveSchema());
+      LOG.info("Moved partition {} of {} to {}", table.partitionName(month),
+        table.qualifiedName(), partitioningProperties.archiveSchema());
+    } catch (DataAccessException e) {
+      LOG.warn("Could not archive partition {} of {}", table.partitionName(month),
+        table.qualifiedName(), e);
+    }
+  }
+
+}
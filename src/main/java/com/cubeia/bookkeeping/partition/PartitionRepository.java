@@ -0,0 +1,123 @@
+package com.cubeia.bookkeeping.partition;
+
+import io.micrometer.core.annotation.Timed;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Partition DDL. None of it may run inside a transaction: {@code DETACH ... CONCURRENTLY} refuses
+ * to, and the locks of the other statements should be released as soon as they are done.
+ */
+@Repository
+@Timed("bookkeeping.repository")
+public class PartitionRepository {
+
+  private final JdbcClient jdbcClient;
+
+  public PartitionRepository(JdbcClient jdbcClient) {
+    this.jdbcClient = jdbcClient;
+  }
+
+  /**
+   * @return the months of the partitions attached to {@code table}, oldest first
+   */
+  public List<YearMonth> getPartitionMonths(PartitionedTable table) {
+    String sql = "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+      + "WHERE i.inhparent = CAST(? AS regclass) AND NOT i.inhdetachpending";
+    return months(table, jdbcClient.sql(sql)
+      .param(table.qualifiedName())
+      .query(String.class)
+      .list());
+  }
+
+  /**
+   * Creates the partition as a table of its own and attaches it afterwards. Attaching only locks
+   * the parent against other DDL, while {@code CREATE TABLE ... PARTITION OF} would block every
+   * query on it. A table left behind by a failed attach is picked up by the next call.
+   */
+  public void createPartition(PartitionedTable table, YearMonth month) {
+    var partition = table.schema() + "." + table.partitionName(month);
+    jdbcClient.sql("CREATE TABLE IF NOT EXISTS " + partition + " (LIKE " + table.qualifiedName()
+        + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)")
+      .update();
+    jdbcClient.sql("ALTER TABLE " + table.qualifiedName() + " ATTACH PARTITION " + partition
+        + " FOR VALUES FROM ('" + startOf(month) + "') TO ('" + startOf(month.plusMonths(1)) + "')")
+      .update();
+  }
+
+  /**
+   * @return the months of the partitions of {@code table} whose {@code DETACH ... CONCURRENTLY}
+   * was interrupted, or is still running, oldest first
+   */
+  public List<YearMonth> getPendingDetachMonths(PartitionedTable table) {
+    String sql = "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+      + "WHERE i.inhparent = CAST(? AS regclass) AND i.inhdetachpending";
+    return months(table, jdbcClient.sql(sql)
+      .param(table.qualifiedName())
+      .query(String.class)
+      .list());
+  }
+
+  /**
+   * @return the months of the tables named as partitions of {@code table} that are left detached
+   * in its schema, oldest first
+   */
+  public List<YearMonth> getDetachedMonths(PartitionedTable table) {
+    String sql = "SELECT c.relname FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace "
+      + "WHERE n.nspname = ? AND c.relkind = 'r' AND NOT c.relispartition";
+    return months(table, jdbcClient.sql(sql)
+      .param(table.schema())
+      .query(String.class)
+      .list());
+  }
+
+  /**
+   * Detaches the partition without blocking queries on the parent. When interrupted, the partition
+   * is left pending detach until {@link #finalizeDetach} completes it.
+   */
+  public void detachPartition(PartitionedTable table, YearMonth month) {
+    jdbcClient.sql("ALTER TABLE " + table.qualifiedName() + " DETACH PARTITION " + table.schema()
+        + "." + table.partitionName(month) + " CONCURRENTLY")
+      .update();
+  }
+
+  public void finalizeDetach(PartitionedTable table, YearMonth month) {
+    jdbcClient.sql("ALTER TABLE " + table.qualifiedName() + " DETACH PARTITION " + table.schema()
+        + "." + table.partitionName(month) + " FINALIZE")
+      .update();
+  }
+
+  /**
+   * Moves a detached partition to {@code archiveSchema}, where it can still be queried, dumped or
+   * dropped.
+   */
+  public void archivePartition(PartitionedTable table, YearMonth month, String archiveSchema) {
+    var schema = quoteIdentifier(archiveSchema);
+    jdbcClient.sql("CREATE SCHEMA IF NOT EXISTS " + schema).update();
+    jdbcClient.sql("ALTER TABLE " + table.schema() + "." + table.partitionName(month)
+        + " SET SCHEMA " + schema)
+      .update();
+  }
+
+  private static List<YearMonth> months(PartitionedTable table, List<String> partitionNames) {
+    return partitionNames.stream()
+      .map(table::monthOf)
+      .flatMap(Optional::stream)
+      .sorted()
+      .toList();
+  }
+
+  private static OffsetDateTime startOf(YearMonth month) {
+    return month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+  }
+
+  private static String quoteIdentifier(String identifier) {
+    return "\"" + identifier.replace("\"", "\"\"") + "\"";
+  }
+
+}
@@ -0,0 +1,50 @@
+package com.cubeia.bookkeeping.partition;
+
+import java.time.YearMonth;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Tables range partitioned by {@code created_at}, one partition per month in UTC named
+ * {@code <table>_pYYYY_MM}.
+ */
+public enum PartitionedTable {
+
+  TRANSACTION("txn", "transaction"),
+  LEDGER("gnl", "ledger");
+
+  private static final Pattern MONTH_SUFFIX = Pattern.compile("_p(\\d{4})_(\\d{2})$");
+
+  private final String schema;
+  private final String name;
+
+  PartitionedTable(String schema, String name) {
+    this.schema = schema;
+    this.name = name;
+  }
+
+  public String schema() {
+    return schema;
+  }
+
+  public String qualifiedName() {
+    return schema + "." + name;
+  }
+
+  public String partitionName(YearMonth month) {
+    return String.format("%s_p%04d_%02d", name, month.getYear(), month.getMonthValue());
+  }
+
+  /**
+   * @return the month of a partition of this table, empty for tables not named by the convention
+   */
+  public Optional<YearMonth> monthOf(String partitionName) {
+    var matcher = MONTH_SUFFIX.matcher(partitionName);
+    if (!partitionName.startsWith(name + "_p") || !matcher.find()) {
+      return Optional.empty();
+    }
+    return Optional.of(
+      YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+  }
+
+}
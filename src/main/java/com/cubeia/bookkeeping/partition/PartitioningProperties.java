@@ -0,0 +1,30 @@
+package com.cubeia.bookkeeping.partition;
+
+import java.time.Period;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled       whether the partition manager runs
+ * @param monthsAhead   months after the current one that always have a partition
+ * @param retention     age in months or years after which a monthly partition is detached and moved
+ *                      to {@code archiveSchema}, unset to keep every partition attached. A period
+ *                      with days is rejected, partitions are only ever a whole month old.
+ * @param archiveSchema schema that detached partitions are moved to
+ */
+@ConfigurationProperties(prefix = "bookkeeping.partitioning")
+public record PartitioningProperties(
+  @DefaultValue("true") boolean enabled,
+  @DefaultValue("3") int monthsAhead,
+  Period retention,
+  @DefaultValue("archive") String archiveSchema
+) {
+
+  public PartitioningProperties {
+    if (retention != null && retention.getDays() != 0) {
+      throw new IllegalArgumentException(
+        "Partition retention must be in months or years, not " + retention);
+    }
+  }
+
+}
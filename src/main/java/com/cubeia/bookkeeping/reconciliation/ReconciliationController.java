@@ -0,0 +1,46 @@
+package com.cubeia.bookkeeping.reconciliation;
+
+import com.cubeia.bookkeeping.datasource.ReadYourWrites;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/reconciliation")
+@Profile("!reactive")
+public class ReconciliationController {
+
+  private final ReconciliationService reconciliationService;
+  private final ReconciliationJob reconciliationJob;
+
+  public ReconciliationController(ReconciliationService reconciliationService,
+    ReconciliationJob reconciliationJob) {
+    this.reconciliationService = reconciliationService;
+    this.reconciliationJob = reconciliationJob;
+  }
+
+  @GetMapping("/report")
+  @Operation(
+    description = "Get the latest reconciliation run and the wallets whose balance drifted from "
+      + "their ledger in it, largest drift first.",
+    summary = "Get reconciliation report"
+  )
+  public ReconciliationReport getReport() {
+    return reconciliationService.getLatestReport();
+  }
+
+  @PostMapping("/runs")
+  @Operation(
+    description = "Reconcile the ledger entries created since the previous run now instead of "
+      + "waiting for the schedule, and get the resulting report.",
+    summary = "Run reconciliation"
+  )
+  public ReconciliationReport runReconciliation() {
+    reconciliationJob.run();
+    return ReadYourWrites.call(reconciliationService::getLatestReport);
+  }
+
+}
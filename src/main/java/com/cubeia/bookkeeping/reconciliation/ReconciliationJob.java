@@ -0,0 +1,51 @@
+package com.cubeia.bookkeeping.reconciliation;
+
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads the horizon and reconciles up to it, in two transactions of {@link ReconciliationService}.
+ */
+@Component
+public class ReconciliationJob {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReconciliationJob.class);
+
+  private final ReconciliationService reconciliationService;
+  private final ReconciliationProperties reconciliationProperties;
+
+  public ReconciliationJob(ReconciliationService reconciliationService,
+    ReconciliationProperties reconciliationProperties) {
+    this.reconciliationService = reconciliationService;
+    this.reconciliationProperties = reconciliationProperties;
+  }
+
+  @Scheduled(fixedDelayString = "${bookkeeping.reconciliation.interval:PT1M}")
+  public void scheduledRun() {
+    if (!reconciliationProperties.enabled()) {
+      return;
+    }
+    run().filter(run -> run.driftedWallets() > 0)
+      .ifPresent(run -> LOG.warn("Reconciliation run {} found {} wallets drifting from their "
+        + "ledger by {} in total", run.id(), run.driftedWallets(), run.driftAmount()));
+  }
+
+  /**
+   * @return the run, or empty when there was nothing to reconcile or another instance was
+   *     reconciling at the same time; the snapshot of a run is taken before it waits for the lock,
+   *     so one that started while another committed cannot write its checkpoints
+   */
+  public Optional<ReconciliationRun> run() {
+    try {
+      return reconciliationService.reconcile(reconciliationService.getHorizon());
+    } catch (ConcurrencyFailureException e) {
+      LOG.debug("Reconciliation skipped, another run committed concurrently", e);
+      return Optional.empty();
+    }
+  }
+
+}
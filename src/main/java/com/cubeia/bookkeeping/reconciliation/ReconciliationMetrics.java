@@ -0,0 +1,59 @@
+package com.cubeia.bookkeeping.reconciliation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drift found by reconciliation runs, and how far behind the ledger the checkpoints are. Alert on
+ * an increasing drifts counter rather than on the amount gauge, which only covers the wallets with
+ * activity in the latest run.
+ */
+@Component
+public class ReconciliationMetrics {
+
+  private final Timer runTimer;
+  private final Counter entries;
+  private final Counter drifts;
+  private final AtomicLong driftAmount = new AtomicLong();
+  private final AtomicReference<Instant> horizon = new AtomicReference<>();
+
+  public ReconciliationMetrics(MeterRegistry meterRegistry) {
+    this.runTimer = Timer.builder("bookkeeping.reconciliation")
+      .description("Time spent in a reconciliation run")
+      .register(meterRegistry);
+    this.entries = Counter.builder("bookkeeping.reconciliation.entries")
+      .description("Ledger entries checked")
+      .register(meterRegistry);
+    this.drifts = Counter.builder("bookkeeping.reconciliation.drifts")
+      .description("Wallets whose balance did not match their ledger")
+      .register(meterRegistry);
+    Gauge.builder("bookkeeping.reconciliation.drift.amount", driftAmount, AtomicLong::get)
+      .description("Sum of the absolute drift found by the latest run, in minor units")
+      .register(meterRegistry);
+    Gauge.builder("bookkeeping.reconciliation.lag", horizon, ReconciliationMetrics::lagSeconds)
+      .description("Seconds between now and the horizon of the latest run")
+      .baseUnit("seconds")
+      .register(meterRegistry);
+  }
+
+  void record(ReconciliationRun run) {
+    runTimer.record(Duration.between(run.startedAt(), run.finishedAt()));
+    entries.increment(run.entriesChecked());
+    drifts.increment(run.driftedWallets());
+    driftAmount.set(run.driftAmount());
+    horizon.set(run.horizon());
+  }
+
+  private static double lagSeconds(AtomicReference<Instant> horizon) {
+    var value = horizon.get();
+    return value == null ? Double.NaN : Duration.between(value, Instant.now()).toMillis() / 1000.0;
+  }
+
+}
@@ -0,0 +1,16 @@
+package com.cubeia.bookkeeping.reconciliation;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled           whether reconciliation runs on a schedule
+ * @param maxReportedDrifts drifted wallets listed in a report, the count is always complete
+ */
+@ConfigurationProperties(prefix = "bookkeeping.reconciliation")
+public record ReconciliationProperties(
+  @DefaultValue("true") boolean enabled,
+  @DefaultValue("100") int maxReportedDrifts
+) {
+
+}
@@ -0,0 +1,14 @@
+package com.cubeia.bookkeeping.reconciliation;
+
+import java.util.List;
+
+/**
+ * @param drifts the drifted wallets of the run, at most
+ *               {@link ReconciliationProperties#maxReportedDrifts()} of them
+ */
+public record ReconciliationReport(
+  ReconciliationRun run,
+  List<WalletDrift> drifts
+) {
+
+}
@@ -0,0 +1,174 @@
+package com.cubeia.bookkeeping.reconciliation;
+
+import com.cubeia.bookkeeping.wallet.WalletRepository;
+import io.micrometer.core.annotation.Timed;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@Timed("bookkeeping.repository")
+public class ReconciliationRepository {
+
+  private static final RowMapper<ReconciliationRun> RUN_ROW_MAPPER = (rs, rowNum) -> new ReconciliationRun.ReconciliationRunBuilder()
+    .id(rs.getObject("id", UUID.class))
+    .since(toInstant(rs.getObject("since", OffsetDateTime.class)))
+    .horizon(toInstant(rs.getObject("horizon", OffsetDateTime.class)))
+    .startedAt(toInstant(rs.getObject("started_at", OffsetDateTime.class)))
+    .finishedAt(toInstant(rs.getObject("finished_at", OffsetDateTime.class)))
+    .walletsChecked(rs.getInt("wallets_checked"))
+    .entriesChecked(rs.getLong("entries_checked"))
+    .driftedWallets(rs.getInt("drifted_wallets"))
+    .driftAmount(rs.getLong("drift_amount"))
+    .build();
+  private static final RowMapper<WalletDrift> DRIFT_ROW_MAPPER = (rs, rowNum) -> new WalletDrift(
+    rs.getObject("wallet_id", UUID.class),
+    rs.getLong("ledger_balance"),
+    rs.getLong("wallet_balance")
+  );
+  private final JdbcClient jdbcClient;
+
+  public ReconciliationRepository(JdbcClient jdbcClient) {
+    this.jdbcClient = jdbcClient;
+  }
+
+  /**
+   * Ledger entries get the start time of their database transaction as {@code created_at}, not
+   * the commit time, so an entry can become visible long after newer ones. The start of the
+   * oldest transaction still open bounds that: every entry created before it is committed.
+   * Only transactions of the same database user are visible here, which is the only user that
+   * writes the ledger.
+   */
+  public Instant getHorizon() {
+    String sql = "SELECT LEAST(now(), min(xact_start)) FROM pg_stat_activity "
+      + "WHERE datname = current_database() AND pid <> pg_backend_pid() AND xact_start IS NOT NULL";
+    return jdbcClient.sql(sql)
+      .query(OffsetDateTime.class)
+      .single()
+      .toInstant();
+  }
+
+  /**
+   * Keeps other instances from reconciling at the same time, until the end of the transaction.
+   */
+  public boolean tryLock() {
+    return jdbcClient.sql("SELECT pg_try_advisory_xact_lock(hashtext('bookkeeping.reconciliation'))")
+      .query(Boolean.class)
+      .single();
+  }
+
+  public Optional<Instant> getLastHorizon() {
+    return jdbcClient.sql("SELECT horizon FROM gnl.reconciliation_run ORDER BY horizon DESC LIMIT 1")
+      .query(OffsetDateTime.class)
+      .optional()
+      .map(OffsetDateTime::toInstant);
+  }
+
+  /**
+   * Checks every wallet with ledger entries created in {@code [since, horizon)}: its checkpoint
+   * plus those entries has to equal its balance minus the entries created from the horizon on.
+   * Records the wallets where it does not and moves the checkpoints to the horizon. Only reads
+   * the new entries and the ones after the horizon, never the history before {@code since}.
+   * Needs a snapshot taken after the horizon was read, and one snapshot for the whole statement.
+   *
+   * @param since {@code null} to check the whole ledger
+   * @return the run without its start and finish times
+   */
+  public ReconciliationRun reconcile(UUID runId, Instant since, Instant horizon) {
+    String sql = """
+      WITH activity AS (
+        SELECT wallet_id, count(*) AS entries, sum(amount) AS amount,
+          (array_agg(id ORDER BY created_at DESC, id DESC))[1] AS last_ledger_id
+        FROM gnl.ledger
+        WHERE created_at >= COALESCE(CAST(:since AS TIMESTAMPTZ), '-infinity') AND created_at < :horizon
+        GROUP BY wallet_id
+      ),
+      checked AS (
+        SELECT a.wallet_id, a.entries, a.last_ledger_id,
+          COALESCE(c.balance, 0) + a.amount AS ledger_balance,
+          %s - COALESCE((SELECT sum(l.amount) FROM gnl.ledger l
+            WHERE l.wallet_id = a.wallet_id AND l.created_at >= :horizon), 0) AS wallet_balance
+        FROM activity a
+        JOIN mng.wallet w ON w.id = a.wallet_id
+        LEFT JOIN gnl.reconciliation_checkpoint c ON c.wallet_id = a.wallet_id
+      ),
+      drifted AS (
+        INSERT INTO gnl.reconciliation_drift (run_id, wallet_id, ledger_balance, wallet_balance)
+        SELECT :runId, wallet_id, ledger_balance, wallet_balance FROM checked
+        WHERE ledger_balance <> wallet_balance
+        RETURNING abs(wallet_balance - ledger_balance) AS drift
+      ),
+      checkpointed AS (
+        INSERT INTO gnl.reconciliation_checkpoint (wallet_id, balance, last_ledger_id, verified_to)
+        SELECT wallet_id, ledger_balance, last_ledger_id, :horizon FROM checked
+        ON CONFLICT (wallet_id) DO UPDATE SET balance = EXCLUDED.balance,
+          last_ledger_id = EXCLUDED.last_ledger_id, verified_to = EXCLUDED.verified_to,
+          checked_at = now()
+      )
+      SELECT (SELECT count(*) FROM checked) AS wallets_checked,
+        (SELECT COALESCE(sum(entries), 0) FROM checked) AS entries_checked,
+        (SELECT count(*) FROM drifted) AS drifted_wallets,
+        (SELECT COALESCE(sum(drift), 0) FROM drifted) AS drift_amount""".formatted(WalletRepository.BALANCE);
+    return jdbcClient.sql(sql)
+      .param("runId", runId)
+      .param("since", since == null ? null : since.atOffset(ZoneOffset.UTC))
+      .param("horizon", horizon.atOffset(ZoneOffset.UTC))
+      .query((rs, rowNum) -> new ReconciliationRun.ReconciliationRunBuilder()
+        .id(runId)
+        .since(since)
+        .horizon(horizon)
+        .walletsChecked(rs.getInt("wallets_checked"))
+        .entriesChecked(rs.getLong("entries_checked"))
+        .driftedWallets(rs.getInt("drifted_wallets"))
+        .driftAmount(rs.getLong("drift_amount"))
+        .build())
+      .single();
+  }
+
+  public void createRun(ReconciliationRun run) {
+    String sql = "INSERT INTO gnl.reconciliation_run (id, since, horizon, started_at, finished_at, "
+      + "wallets_checked, entries_checked, drifted_wallets, drift_amount) "
+      + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    jdbcClient.sql(sql)
+      .param(run.id())
+      .param(run.since() == null ? null : run.since().atOffset(ZoneOffset.UTC))
+      .param(run.horizon().atOffset(ZoneOffset.UTC))
+      .param(run.startedAt().atOffset(ZoneOffset.UTC))
+      .param(run.finishedAt().atOffset(ZoneOffset.UTC))
+      .param(run.walletsChecked())
+      .param(run.entriesChecked())
+      .param(run.driftedWallets())
+      .param(run.driftAmount())
+      .update();
+  }
+
+  public Optional<ReconciliationRun> getLatestRun() {
+    String sql = "SELECT id, since, horizon, started_at, finished_at, wallets_checked, "
+      + "entries_checked, drifted_wallets, drift_amount FROM gnl.reconciliation_run "
+      + "ORDER BY horizon DESC LIMIT 1";
+    return jdbcClient.sql(sql)
+      .query(RUN_ROW_MAPPER)
+      .optional();
+  }
+
+  public List<WalletDrift> getDrifts(UUID runId, int limit) {
+    String sql = "SELECT wallet_id, ledger_balance, wallet_balance FROM gnl.reconciliation_drift "
+      + "WHERE run_id = ? ORDER BY abs(wallet_balance - ledger_balance) DESC, wallet_id LIMIT ?";
+    return jdbcClient.sql(sql)
+      .param(runId)
+      .param(limit)
+      .query(DRIFT_ROW_MAPPER)
+      .list();
+  }
+
+  private static Instant toInstant(OffsetDateTime value) {
+    return value == null ? null : value.toInstant();
+  }
+
+}
@@ -0,0 +1,107 @@
+package com.cubeia.bookkeeping.reconciliation;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * @param since       horizon of the previous run, {@code null} for the first run which covers the
+ *                    whole ledger
+ * @param horizon     every ledger entry created before it was committed when the run started; the
+ *                    run covers the entries created in {@code [since, horizon)}
+ * @param driftAmount sum of the absolute differences between wallet and ledger balances
+ */
+public record ReconciliationRun(
+  UUID id,
+  Instant since,
+  Instant horizon,
+  Instant startedAt,
+  Instant finishedAt,
+  int walletsChecked,
+  long entriesChecked,
+  int driftedWallets,
+  long driftAmount
+) {
+
+
+  public static final class ReconciliationRunBuilder {
+
+    private UUID id;
+    private Instant since;
+    private Instant horizon;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private int walletsChecked;
+    private long entriesChecked;
+    private int driftedWallets;
+    private long driftAmount;
+
+    public ReconciliationRunBuilder() {
+    }
+
+    public ReconciliationRunBuilder(ReconciliationRun other) {
+      this.id = other.id();
+      this.since = other.since();
+      this.horizon = other.horizon();
+      this.startedAt = other.startedAt();
+      this.finishedAt = other.finishedAt();
+      this.walletsChecked = other.walletsChecked();
+      this.entriesChecked = other.entriesChecked();
+      this.driftedWallets = other.driftedWallets();
+      this.driftAmount = other.driftAmount();
+    }
+
+    public static ReconciliationRunBuilder aReconciliationRun() {
+      return new ReconciliationRunBuilder();
+    }
+
+    public ReconciliationRunBuilder id(UUID id) {
+      this.id = id;
+      return this;
+    }
+
+    public ReconciliationRunBuilder since(Instant since) {
+      this.since = since;
+      return this;
+    }
+
+    public ReconciliationRunBuilder horizon(Instant horizon) {
+      this.horizon = horizon;
+      return this;
+    }
+
+    public ReconciliationRunBuilder startedAt(Instant startedAt) {
+      this.startedAt = startedAt;
+      return this;
+    }
+
+    public ReconciliationRunBuilder finishedAt(Instant finishedAt) {
+      this.finishedAt = finishedAt;
+      return this;
+    }
+
+    public ReconciliationRunBuilder walletsChecked(int walletsChecked) {
+      this.walletsChecked = walletsChecked;
+      return this;
+    }
+
+    public ReconciliationRunBuilder entriesChecked(long entriesChecked) {
+      this.entriesChecked = entriesChecked;
+      return this;
+    }
+
+    public ReconciliationRunBuilder driftedWallets(int driftedWallets) {
+      this.driftedWallets = driftedWallets;
+      return this;
+    }
+
+    public ReconciliationRunBuilder driftAmount(long driftAmount) {
+      this.driftAmount = driftAmount;
+      return this;
+    }
+
+    public ReconciliationRun build() {
+      return new ReconciliationRun(id, since, horizon, startedAt, finishedAt, walletsChecked,
+        entriesChecked, driftedWallets, driftAmount);
+    }
+  }
+}
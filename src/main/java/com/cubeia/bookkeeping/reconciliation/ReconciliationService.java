@@ -0,0 +1,72 @@
+package com.cubeia.bookkeeping.reconciliation;
+
+import com.cubeia.bookkeeping.exception.NotFoundException;
+import com.cubeia.bookkeeping.id.Uuids;
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Transactional
+public class ReconciliationService {
+
+  private final ReconciliationRepository reconciliationRepository;
+  private final ReconciliationMetrics reconciliationMetrics;
+  private final ReconciliationProperties reconciliationProperties;
+
+  public ReconciliationService(ReconciliationRepository reconciliationRepository,
+    ReconciliationMetrics reconciliationMetrics,
+    ReconciliationProperties reconciliationProperties) {
+    this.reconciliationRepository = reconciliationRepository;
+    this.reconciliationMetrics = reconciliationMetrics;
+    this.reconciliationProperties = reconciliationProperties;
+  }
+
+  /**
+   * Has to be read outside of, and before, the transaction of {@link #reconcile(Instant)}, so that
+   * every entry created before the horizon is committed before the snapshot of that transaction.
+   */
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public Instant getHorizon() {
+    return reconciliationRepository.getHorizon();
+  }
+
+  /**
+   * Checks the ledger entries created since the horizon of the previous run, all of them in one
+   * snapshot so that every wallet balance matches the entries visible next to it.
+   *
+   * @return the run, or empty when another instance is reconciling or the horizon has not moved
+   */
+  @Transactional(isolation = Isolation.REPEATABLE_READ)
+  public Optional<ReconciliationRun> reconcile(Instant horizon) {
+    if (!reconciliationRepository.tryLock()) {
+      return Optional.empty();
+    }
+    var since = reconciliationRepository.getLastHorizon().orElse(null);
+    if (since != null && !horizon.isAfter(since)) {
+      return Optional.empty();
+    }
+
+    var startedAt = Instant.now();
+    var run = new ReconciliationRun.ReconciliationRunBuilder(
+      reconciliationRepository.reconcile(Uuids.next(), since, horizon))
+      .startedAt(startedAt)
+      .finishedAt(Instant.now())
+      .build();
+    reconciliationRepository.createRun(run);
+    reconciliationMetrics.record(run);
+    return Optional.of(run);
+  }
+
+  @Transactional(readOnly = true)
+  public ReconciliationReport getLatestReport() {
+    var run = reconciliationRepository.getLatestRun()
+      .orElseThrow(() -> new NotFoundException("No reconciliation has run yet"));
+    return new ReconciliationReport(run,
+      reconciliationRepository.getDrifts(run.id(), reconciliationProperties.maxReportedDrifts()));
+  }
+
+}
@@ -0,0 +1,17 @@
+package com.cubeia.bookkeeping.reconciliation;
+
+import java.util.UUID;
+
+/**
+ * A wallet whose balance did not match its ledger at the horizon of a run.
+ *
+ * @param ledgerBalance sum of the ledger entries of the wallet
+ * @param walletBalance balance of the wallet, without the entries created after the horizon
+ */
+public record WalletDrift(
+  UUID walletId,
+  long ledgerBalance,
+  long walletBalance
+) {
+
+}
@@ -0,0 +1,47 @@
+package com.cubeia.bookkeeping.transaction;
+
+import com.cubeia.bookkeeping.transaction.TransferMetrics.Phase;
+import com.cubeia.bookkeeping.wallet.WalletRepository;
+import com.cubeia.bookkeeping.wallet.WalletShardService;
+import java.util.UUID;
+import org.springframework.stereotype.Component;
+
+/**
+ * Queues transfers on the same wallets on advisory locks keyed on the wallet ids, taken in wallet id
+ * order, before they update any row. The updates are the conditional ones, so that transfers taking
+ * row locks instead, such as batches, cannot overdraw a wallet in between.
+ */
+@Component
+public class AdvisoryLockStrategy extends ConditionalUpdateStrategy {
+
+  private final WalletRepository walletRepository;
+  private final TransferMetrics transferMetrics;
+
+  public AdvisoryLockStrategy(WalletRepository walletRepository,
+    WalletShardService walletShardService, TransferMetrics transferMetrics) {
+    super(walletRepository, walletShardService, transferMetrics);
+    this.walletRepository = walletRepository;
+    this.transferMetrics = transferMetrics;
+  }
+
+  @Override
+  public WalletLocking locking() {
+    return WalletLocking.ADVISORY_LOCK;
+  }
+
+  @Override
+  public Balances adjustBalances(Transaction transaction) {
+    boolean isSourceFirst = transaction.fromId().compareTo(transaction.toId()) < 0;
+    lock(isSourceFirst ? transaction.fromId() : transaction.toId());
+    lock(isSourceFirst ? transaction.toId() : transaction.fromId());
+    return super.adjustBalances(transaction);
+  }
+
+  private void lock(UUID walletId) {
+    transferMetrics.phase(Phase.LOCK, () -> {
+      walletRepository.advisoryLock(walletId);
+      return null;
+    });
+  }
+
+}
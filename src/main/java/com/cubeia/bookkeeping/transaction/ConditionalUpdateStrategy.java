@@ -0,0 +1,93 @@
+package com.cubeia.bookkeeping.transaction;
+
+import com.cubeia.bookkeeping.exception.InsufficientFundsException;
+import com.cubeia.bookkeeping.exception.NotFoundException;
+import com.cubeia.bookkeeping.transaction.TransferMetrics.Phase;
+import com.cubeia.bookkeeping.wallet.Wallet;
+import com.cubeia.bookkeeping.wallet.WalletRepository;
+import com.cubeia.bookkeeping.wallet.WalletShardService;
+import java.util.UUID;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the funds with two updates and no lock taken beforehand, two round trips instead of four.
+ * The debit only matches while the wallet holds enough funds, so the balance check cannot go stale.
+ * Updates run in wallet id order, the order every other transfer locks its wallets in. Only when an
+ * update matches nothing is the wallet read, to tell an unknown or sharded wallet from missing
+ * funds.
+ */
+@Component
+public class ConditionalUpdateStrategy implements WalletLockStrategy {
+
+  private final WalletRepository walletRepository;
+  private final WalletShardService walletShardService;
+  private final TransferMetrics transferMetrics;
+
+  public ConditionalUpdateStrategy(WalletRepository walletRepository,
+    WalletShardService walletShardService, TransferMetrics transferMetrics) {
+    this.walletRepository = walletRepository;
+    this.walletShardService = walletShardService;
+    this.transferMetrics = transferMetrics;
+  }
+
+  @Override
+  public WalletLocking locking() {
+    return WalletLocking.CONDITIONAL_UPDATE;
+  }
+
+  @Override
+  public Balances adjustBalances(Transaction transaction) {
+    if (transaction.fromId().compareTo(transaction.toId()) < 0) {
+      var debit = debit(transaction.fromId(), transaction.amount());
+      return new Balances(debit.balance(), credit(transaction.toId(), transaction.amount()),
+        debit.walletBalance());
+    }
+    var destinationBalance = credit(transaction.toId(), transaction.amount());
+    var debit = debit(transaction.fromId(), transaction.amount());
+    return new Balances(debit.balance(), destinationBalance, debit.walletBalance());
+  }
+
+  private Debit debit(UUID walletId, long amount) {
+    return transferMetrics.phase(Phase.ADJUST_BALANCE, () ->
+      walletRepository.debitIfSufficient(walletId, amount)
+        .map(balance -> new Debit(balance, balance))
+        .orElseGet(() -> {
+          var wallet = getWallet(walletId);
+          if (wallet.shardCount() == 0) {
+            throw new InsufficientFundsException("Insufficient funds");
+          }
+          var balance = walletShardService.debit(wallet, amount)
+            .orElseThrow(() -> new InsufficientFundsException("Insufficient funds"));
+          return new Debit(balance, walletShardService.balance(walletId));
+        }));
+  }
+
+  private long credit(UUID walletId, long amount) {
+    return transferMetrics.phase(Phase.ADJUST_BALANCE, () ->
+      walletRepository.creditUnsharded(walletId, amount).orElseGet(() -> {
+        var wallet = getWallet(walletId);
+        if (wallet.shardCount() == 0) {
+          // The shards were merged concurrently, the wallet row holds the funds now
+          return walletRepository.adjustBalance(walletId, amount);
+        }
+        return walletShardService.credit(wallet, amount);
+      }));
+  }
+
+  private Wallet getWallet(UUID walletId) {
+    var wallet = walletRepository.getWalletById(walletId, false);
+    if (wallet == null) {
+      throw new NotFoundException("Wallet not found: " + walletId);
+    }
+    return wallet;
+  }
+
+  /**
+   * The running balance of the debited entry and the balance of the wallet, which differ for a
+   * sharded wallet.
+   */
+  private record Debit(long balance, long walletBalance) {
+
+  }
+
+}
@@ -0,0 +1,13 @@
+package com.cubeia.bookkeeping.transaction;
+
+/**
+ * Thrown when a concurrent request committed the same idempotency key first, before the losing
+ * request made its transfer.
+ */
+class DuplicateIdempotencyKeyException extends RuntimeException {
+
+  DuplicateIdempotencyKeyException(String idempotencyKey) {
+    super("Duplicate idempotency key: " + idempotencyKey, null, false, false);
+  }
+
+}
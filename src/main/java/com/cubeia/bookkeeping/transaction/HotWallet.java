@@ -0,0 +1,17 @@
+package com.cubeia.bookkeeping.transaction;
+
+import java.util.UUID;
+
+/**
+ * A wallet with transfers in flight. The counts of admitted and rejected transfers cover the time
+ * since the wallet last had none in flight.
+ */
+public record HotWallet(
+  UUID walletId,
+  int inFlight,
+  int waiting,
+  long admitted,
+  long rejected
+) {
+
+}
@@ -0,0 +1,19 @@
+package com.cubeia.bookkeeping.transaction;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param cacheSize   number of recent idempotency keys kept in memory
+ * @param cacheTtl    how long a key stays in memory after it was used
+ * @param retention   how long a key is kept in the database
+ */
+@ConfigurationProperties(prefix = "bookkeeping.idempotency")
+public record IdempotencyProperties(
+  @DefaultValue("10000") int cacheSize,
+  @DefaultValue("10m") Duration cacheTtl,
+  @DefaultValue("24h") Duration retention
+) {
+
+}
@@ -0,0 +1,73 @@
+package com.cubeia.bookkeeping.transaction;
+
+import io.micrometer.core.annotation.Timed;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@Timed("bookkeeping.repository")
+public class IdempotencyRepository {
+
+  private static final RowMapper<IdempotentTransfer> IDEMPOTENT_TRANSFER_ROW_MAPPER = (rs, rowNum) -> new IdempotentTransfer(
+    rs.getString("idempotency_key"),
+    rs.getObject("from_id", UUID.class),
+    rs.getObject("to_id", UUID.class),
+    rs.getLong("amount"),
+    rs.getObject("transaction_id", UUID.class),
+    rs.getLong("new_balance")
+  );
+  private final JdbcClient jdbcClient;
+
+  public IdempotencyRepository(JdbcClient jdbcClient) {
+    this.jdbcClient = jdbcClient;
+  }
+
+  public Optional<IdempotentTransfer> getByKey(String idempotencyKey) {
+    String sql = "SELECT idempotency_key, from_id, to_id, amount, transaction_id, new_balance FROM txn.idempotency_key WHERE idempotency_key = ?";
+    return jdbcClient.sql(sql)
+      .param(idempotencyKey)
+      .query(IDEMPOTENT_TRANSFER_ROW_MAPPER)
+      .optional();
+  }
+
+  /**
+   * Claims the key for a transfer that has not run yet. Returns false if the key already exists. A
+   * concurrent claim of the same key blocks on its unique index until the other transaction
+   * finishes, and only succeeds if that one rolled back.
+   */
+  public boolean claim(String idempotencyKey, Transaction transaction) {
+    String sql = "INSERT INTO txn.idempotency_key (idempotency_key, from_id, to_id, amount) "
+      + "VALUES (?, ?, ?, ?) ON CONFLICT (idempotency_key) DO NOTHING";
+    return jdbcClient.sql(sql)
+      .param(idempotencyKey)
+      .param(transaction.fromId())
+      .param(transaction.toId())
+      .param(transaction.amount())
+      .update() == 1;
+  }
+
+  /**
+   * Records the result of the transfer under the key claimed for it.
+   */
+  public void complete(IdempotentTransfer transfer) {
+    String sql = "UPDATE txn.idempotency_key SET transaction_id = ?, new_balance = ? WHERE idempotency_key = ?";
+    jdbcClient.sql(sql)
+      .param(transfer.transactionId())
+      .param(transfer.newBalance())
+      .param(transfer.idempotencyKey())
+      .update();
+  }
+
+  public int deleteCreatedBefore(Instant createdBefore) {
+    String sql = "DELETE FROM txn.idempotency_key WHERE created_at < ?";
+    return jdbcClient.sql(sql)
+      .param(createdBefore.atOffset(ZoneOffset.UTC))
+      .update();
+  }
+
+}
@@ -0,0 +1,102 @@
+package com.cubeia.bookkeeping.transaction;
+
+import com.cubeia.bookkeeping.exception.IdempotencyKeyMismatchException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Instant;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Transactional
+public class IdempotencyService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(IdempotencyService.class);
+
+  private final IdempotencyRepository idempotencyRepository;
+  private final TransactionProcessor transactionProcessor;
+  private final IdempotencyProperties idempotencyProperties;
+  private final Cache<String, IdempotentTransfer> recentKeys;
+
+  public IdempotencyService(IdempotencyRepository idempotencyRepository,
+    TransactionProcessor transactionProcessor, IdempotencyProperties idempotencyProperties) {
+    this.idempotencyRepository = idempotencyRepository;
+    this.transactionProcessor = transactionProcessor;
+    this.idempotencyProperties = idempotencyProperties;
+    this.recentKeys = Caffeine.newBuilder()
+      .maximumSize(idempotencyProperties.cacheSize())
+      .expireAfterWrite(idempotencyProperties.cacheTtl())
+      .build();
+  }
+
+  /**
+   * Looks up a previous transfer made with the key, from memory first. Not a read only
+   * transaction, so that it reads the primary even when replicas are enabled: a retry, or the loser
+   * of a race on the key, has to see the transfer committed a moment ago.
+   */
+  @Transactional
+  public Optional<IdempotentTransfer> getByKey(String idempotencyKey) {
+    var transfer = recentKeys.getIfPresent(idempotencyKey);
+    if (transfer != null) {
+      return Optional.of(transfer);
+    }
+    var stored = idempotencyRepository.getByKey(idempotencyKey);
+    stored.ifPresent(value -> recentKeys.put(idempotencyKey, value));
+    return stored;
+  }
+
+  /**
+   * Claims the key, performs the transfer and records its result under the key, all in the same
+   * transaction. A concurrent request with the same key waits on the claim and, once this one
+   * commits, replays its result without locking any wallet.
+   */
+  public IdempotentTransfer createTransaction(String idempotencyKey, Transaction transaction) {
+    if (!idempotencyRepository.claim(idempotencyKey, transaction)) {
+      throw new DuplicateIdempotencyKeyException(idempotencyKey);
+    }
+    var result = transactionProcessor.createTransaction(transaction);
+    var transfer = new IdempotentTransfer(
+      idempotencyKey,
+      transaction.fromId(),
+      transaction.toId(),
+      transaction.amount(),
+      result.transactionId(),
+      result.newBalance()
+    );
+    idempotencyRepository.complete(transfer);
+    return transfer;
+  }
+
+  /**
+   * Remembers a committed transfer so that retries are answered from memory.
+   */
+  public void remember(IdempotentTransfer transfer) {
+    recentKeys.put(transfer.idempotencyKey(), transfer);
+  }
+
+  /**
+   * Returns the original result of a transfer made with the same key, rejecting reuse of the key
+   * for a different transfer.
+   */
+  public TransactionResult replay(IdempotentTransfer transfer, Transaction transaction) {
+    if (!transfer.matches(transaction)) {
+      throw new IdempotencyKeyMismatchException();
+    }
+    return new TransactionResult(transfer.transactionId(), transfer.newBalance());
+  }
+
+  @Scheduled(fixedDelayString = "${bookkeeping.idempotency.cleanup-interval:PT1H}")
+  public void deleteExpiredKeys() {
+    var deleted = idempotencyRepository.deleteCreatedBefore(
+      Instant.now().minus(idempotencyProperties.retention())
+    );
+    if (deleted > 0) {
+      LOG.info("Deleted {} expired idempotency keys", deleted);
+    }
+  }
+
+}
@@ -0,0 +1,20 @@
+package com.cubeia.bookkeeping.transaction;
+
+import java.util.UUID;
+
+public record IdempotentTransfer(
+  String idempotencyKey,
+  UUID fromId,
+  UUID toId,
+  long amount,
+  UUID transactionId,
+  long newBalance
+) {
+
+  public boolean matches(Transaction transaction) {
+    return fromId.equals(transaction.fromId())
+      && toId.equals(transaction.toId())
+      && amount == transaction.amount();
+  }
+
+}
@@ -0,0 +1,90 @@
+package com.cubeia.bookkeeping.transaction;
+
+import static com.cubeia.bookkeeping.transaction.TransactionController.IDEMPOTENCY_KEY_HEADER;
+
+import com.cubeia.bookkeeping.api.Cursor;
+import com.cubeia.bookkeeping.api.Page;
+import com.cubeia.bookkeeping.id.Uuids;
+import com.cubeia.bookkeeping.wallet.BatchTransferInput;
+import com.cubeia.bookkeeping.wallet.BatchTransferOutput;
+import com.cubeia.bookkeeping.wallet.TransferInput;
+import com.cubeia.bookkeeping.wallet.TransferOutput;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux counterpart of {@link TransactionController}, active with the {@code reactive} profile.
+ */
+@RestController
+@RequestMapping("/transactions")
+@Profile("reactive")
+public class ReactiveTransactionController {
+
+  private final ReactiveTransactionService transactionService;
+
+  public ReactiveTransactionController(ReactiveTransactionService transactionService) {
+    this.transactionService = transactionService;
+  }
+
+  @PostMapping("/transfer")
+  public Mono<TransferOutput> transfer(
+    @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) @Size(max = 255) String idempotencyKey,
+    @RequestBody @Valid TransferInput input
+  ) {
+    return transactionService.createTransaction(
+        new Transaction.TransactionBuilder()
+          .id(Uuids.next())
+          .fromId(input.fromId())
+          .toId(input.toId())
+          .amount(input.amount().longValueExact())
+          .build(),
+        idempotencyKey
+      )
+      .map(transactionResult -> new TransferOutput(
+        transactionResult.transactionId(),
+        input.amount(),
+        BigDecimal.valueOf(transactionResult.newBalance())
+      ));
+  }
+
+  @PostMapping("/transfers/batch")
+  public Mono<BatchTransferOutput> transferBatch(@RequestBody @Valid BatchTransferInput input) {
+    return transactionService.createTransactions(
+        TransactionController.toTransactions(input),
+        input.atomic() == null || input.atomic()
+      )
+      .map(results -> TransactionController.toOutput(input, results));
+  }
+
+  @GetMapping("/{walletId}")
+  public Mono<ResponseEntity<List<TransactionView>>> getTransactionByWalletId(
+    @PathVariable UUID walletId,
+    @Valid Page page
+  ) {
+    return transactionService.getTransactionByWalletId(
+        walletId,
+        page.limit(),
+        page.offset(),
+        page.afterCursor()
+      )
+      .collectList()
+      .map(transactions -> page.toResponse(
+        transactions,
+        transaction -> new Cursor(transaction.createdAt(), transaction.id())
+      ));
+  }
+
+}
@@ -0,0 +1,60 @@
+package com.cubeia.bookkeeping.transaction;
+
+import com.cubeia.bookkeeping.exception.InsufficientFundsException;
+import com.cubeia.bookkeeping.exception.NotFoundException;
+import com.cubeia.bookkeeping.exception.SameAccountTransferException;
+import com.cubeia.bookkeeping.id.Uuids;
+import java.util.UUID;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactive counterpart of {@link TransactionProcessor}. A transfer is a single call of the
+ * {@code txn.transfer} function, which locks both wallets in the same UUID order as the blocking
+ * processor. Transfers involving a sharded wallet are handed to the blocking processor.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveTransactionProcessor {
+
+  private final ReactiveTransactionRepository transactionRepository;
+  private final TransactionProcessor transactionProcessor;
+
+  public ReactiveTransactionProcessor(ReactiveTransactionRepository transactionRepository,
+    TransactionProcessor transactionProcessor) {
+    this.transactionRepository = transactionRepository;
+    this.transactionProcessor = transactionProcessor;
+  }
+
+  public Mono<TransactionResult> createTransaction(Transaction transaction) {
+    if (transaction.fromId().equals(transaction.toId())) {
+      return Mono.error(new SameAccountTransferException());
+    }
+
+    // Lock wallets in consistent order based on UUID comparison
+    boolean isSourceFirst = transaction.fromId().compareTo(transaction.toId()) < 0;
+    UUID firstLockId = isSourceFirst ? transaction.fromId() : transaction.toId();
+    UUID secondLockId = isSourceFirst ? transaction.toId() : transaction.fromId();
+
+    return transactionRepository.transfer(
+        transaction,
+        Uuids.next(),
+        Uuids.next(),
+        firstLockId,
+        secondLockId
+      )
+      .flatMap(result -> switch (result.status()) {
+        case NOT_FOUND ->
+          Mono.error(new NotFoundException("Wallet not found: " + result.failedWalletId()));
+        case INSUFFICIENT_FUNDS -> Mono.error(new InsufficientFundsException("Insufficient funds"));
+        case SAME_WALLET -> Mono.error(new SameAccountTransferException());
+        case SHARDED -> Mono.fromCallable(
+            () -> transactionProcessor.createTransaction(transaction))
+          .subscribeOn(Schedulers.boundedElastic());
+        case OK -> Mono.just(new TransactionResult(transaction.id(), result.sourceBalance()));
+      });
+  }
+
+}
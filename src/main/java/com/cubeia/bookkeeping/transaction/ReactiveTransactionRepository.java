@@ -0,0 +1,120 @@
+package com.cubeia.bookkeeping.transaction;
+
+import com.cubeia.bookkeeping.api.Cursor;
+import com.cubeia.bookkeeping.api.Page;
+import io.r2dbc.spi.R2dbcException;
+import io.r2dbc.spi.Readable;
+import java.time.Instant;
+import java.util.UUID;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2DBC counterpart of {@link TransactionRepository} for the reactive stack.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveTransactionRepository {
+
+  private static final String LOCK_NOT_AVAILABLE = "55P03";
+
+  private static final String TRANSACTION_VIEW_COLUMNS =
+    "t.id, t.from_id, t.to_id, l.created_at, l.amount, l.running_balance";
+
+  private final DatabaseClient databaseClient;
+
+  public ReactiveTransactionRepository(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+  }
+
+  private static TransactionView mapTransactionView(Readable row) {
+    return new TransactionView(
+      row.get("id", UUID.class),
+      row.get("from_id", UUID.class),
+      row.get("to_id", UUID.class),
+      row.get("amount", Long.class),
+      row.get("running_balance", Long.class),
+      row.get("created_at", Instant.class)
+    );
+  }
+
+  /**
+   * Runs the whole transfer in the {@code txn.transfer} function, see
+   * {@link TransactionRepository#transfer}.
+   */
+  public Mono<TransferStatementResult> transfer(Transaction transaction, UUID debitLedgerId,
+    UUID creditLedgerId, UUID firstLockId, UUID secondLockId) {
+    String sql = "SELECT status, failed_wallet_id, source_balance FROM txn.transfer("
+      + ":id, :fromId, :toId, CAST(:amount AS BIGINT), :debitLedgerId, :creditLedgerId, "
+      + ":firstLockId, :secondLockId)";
+    return databaseClient.sql(sql)
+      .bind("id", transaction.id())
+      .bind("fromId", transaction.fromId())
+      .bind("toId", transaction.toId())
+      .bind("amount", transaction.amount())
+      .bind("debitLedgerId", debitLedgerId)
+      .bind("creditLedgerId", creditLedgerId)
+      .bind("firstLockId", firstLockId)
+      .bind("secondLockId", secondLockId)
+      .map(row -> {
+        // Like ResultSet.getLong, a failed transfer without a balance reads as 0
+        var sourceBalance = row.get("source_balance", Long.class);
+        return new TransferStatementResult(
+          TransferStatus.valueOf(row.get("status", String.class)),
+          row.get("failed_wallet_id", UUID.class),
+          sourceBalance == null ? 0 : sourceBalance
+        );
+      })
+      .one()
+      .onErrorMap(ReactiveTransactionRepository::isLockTimeout,
+        ex -> new CannotAcquireLockException("Wallet lock not available", ex));
+  }
+
+  /**
+   * Like the JDBC driver, the R2DBC driver leaves Postgres' {@code lock_not_available}
+   * uncategorized, see {@link com.cubeia.bookkeeping.datasource.LockTimeoutExceptionTranslator}.
+   */
+  private static boolean isLockTimeout(Throwable ex) {
+    return ex.getCause() instanceof R2dbcException r2dbcException
+      && LOCK_NOT_AVAILABLE.equals(r2dbcException.getSqlState());
+  }
+
+  public Flux<TransactionView> getTransactionByWalletId(UUID walletId, Integer limit,
+    Integer offset, Cursor after) {
+    if (limit == null || limit <= 0) {
+      limit = Page.DEFAULT_LIMIT;
+    }
+    if (after != null) {
+      String sql = "SELECT " + TRANSACTION_VIEW_COLUMNS + " FROM txn.transaction t "
+        + "INNER JOIN gnl.ledger l ON l.transaction_id = t.id AND l.created_at = t.created_at "
+        + "WHERE l.wallet_id = :walletId AND l.created_at <= :createdAt "
+        + "AND (l.created_at, l.transaction_id) < (:createdAt, :id) "
+        + "ORDER BY l.created_at DESC, l.transaction_id DESC LIMIT :limit";
+      return databaseClient.sql(sql)
+        .bind("walletId", walletId)
+        .bind("createdAt", after.createdAtParam())
+        .bind("id", after.id())
+        .bind("limit", limit)
+        .map(ReactiveTransactionRepository::mapTransactionView)
+        .all();
+    }
+    if (offset == null || offset < 0) {
+      offset = 0;
+    }
+    String sql = "SELECT " + TRANSACTION_VIEW_COLUMNS + " FROM txn.transaction t "
+      + "INNER JOIN gnl.ledger l ON l.transaction_id = t.id AND l.created_at = t.created_at "
+      + "WHERE l.wallet_id = :walletId "
+      + "ORDER BY l.created_at DESC, l.transaction_id DESC LIMIT :limit OFFSET :offset";
+    return databaseClient.sql(sql)
+      .bind("walletId", walletId)
+      .bind("limit", limit)
+      .bind("offset", offset)
+      .map(ReactiveTransactionRepository::mapTransactionView)
+      .all();
+  }
+
+}
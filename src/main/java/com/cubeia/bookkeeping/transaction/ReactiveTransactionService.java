@@ -0,0 +1,52 @@
+package com.cubeia.bookkeeping.transaction;
+
+import com.cubeia.bookkeeping.api.Cursor;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactive counterpart of {@link TransactionService}. Transfers and history reads run on R2DBC,
+ * idempotent and batch transfers are rare enough to run on the blocking service off the event
+ * loop.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveTransactionService {
+
+  private final ReactiveTransactionProcessor transactionProcessor;
+  private final ReactiveTransactionRepository transactionRepository;
+  private final TransactionService transactionService;
+
+  public ReactiveTransactionService(ReactiveTransactionProcessor transactionProcessor,
+    ReactiveTransactionRepository transactionRepository, TransactionService transactionService) {
+    this.transactionProcessor = transactionProcessor;
+    this.transactionRepository = transactionRepository;
+    this.transactionService = transactionService;
+  }
+
+  public Mono<TransactionResult> createTransaction(Transaction transaction,
+    String idempotencyKey) {
+    if (idempotencyKey == null) {
+      return transactionProcessor.createTransaction(transaction);
+    }
+    return Mono.fromCallable(() -> transactionService.createTransaction(transaction, idempotencyKey))
+      .subscribeOn(Schedulers.boundedElastic());
+  }
+
+  public Mono<List<TransferItemResult>> createTransactions(List<Transaction> transactions,
+    boolean atomic) {
+    return Mono.fromCallable(() -> transactionService.createTransactions(transactions, atomic))
+      .subscribeOn(Schedulers.boundedElastic());
+  }
+
+  public Flux<TransactionView> getTransactionByWalletId(UUID walletId, Integer limit,
+    Integer offset, Cursor after) {
+    return transactionRepository.getTransactionByWalletId(walletId, limit, offset, after);
+  }
+
+}
@@ -0,0 +1,96 @@
+package com.cubeia.bookkeeping.transaction;
+
+import com.cubeia.bookkeeping.exception.InsufficientFundsException;
+import com.cubeia.bookkeeping.exception.NotFoundException;
+import com.cubeia.bookkeeping.transaction.TransferMetrics.Phase;
+import com.cubeia.bookkeeping.wallet.Wallet;
+import com.cubeia.bookkeeping.wallet.WalletRepository;
+import com.cubeia.bookkeeping.wallet.WalletShardService;
+import java.util.UUID;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RowLockStrategy implements WalletLockStrategy {
+
+  private final WalletRepository walletRepository;
+  private final WalletShardService walletShardService;
+  private final TransferMetrics transferMetrics;
+
+  public RowLockStrategy(WalletRepository walletRepository, WalletShardService walletShardService,
+    TransferMetrics transferMetrics) {
+    this.walletRepository = walletRepository;
+    this.walletShardService = walletShardService;
+    this.transferMetrics = transferMetrics;
+  }
+
+  @Override
+  public WalletLocking locking() {
+    return WalletLocking.ROW_LOCK;
+  }
+
+  @Override
+  public Balances adjustBalances(Transaction transaction) {
+    // Lock wallets in consistent order based on UUID comparison
+    boolean isSourceFirst = transaction.fromId().compareTo(transaction.toId()) < 0;
+
+    // Get both wallets with locks in consistent order, sharded wallets are not row locked
+    var firstWallet = lockWallet(isSourceFirst ? transaction.fromId() : transaction.toId());
+    var secondWallet = lockWallet(isSourceFirst ? transaction.toId() : transaction.fromId());
+
+    // Reference source and destination wallets based on the lock order
+    var sourceWallet = isSourceFirst ? firstWallet : secondWallet;
+    var destinationWallet = isSourceFirst ? secondWallet : firstWallet;
+
+    // Check balance, sharded wallets are checked when their shard is debited
+    transferMetrics.phase(Phase.BALANCE_CHECK, () -> {
+      if (sourceWallet.shardCount() == 0
+        && sourceWallet.balance() < transaction.amount()) {
+        throw new InsufficientFundsException("Insufficient funds");
+      }
+      return null;
+    });
+
+    // Perform balance updates in the same order, sharded wallets only lock a shard here
+    if (isSourceFirst) {
+      var sourceBalance = transferMetrics.phase(Phase.ADJUST_BALANCE,
+        () -> debit(sourceWallet, transaction.amount()));
+      return balances(sourceWallet, sourceBalance, transferMetrics.phase(Phase.ADJUST_BALANCE,
+        () -> credit(destinationWallet, transaction.amount())));
+    }
+    var destinationBalance = transferMetrics.phase(Phase.ADJUST_BALANCE,
+      () -> credit(destinationWallet, transaction.amount()));
+    return balances(sourceWallet, transferMetrics.phase(Phase.ADJUST_BALANCE,
+      () -> debit(sourceWallet, transaction.amount())), destinationBalance);
+  }
+
+  private Balances balances(Wallet sourceWallet, long sourceBalance, long destinationBalance) {
+    return new Balances(sourceBalance, destinationBalance, sourceWallet.shardCount() > 0
+      ? walletShardService.balance(sourceWallet.id()) : sourceBalance);
+  }
+
+  private Wallet lockWallet(UUID walletId) {
+    return transferMetrics.phase(Phase.LOCK, () -> {
+      var wallet = walletRepository.lockWallet(walletId);
+      if (wallet == null) {
+        throw new NotFoundException("Wallet not found: " + walletId);
+      }
+      return wallet;
+    });
+  }
+
+  private long debit(Wallet wallet, long amount) {
+    if (wallet.shardCount() > 0) {
+      return walletShardService.debit(wallet, amount)
+        .orElseThrow(() -> new InsufficientFundsException("Insufficient funds"));
+    }
+    return walletRepository.adjustBalance(wallet.id(), -amount);
+  }
+
+  private long credit(Wallet wallet, long amount) {
+    if (wallet.shardCount() > 0) {
+      return walletShardService.credit(wallet, amount);
+    }
+    return walletRepository.adjustBalance(wallet.id(), amount);
+  }
+
+}
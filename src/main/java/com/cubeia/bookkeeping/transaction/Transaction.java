@@ -1,6 +1,5 @@
 package com.cubeia.bookkeeping.transaction;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -8,7 +7,7 @@ public record Transaction(
   UUID id,
   UUID fromId,
   UUID toId,
-  BigDecimal amount,
+  long amount,
   Instant createdAt
 ) {
 
@@ -18,7 +17,7 @@ public record Transaction(
     private UUID id;
     private UUID fromId;
     private UUID toId;
-    private BigDecimal amount;
+    private long amount;
     private Instant createdAt;
 
     public TransactionBuilder() {
@@ -51,7 +50,7 @@ public record Transaction(
       return this;
     }
 
-    public TransactionBuilder amount(BigDecimal amount) {
+    public TransactionBuilder amount(long amount) {
       this.amount = amount;
       return this;
     }
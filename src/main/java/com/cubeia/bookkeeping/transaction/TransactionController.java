@@ -1,24 +1,37 @@
 package com.cubeia.bookkeeping.transaction;
 
+import com.cubeia.bookkeeping.api.Cursor;
 import com.cubeia.bookkeeping.api.Page;
+import com.cubeia.bookkeeping.id.Uuids;
+import com.cubeia.bookkeeping.wallet.BatchTransferInput;
+import com.cubeia.bookkeeping.wallet.BatchTransferItemOutput;
+import com.cubeia.bookkeeping.wallet.BatchTransferOutput;
 import com.cubeia.bookkeeping.wallet.TransferInput;
 import com.cubeia.bookkeeping.wallet.TransferOutput;
-import com.fasterxml.uuid.Generators;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @RequestMapping("/transactions")
+@Profile("!reactive")
 public class TransactionController {
 
+  public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
   private final TransactionService transactionService;
 
   public TransactionController(TransactionService transactionService) {
@@ -27,39 +40,100 @@ public class TransactionController {
 
   @PostMapping("/transfer")
   @Operation(
-    description = "Transfer money between wallets",
+    description = "Transfer money between wallets. Retries with the same Idempotency-Key header "
+      + "return the original result instead of transferring again.",
     summary = "Transfer money between wallets"
   )
-  public TransferOutput transfer(@RequestBody @Valid TransferInput input) {
+  public TransferOutput transfer(
+    @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) @Size(max = 255) String idempotencyKey,
+    @RequestBody @Valid TransferInput input
+  ) {
     var transactionResult = transactionService.createTransaction(
       new Transaction.TransactionBuilder()
-        .id(Generators.timeBasedEpochRandomGenerator().generate())
+        .id(Uuids.next())
         .fromId(input.fromId())
         .toId(input.toId())
-        .amount(input.amount())
-        .build()
+        .amount(input.amount().longValueExact())
+        .build(),
+      idempotencyKey
     );
     return new TransferOutput(
       transactionResult.transactionId(),
       input.amount(),
-      transactionResult.newBalance()
+      BigDecimal.valueOf(transactionResult.newBalance())
+    );
+  }
+
+  @PostMapping("/transfers/batch")
+  @Operation(
+    description = "Transfer money between wallets in a single batch. All wallets are locked once "
+      + "and every transfer is applied in one database transaction.",
+    summary = "Transfer money between wallets in a batch"
+  )
+  public BatchTransferOutput transferBatch(@RequestBody @Valid BatchTransferInput input) {
+    var results = transactionService.createTransactions(
+      toTransactions(input),
+      input.atomic() == null || input.atomic()
     );
+    return toOutput(input, results);
+  }
+
+  @GetMapping("/hot-wallets")
+  @Operation(
+    description = "Get the wallets with the most transfers in flight or waiting for admission on "
+      + "this node, busiest first. Empty unless per-wallet admission is enabled.",
+    summary = "Get hot wallets"
+  )
+  public List<HotWallet> getHotWallets() {
+    return transactionService.getHotWallets();
   }
 
   @GetMapping("/{walletId}")
   @Operation(
-    description = "Get transactions by wallet ID",
+    description = "Get transactions by wallet ID. Pass the X-Next-Cursor response header as 'after' "
+      + "to get the next page.",
     summary = "Get transactions by wallet ID"
   )
-  public List<TransactionView> getTransactionByWalletId(
+  public ResponseEntity<List<TransactionView>> getTransactionByWalletId(
     @PathVariable UUID walletId,
     @Valid Page page
   ) {
-    return transactionService.getTransactionByWalletId(
-      walletId,
-      page.limit(),
-      page.offset()
+    return page.toResponse(
+      transactionService.getTransactionByWalletId(
+        walletId,
+        page.limit(),
+        page.offset(),
+        page.afterCursor()
+      ),
+      transaction -> new Cursor(transaction.createdAt(), transaction.id())
     );
   }
 
+  static List<Transaction> toTransactions(BatchTransferInput input) {
+    return input.transfers().stream()
+      .map(transfer -> new Transaction.TransactionBuilder()
+        .id(Uuids.next())
+        .fromId(transfer.fromId())
+        .toId(transfer.toId())
+        .amount(transfer.amount().longValueExact())
+        .build())
+      .toList();
+  }
+
+  static BatchTransferOutput toOutput(BatchTransferInput input, List<TransferItemResult> results) {
+    List<BatchTransferItemOutput> items = new ArrayList<>(results.size());
+    for (int i = 0; i < results.size(); i++) {
+      var result = results.get(i);
+      items.add(new BatchTransferItemOutput(
+        i,
+        result.status(),
+        result.transactionId(),
+        input.transfers().get(i).amount(),
+        result.newBalance() == null ? null : BigDecimal.valueOf(result.newBalance()),
+        result.error()
+      ));
+    }
+    return new BatchTransferOutput(items);
+  }
+
 }
@@ -3,11 +3,21 @@ package com.cubeia.bookkeeping.transaction;
 import com.cubeia.bookkeeping.exception.InsufficientFundsException;
 import com.cubeia.bookkeeping.exception.NotFoundException;
 import com.cubeia.bookkeeping.exception.SameAccountTransferException;
+import com.cubeia.bookkeeping.id.Uuids;
 import com.cubeia.bookkeeping.ledger.Ledger;
 import com.cubeia.bookkeeping.ledger.LedgerRepository;
+import com.cubeia.bookkeeping.transaction.TransferMetrics.Phase;
+import com.cubeia.bookkeeping.wallet.Wallet;
 import com.cubeia.bookkeeping.wallet.WalletRepository;
-import com.fasterxml.uuid.Generators;
+import com.cubeia.bookkeeping.wallet.WalletShardService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,88 +28,208 @@ public class TransactionProcessor {
   private final TransactionRepository transactionRepository;
   private final LedgerRepository ledgerRepository;
   private final WalletRepository walletRepository;
+  private final WalletShardService walletShardService;
+  private final TransferProperties transferProperties;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TransferMetrics transferMetrics;
+  private final WalletLockStrategy walletLockStrategy;
 
   public TransactionProcessor(TransactionRepository transactionRepository,
-    LedgerRepository ledgerRepository, WalletRepository walletRepository) {
+    LedgerRepository ledgerRepository, WalletRepository walletRepository,
+    WalletShardService walletShardService, TransferProperties transferProperties,
+    ApplicationEventPublisher eventPublisher, TransferMetrics transferMetrics,
+    List<WalletLockStrategy> walletLockStrategies) {
     this.transactionRepository = transactionRepository;
     this.ledgerRepository = ledgerRepository;
     this.walletRepository = walletRepository;
+    this.walletShardService = walletShardService;
+    this.transferProperties = transferProperties;
+    this.eventPublisher = eventPublisher;
+    this.transferMetrics = transferMetrics;
+    this.walletLockStrategy = walletLockStrategies.stream()
+      .filter(strategy -> strategy.locking() == transferProperties.locking())
+      .findFirst()
+      .orElseThrow();
   }
 
-  public TransactionResult createTransaction(Transaction transaction, boolean initial) {
-
-    if (initial) {
-      var transactionId = transactionRepository.createTransaction(transaction);
-      ledgerRepository.createLedgerEntry(
-        new Ledger.LedgerBuilder()
-          .id(Generators.timeBasedEpochRandomGenerator().generate())
-          .transactionId(transactionId)
-          .amount(transaction.amount())
-          .runningBalance(transaction.amount())
-          .walletId(transaction.toId())
-          .build()
-      );
-      return new TransactionResult(
-        transactionId,
-        transaction.amount()
-      );
-    }
+  public TransactionResult createTransaction(Transaction transaction) {
+    return transferMetrics.transfer(transferProperties.mode(), transferProperties.locking(),
+      () -> transfer(transaction));
+  }
 
+  private TransactionResult transfer(Transaction transaction) {
     if (transaction.fromId().equals(transaction.toId())) {
       throw new SameAccountTransferException();
     }
 
-    // Lock wallets in consistent order based on UUID comparison
-    UUID firstLockId, secondLockId;
-    boolean isSourceFirst;
-
-    if (transaction.fromId().compareTo(transaction.toId()) < 0) {
-      firstLockId = transaction.fromId();
-      secondLockId = transaction.toId();
-      isSourceFirst = true;
-    } else {
-      firstLockId = transaction.toId();
-      secondLockId = transaction.fromId();
-      isSourceFirst = false;
+    // Only delivered to after commit listeners, a failed transfer changes nothing
+    eventPublisher.publishEvent(
+      new WalletsChangedEvent(Set.of(transaction.fromId(), transaction.toId())));
+
+    if (transferProperties.mode() == TransferMode.SINGLE_STATEMENT) {
+      // Lock wallets in consistent order based on UUID comparison
+      boolean isSourceFirst = transaction.fromId().compareTo(transaction.toId()) < 0;
+      var result = createTransactionInSingleStatement(
+        transaction,
+        isSourceFirst ? transaction.fromId() : transaction.toId(),
+        isSourceFirst ? transaction.toId() : transaction.fromId()
+      );
+      if (result != null) {
+        return result;
+      }
     }
 
-    // Get both wallets with locks in consistent order
-    var firstWallet = walletRepository.getWalletById(firstLockId, true);
-    if (firstWallet == null) {
-      throw new NotFoundException("Wallet not found: " + firstLockId);
+    // Move the funds under the configured wallet locking, multi-statement path only
+    var balances = walletLockStrategy.adjustBalances(transaction);
+    var sourceBalance = balances.source();
+    var destinationBalance = balances.destination();
+
+    // Create transaction record
+    var transactionId = transferMetrics.phase(Phase.TRANSACTION_INSERT,
+      () -> transactionRepository.createTransaction(transaction));
+
+    // Create ledger entries
+    transferMetrics.phase(Phase.LEDGER_INSERT, () -> {
+      createLedgerEntries(transaction, transactionId, sourceBalance, destinationBalance);
+      return null;
+    });
+
+    return new TransactionResult(
+      transactionId,
+      balances.sourceWallet()
+    );
+  }
+
+  /**
+   * Applies a batch of transfers in one database transaction. Every wallet touched by the batch is
+   * locked once, in the same UUID order used for single transfers, before any transfer is applied,
+   * sharded wallets by locking all of their shards.
+   * When {@code atomic} is set the first failing transfer aborts the whole batch, otherwise failures
+   * are reported per item and the remaining transfers are still applied.
+   */
+  public List<TransferItemResult> createTransactions(List<Transaction> transactions,
+    boolean atomic) {
+
+    // Lock every wallet in the batch in consistent order based on UUID comparison
+    var walletIds = new TreeSet<UUID>();
+    for (var transaction : transactions) {
+      if (!transaction.fromId().equals(transaction.toId())) {
+        walletIds.add(transaction.fromId());
+        walletIds.add(transaction.toId());
+      }
     }
 
-    var secondWallet = walletRepository.getWalletById(secondLockId, true);
-    if (secondWallet == null) {
-      throw new NotFoundException("Wallet not found: " + secondLockId);
+    eventPublisher.publishEvent(new WalletsChangedEvent(Set.copyOf(walletIds)));
+
+    Map<UUID, Wallet> wallets = new HashMap<>();
+    Map<UUID, Long> balances = new HashMap<>();
+    for (var walletId : walletIds) {
+      var wallet = walletRepository.lockWallet(walletId);
+      if (wallet != null) {
+        if (wallet.shardCount() > 0) {
+          // Several transfers of the batch may take a shard each, or rebalance over all of them
+          walletShardService.lockShards(walletId);
+        }
+        wallets.put(walletId, wallet);
+        balances.put(walletId, wallet.balance());
+      }
     }
 
-    // Reference source and destination wallets based on the lock order
-    var sourceWallet = isSourceFirst ? firstWallet : secondWallet;
+    Map<UUID, Long> balanceChanges = new HashMap<>();
+    List<TransferItemResult> results = new ArrayList<>(transactions.size());
+
+    for (var transaction : transactions) {
+      var failure = checkTransfer(transaction, wallets, balances);
+      long sourceBalance = 0;
+      long destinationBalance;
+
+      if (failure == null) {
+        var sourceWallet = wallets.get(transaction.fromId());
+        if (sourceWallet.shardCount() > 0) {
+          var debited = walletShardService.debit(sourceWallet, transaction.amount());
+          if (debited.isPresent()) {
+            sourceBalance = debited.getAsLong();
+          } else {
+            failure = TransferItemResult.failed(TransferStatus.INSUFFICIENT_FUNDS,
+              "Insufficient funds");
+          }
+        } else {
+          sourceBalance = balances.get(transaction.fromId()) - transaction.amount();
+        }
+      }
 
-    // Check balance
-    if (sourceWallet.balance().compareTo(transaction.amount()) < 0) {
-      throw new InsufficientFundsException("Insufficient funds");
+      if (failure != null) {
+        if (atomic) {
+          throw switch (failure.status()) {
+            case SAME_WALLET -> new SameAccountTransferException();
+            case NOT_FOUND -> new NotFoundException(failure.error());
+            default -> new InsufficientFundsException(failure.error());
+          };
+        }
+        results.add(failure);
+        continue;
+      }
+
+      var destinationWallet = wallets.get(transaction.toId());
+      if (destinationWallet.shardCount() > 0) {
+        destinationBalance = walletShardService.credit(destinationWallet, transaction.amount());
+      } else {
+        destinationBalance = balances.get(transaction.toId()) + transaction.amount();
+        balances.put(transaction.toId(), destinationBalance);
+        balanceChanges.merge(transaction.toId(), transaction.amount(), Long::sum);
+      }
+      if (wallets.get(transaction.fromId()).shardCount() == 0) {
+        balances.put(transaction.fromId(), sourceBalance);
+        balanceChanges.merge(transaction.fromId(), -transaction.amount(), Long::sum);
+      }
+
+      var transactionId = transactionRepository.createTransaction(transaction);
+      createLedgerEntries(transaction, transactionId, sourceBalance, destinationBalance);
+      // The running balance of a sharded wallet is that of a shard, its caller gets the wallet's
+      results.add(TransferItemResult.ok(transactionId,
+        wallets.get(transaction.fromId()).shardCount() > 0
+          ? walletShardService.balance(transaction.fromId()) : sourceBalance));
     }
 
-    // Perform balance updates
-    var sourceBalance = walletRepository.adjustBalance(transaction.fromId(),
-      transaction.amount().negate()
-    );
+    // Apply the net balance change of every wallet once, still in lock order
+    for (var walletId : walletIds) {
+      var change = balanceChanges.get(walletId);
+      if (change != null && change != 0) {
+        walletRepository.adjustBalance(walletId, change);
+      }
+    }
 
-    var destinationBalance = walletRepository.adjustBalance(transaction.toId(),
-      transaction.amount()
-    );
+    return results;
+  }
 
-    // Create transaction record
-    var transactionId = transactionRepository.createTransaction(transaction);
+  private TransferItemResult checkTransfer(Transaction transaction, Map<UUID, Wallet> wallets,
+    Map<UUID, Long> balances) {
+    if (transaction.fromId().equals(transaction.toId())) {
+      return TransferItemResult.failed(TransferStatus.SAME_WALLET,
+        new SameAccountTransferException().getMessage());
+    }
+    if (!wallets.containsKey(transaction.fromId())) {
+      return TransferItemResult.failed(TransferStatus.NOT_FOUND,
+        "Wallet not found: " + transaction.fromId());
+    }
+    if (!wallets.containsKey(transaction.toId())) {
+      return TransferItemResult.failed(TransferStatus.NOT_FOUND,
+        "Wallet not found: " + transaction.toId());
+    }
+    if (wallets.get(transaction.fromId()).shardCount() == 0
+      && balances.get(transaction.fromId()) < transaction.amount()) {
+      return TransferItemResult.failed(TransferStatus.INSUFFICIENT_FUNDS, "Insufficient funds");
+    }
+    return null;
+  }
 
-    // Create ledger entries
+  private void createLedgerEntries(Transaction transaction, UUID transactionId,
+    long sourceBalance, long destinationBalance) {
     ledgerRepository.createLedgerEntry(
       new Ledger.LedgerBuilder()
-        .id(Generators.timeBasedEpochRandomGenerator().generate())
+        .id(Uuids.next())
         .transactionId(transactionId)
-        .amount(transaction.amount().negate())
+        .amount(-transaction.amount())
         .runningBalance(sourceBalance)
         .walletId(transaction.fromId())
         .build()
@@ -107,18 +237,38 @@ public class TransactionProcessor {
 
     ledgerRepository.createLedgerEntry(
       new Ledger.LedgerBuilder()
-        .id(Generators.timeBasedEpochRandomGenerator().generate())
+        .id(Uuids.next())
         .transactionId(transactionId)
         .amount(transaction.amount())
         .runningBalance(destinationBalance)
         .walletId(transaction.toId())
         .build()
     );
+  }
 
-    return new TransactionResult(
-      transactionId,
-      sourceBalance
-    );
+  /**
+   * Returns {@code null} when one of the wallets is sharded, such transfers have to go through the
+   * multi-statement path.
+   */
+  private TransactionResult createTransactionInSingleStatement(Transaction transaction,
+    UUID firstLockId, UUID secondLockId) {
+    return transferMetrics.phase(Phase.TRANSFER_STATEMENT, () -> {
+      var result = transactionRepository.transfer(
+        transaction,
+        Uuids.next(),
+        Uuids.next(),
+        firstLockId,
+        secondLockId
+      );
+
+      return switch (result.status()) {
+        case NOT_FOUND -> throw new NotFoundException("Wallet not found: " + result.failedWalletId());
+        case INSUFFICIENT_FUNDS -> throw new InsufficientFundsException("Insufficient funds");
+        case SAME_WALLET -> throw new SameAccountTransferException();
+        case SHARDED -> null;
+        case OK -> new TransactionResult(transaction.id(), result.sourceBalance());
+      };
+    });
   }
 
 }
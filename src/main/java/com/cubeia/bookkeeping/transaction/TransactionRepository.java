@@ -1,5 +1,8 @@
 package com.cubeia.bookkeeping.transaction;
 
+import com.cubeia.bookkeeping.api.Cursor;
+import com.cubeia.bookkeeping.api.Page;
+import io.micrometer.core.annotation.Timed;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.jdbc.core.RowMapper;
@@ -9,16 +12,22 @@ import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 @Repository
+@Timed("bookkeeping.repository")
 public class TransactionRepository {
 
   private static final RowMapper<TransactionView> TRANSACTION_VIEW_ROW_MAPPER = (rs, rowNum) -> new TransactionView(
     rs.getObject("id", UUID.class),
     rs.getObject("from_id", UUID.class),
     rs.getObject("to_id", UUID.class),
-    rs.getBigDecimal("amount"),
-    rs.getBigDecimal("running_balance"),
+    rs.getLong("amount"),
+    rs.getLong("running_balance"),
     rs.getTimestamp("created_at").toInstant()
   );
+  private static final RowMapper<TransferStatementResult> TRANSFER_STATEMENT_ROW_MAPPER = (rs, rowNum) -> new TransferStatementResult(
+    TransferStatus.valueOf(rs.getString("status")),
+    rs.getObject("failed_wallet_id", UUID.class),
+    rs.getLong("source_balance")
+  );
   private final JdbcClient jdbcClient;
 
   public TransactionRepository(JdbcClient jdbcClient) {
@@ -39,20 +48,59 @@ public class TransactionRepository {
     return keyHolder.getKeyAs(UUID.class);
   }
 
+  public TransferStatementResult transfer(Transaction transaction, UUID debitLedgerId,
+    UUID creditLedgerId, UUID firstLockId, UUID secondLockId) {
+    String sql = "SELECT status, failed_wallet_id, source_balance FROM txn.transfer(?, ?, ?, CAST(? AS BIGINT), ?, ?, ?, ?)";
+    return jdbcClient.sql(sql)
+      .param(transaction.id())
+      .param(transaction.fromId())
+      .param(transaction.toId())
+      .param(transaction.amount())
+      .param(debitLedgerId)
+      .param(creditLedgerId)
+      .param(firstLockId)
+      .param(secondLockId)
+      .query(TRANSFER_STATEMENT_ROW_MAPPER)
+      .single();
+  }
+
+  /**
+   * Transactions are ordered by the ledger entry of the wallet. Both are written in the same
+   * database transaction, so the entry shares the creation time of the transaction and the
+   * transaction id is unique per wallet. Joining on the creation time as well lets every lookup
+   * of a transaction go to the one monthly partition it can be in, and bounding
+   * {@code l.created_at} on its own lets the planner skip the partitions after the cursor.
+   */
   public List<TransactionView> getTransactionByWalletId(UUID walletId, Integer limit,
-    Integer offset) {
+    Integer offset, Cursor after) {
     if (limit == null || limit <= 0) {
-      limit = 10;
+      limit = Page.DEFAULT_LIMIT;
+    }
+    if (after != null) {
+      String sql =
+        "SELECT t.id, t.from_id , t.to_id, l.created_at, l.amount, l.running_balance FROM txn.transaction t "
+          + "INNER JOIN gnl.ledger l "
+          + "ON l.transaction_id = t.id AND l.created_at = t.created_at "
+          + "WHERE l.wallet_id = ? AND l.created_at <= ? AND (l.created_at, l.transaction_id) < (?, ?) "
+          + "ORDER BY l.created_at DESC, l.transaction_id DESC LIMIT ?";
+      return jdbcClient.sql(sql)
+        .param(walletId)
+        .param(after.createdAtParam())
+        .param(after.createdAtParam())
+        .param(after.id())
+        .param(limit)
+        .query(TRANSACTION_VIEW_ROW_MAPPER)
+        .list();
     }
     if (offset == null || offset < 0) {
       offset = 0;
     }
     String sql =
-      "SELECT t.id, t.from_id , t.to_id, t.created_at, l.amount, l.running_balance FROM txn.transaction t "
+      "SELECT t.id, t.from_id , t.to_id, l.created_at, l.amount, l.running_balance FROM txn.transaction t "
         + "INNER JOIN gnl.ledger l "
-        + "ON l.transaction_id = t.id "
+        + "ON l.transaction_id = t.id AND l.created_at = t.created_at "
         + "WHERE l.wallet_id = ? "
-        + "ORDER BY t.created_at DESC LIMIT ? OFFSET ?";
+        + "ORDER BY l.created_at DESC, l.transaction_id DESC LIMIT ? OFFSET ?";
     return jdbcClient.sql(sql)
       .param(walletId)
       .param(limit)
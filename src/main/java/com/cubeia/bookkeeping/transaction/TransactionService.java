@@ -1,9 +1,17 @@
 package com.cubeia.bookkeeping.transaction;
 
+import com.cubeia.bookkeeping.api.Cursor;
+import com.cubeia.bookkeeping.api.Page;
+import com.cubeia.bookkeeping.cache.ReadCacheProperties;
+import com.cubeia.bookkeeping.cache.ReadThroughCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 @Service
 @Transactional
@@ -11,21 +19,126 @@ public class TransactionService {
 
   private final TransactionProcessor transactionProcessor;
   private final TransactionRepository transactionRepository;
+  private final TransferSequencer transferSequencer;
+  private final TransferGroupCommit transferGroupCommit;
+  private final WalletAdmission walletAdmission;
+  private final IdempotencyService idempotencyService;
+  private final ReadThroughCache<UUID, List<TransactionView>> firstPages;
 
   public TransactionService(
-    TransactionProcessor transactionProcessor, TransactionRepository transactionRepository) {
+    TransactionProcessor transactionProcessor, TransactionRepository transactionRepository,
+    TransferSequencer transferSequencer, TransferGroupCommit transferGroupCommit,
+    WalletAdmission walletAdmission, IdempotencyService idempotencyService,
+    ReadCacheProperties readCacheProperties, MeterRegistry meterRegistry) {
     this.transactionProcessor = transactionProcessor;
     this.transactionRepository = transactionRepository;
+    this.transferSequencer = transferSequencer;
+    this.transferGroupCommit = transferGroupCommit;
+    this.walletAdmission = walletAdmission;
+    this.idempotencyService = idempotencyService;
+    this.firstPages = new ReadThroughCache<>(
+      "transaction.first-page",
+      readCacheProperties.historySize(),
+      readCacheProperties.ttl(),
+      readCacheProperties.enabled(),
+      meterRegistry
+    );
   }
 
+  /**
+   * Runs outside a transaction so that a transfer waiting in the sequencer does not hold a
+   * connection, the processor opens its own transaction. With group commit the transfer is applied
+   * by a committer thread together with concurrent transfers instead, bypassing the sequencer so
+   * that transfers on the same wallet can share a batch. Either way the transfer is only let in
+   * while its wallets have room for another transfer in flight.
+   */
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   public TransactionResult createTransaction(Transaction transaction) {
-    return transactionProcessor.createTransaction(transaction, false);
+    var walletIds = List.of(transaction.fromId(), transaction.toId());
+    return walletAdmission.execute(walletIds, () -> {
+      if (transferGroupCommit.enabled()) {
+        return transferGroupCommit.execute(transaction);
+      }
+      return transferSequencer.execute(
+        walletIds,
+        () -> transactionProcessor.createTransaction(transaction)
+      );
+    });
   }
 
-  @Transactional(readOnly = true)
+  /**
+   * Transfers at most once per idempotency key. Retries with a known key return the original
+   * result without locking any wallet.
+   */
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public TransactionResult createTransaction(Transaction transaction, String idempotencyKey) {
+    if (idempotencyKey == null) {
+      return createTransaction(transaction);
+    }
+
+    var previous = idempotencyService.getByKey(idempotencyKey);
+    if (previous.isPresent()) {
+      return idempotencyService.replay(previous.get(), transaction);
+    }
+
+    try {
+      var walletIds = List.of(transaction.fromId(), transaction.toId());
+      var transfer = walletAdmission.execute(walletIds, () -> transferSequencer.execute(
+        walletIds,
+        () -> idempotencyService.createTransaction(idempotencyKey, transaction)
+      ));
+      idempotencyService.remember(transfer);
+      return new TransactionResult(transfer.transactionId(), transfer.newBalance());
+    } catch (DuplicateIdempotencyKeyException e) {
+      return idempotencyService.replay(
+        idempotencyService.getByKey(idempotencyKey).orElseThrow(),
+        transaction
+      );
+    }
+  }
+
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public List<TransferItemResult> createTransactions(List<Transaction> transactions,
+    boolean atomic) {
+    var walletIds = new ArrayList<UUID>(transactions.size() * 2);
+    for (var transaction : transactions) {
+      walletIds.add(transaction.fromId());
+      walletIds.add(transaction.toId());
+    }
+    return walletAdmission.execute(walletIds, () -> transferSequencer.execute(
+      walletIds,
+      () -> transactionProcessor.createTransactions(transactions, atomic)
+    ));
+  }
+
+  public List<HotWallet> getHotWallets() {
+    return walletAdmission.getHotWallets();
+  }
+
+  /**
+   * The first page is served from memory, it is cached at the maximum page size so that every
+   * smaller limit is a prefix of the same entry.
+   */
+  @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
   public List<TransactionView> getTransactionByWalletId(UUID walletId, Integer limit,
-    Integer offset) {
-    return transactionRepository.getTransactionByWalletId(walletId, limit, offset);
+    Integer offset, Cursor after) {
+    if (after != null || (offset != null && offset > 0)) {
+      return transactionRepository.getTransactionByWalletId(walletId, limit, offset, after);
+    }
+
+    int pageSize = limit == null || limit <= 0 ? Page.DEFAULT_LIMIT : limit;
+    if (pageSize > Page.MAX_LIMIT) {
+      return transactionRepository.getTransactionByWalletId(walletId, limit, offset, null);
+    }
+    var firstPage = firstPages.get(walletId, id -> List.copyOf(
+      transactionRepository.getTransactionByWalletId(id, Page.MAX_LIMIT, 0, null)));
+    return firstPage.subList(0, Math.min(pageSize, firstPage.size()));
+  }
+
+  @TransactionalEventListener
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public void onWalletsChanged(WalletsChangedEvent event) {
+    event.walletIds().forEach(firstPages::invalidate);
   }
 
 }
@@ -1,6 +1,5 @@
 package com.cubeia.bookkeeping.transaction;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -8,8 +7,8 @@ public record TransactionView(
   UUID id,
   UUID fromId,
   UUID toId,
-  BigDecimal amount,
-  BigDecimal runningBalance,
+  long amount,
+  long runningBalance,
   Instant createdAt
 ) {
 
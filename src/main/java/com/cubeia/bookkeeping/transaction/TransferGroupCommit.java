@@ -0,0 +1,227 @@
+package com.cubeia.bookkeeping.transaction;
+
+import com.cubeia.bookkeeping.exception.InsufficientFundsException;
+import com.cubeia.bookkeeping.exception.NotFoundException;
+import com.cubeia.bookkeeping.exception.SameAccountTransferException;
+import com.cubeia.bookkeeping.exception.TransferRejectedException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Collects concurrent single transfers into batches that are applied in one database transaction
+ * by {@link TransactionProcessor#createTransactions(List, boolean)}, so that they share one commit
+ * and one WAL flush. A batch is closed when it is full or its window has passed since its first
+ * transfer. Each caller waits for the outcome of its own transfer, a transfer that fails leaves the
+ * rest of its batch applied.
+ */
+@Component
+public class TransferGroupCommit implements DisposableBean {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TransferGroupCommit.class);
+
+  private final TransferProperties.GroupCommit properties;
+  private final TransactionProcessor transactionProcessor;
+  private final BlockingQueue<PendingTransfer> queue;
+  private final List<Thread> committers = new ArrayList<>();
+  private final DistributionSummary batchSize;
+  private final Timer queueWait;
+  private final Timer batchTimer;
+  private volatile boolean running = true;
+
+  public TransferGroupCommit(TransferProperties transferProperties,
+    TransactionProcessor transactionProcessor, MeterRegistry meterRegistry) {
+    this.properties = transferProperties.groupCommit();
+    this.transactionProcessor = transactionProcessor;
+    this.queue = new LinkedBlockingQueue<>(properties.maxQueueDepth());
+    this.batchSize = DistributionSummary.builder("bookkeeping.transfer.group-commit.size")
+      .description("Transfers applied in one group commit")
+      .register(meterRegistry);
+    this.queueWait = Timer.builder("bookkeeping.transfer.group-commit.wait")
+      .description("Time a transfer waited for its group commit to start")
+      .register(meterRegistry);
+    this.batchTimer = Timer.builder("bookkeeping.transfer.group-commit")
+      .description("Time spent applying and committing a group commit")
+      .register(meterRegistry);
+    Gauge.builder("bookkeeping.transfer.group-commit.window", properties,
+        p -> p.window().toNanos() / 1e9)
+      .baseUnit("seconds")
+      .description("Configured time a group commit waits for more transfers")
+      .register(meterRegistry);
+    Gauge.builder("bookkeeping.transfer.group-commit.max-size", properties,
+        TransferProperties.GroupCommit::maxBatchSize)
+      .description("Configured maximum number of transfers in a group commit")
+      .register(meterRegistry);
+    Gauge.builder("bookkeeping.transfer.group-commit.queued", queue, BlockingQueue::size)
+      .description("Transfers waiting for a group commit")
+      .register(meterRegistry);
+
+    if (properties.enabled()) {
+      for (int i = 0; i < properties.committers(); i++) {
+        committers.add(Thread.ofPlatform()
+          .name("transfer-group-commit-" + i)
+          .daemon()
+          .start(this::run));
+      }
+    }
+  }
+
+  public boolean enabled() {
+    return properties.enabled();
+  }
+
+  /**
+   * Queues the transfer for the next batch and waits until that batch has been committed or rolled
+   * back. A transfer that no batch has taken within the configured wait is rejected, one that was
+   * taken is waited for, its committer always completes it.
+   */
+  public TransactionResult execute(Transaction transaction) {
+    var pending = new PendingTransfer(transaction, System.nanoTime(), new CompletableFuture<>());
+    if (!running || !queue.offer(pending)) {
+      throw new TransferRejectedException("Too many transfers waiting for a group commit");
+    }
+    try {
+      try {
+        return pending.result().get(properties.maxWait().toNanos(), TimeUnit.NANOSECONDS);
+      } catch (TimeoutException e) {
+        if (queue.remove(pending)) {
+          throw new TransferRejectedException("Transfer waited too long for a group commit");
+        }
+        return pending.result().join();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      queue.remove(pending);
+      throw new TransferRejectedException("Interrupted while waiting for a group commit");
+    } catch (ExecutionException | CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new CompletionException(e.getCause());
+    }
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    running = false;
+    for (var committer : committers) {
+      committer.interrupt();
+    }
+    for (var committer : committers) {
+      committer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+    var remaining = new ArrayList<PendingTransfer>();
+    queue.drainTo(remaining);
+    reject(remaining);
+  }
+
+  private void run() {
+    var batch = new ArrayList<PendingTransfer>(properties.maxBatchSize());
+    while (running) {
+      try {
+        collect(batch);
+        commit(batch);
+      } catch (InterruptedException e) {
+        reject(batch);
+        return;
+      } catch (Throwable e) {
+        // Whatever went wrong, the callers of the batch stop waiting and the committer carries on
+        LOG.error("Group commit of {} transfers failed", batch.size(), e);
+        for (var pending : batch) {
+          pending.result().completeExceptionally(e);
+        }
+      }
+      batch.clear();
+    }
+  }
+
+  private void collect(List<PendingTransfer> batch) throws InterruptedException {
+    batch.add(queue.take());
+    long deadline = System.nanoTime() + properties.window().toNanos();
+    while (batch.size() < properties.maxBatchSize()) {
+      queue.drainTo(batch, properties.maxBatchSize() - batch.size());
+      long remaining = deadline - System.nanoTime();
+      if (batch.size() >= properties.maxBatchSize() || remaining <= 0) {
+        return;
+      }
+      var next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+      if (next == null) {
+        return;
+      }
+      batch.add(next);
+    }
+  }
+
+  private void commit(List<PendingTransfer> batch) {
+    long started = System.nanoTime();
+    for (var pending : batch) {
+      queueWait.record(started - pending.queuedAt(), TimeUnit.NANOSECONDS);
+    }
+    batchSize.record(batch.size());
+
+    List<TransferItemResult> results;
+    try {
+      results = batchTimer.record(() -> transactionProcessor.createTransactions(
+        batch.stream().map(PendingTransfer::transaction).toList(), false));
+    } catch (DataIntegrityViolationException e) {
+      // Not a failure reported per transfer, but one of the transfers violated a constraint and
+      // rolled back the whole batch, apply them one by one so that only that transfer fails
+      LOG.warn("Group commit of {} transfers failed, applying them one by one", batch.size(), e);
+      for (var pending : batch) {
+        try {
+          pending.result().complete(transactionProcessor.createTransaction(pending.transaction()));
+        } catch (RuntimeException transferFailure) {
+          pending.result().completeExceptionally(transferFailure);
+        }
+      }
+      return;
+    } catch (RuntimeException e) {
+      for (var pending : batch) {
+        pending.result().completeExceptionally(e);
+      }
+      return;
+    }
+
+    for (int i = 0; i < batch.size(); i++) {
+      var result = results.get(i);
+      var future = batch.get(i).result();
+      switch (result.status()) {
+        case OK -> future.complete(new TransactionResult(result.transactionId(), result.newBalance()));
+        case SAME_WALLET -> future.completeExceptionally(new SameAccountTransferException());
+        case NOT_FOUND -> future.completeExceptionally(new NotFoundException(result.error()));
+        default -> future.completeExceptionally(new InsufficientFundsException(result.error()));
+      }
+    }
+  }
+
+  private static void reject(List<PendingTransfer> batch) {
+    for (var pending : batch) {
+      pending.result().completeExceptionally(
+        new TransferRejectedException("Shutting down, transfer was not applied"));
+    }
+  }
+
+  private record PendingTransfer(
+    Transaction transaction,
+    long queuedAt,
+    CompletableFuture<TransactionResult> result
+  ) {
+
+  }
+
+}
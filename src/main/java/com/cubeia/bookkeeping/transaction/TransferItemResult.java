@@ -0,0 +1,20 @@
+package com.cubeia.bookkeeping.transaction;
+
+import java.util.UUID;
+
+public record TransferItemResult(
+  TransferStatus status,
+  UUID transactionId,
+  Long newBalance,
+  String error
+) {
+
+  public static TransferItemResult ok(UUID transactionId, long newBalance) {
+    return new TransferItemResult(TransferStatus.OK, transactionId, newBalance, null);
+  }
+
+  public static TransferItemResult failed(TransferStatus status, String error) {
+    return new TransferItemResult(status, null, null, error);
+  }
+
+}
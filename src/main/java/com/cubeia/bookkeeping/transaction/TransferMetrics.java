@@ -0,0 +1,82 @@
+package com.cubeia.bookkeeping.transaction;
+
+import com.cubeia.bookkeeping.exception.InsufficientFundsException;
+import com.cubeia.bookkeeping.exception.NotFoundException;
+import com.cubeia.bookkeeping.exception.SameAccountTransferException;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.function.Supplier;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Timers for transfers and for the phases of a transfer, tagged by outcome so that a latency spike
+ * can be attributed to lock waits, balance updates or inserts.
+ */
+@Component
+public class TransferMetrics {
+
+  public static final String TRANSFER_TIMER = "bookkeeping.transfer";
+  public static final String PHASE_TIMER = "bookkeeping.transfer.phase";
+
+  public enum Phase {
+    LOCK, BALANCE_CHECK, ADJUST_BALANCE, TRANSACTION_INSERT, LEDGER_INSERT, TRANSFER_STATEMENT;
+
+    private final String tag = name().toLowerCase();
+  }
+
+  private final MeterRegistry meterRegistry;
+  private final Meter.MeterProvider<Timer> transferTimer;
+  private final Meter.MeterProvider<Timer> phaseTimer;
+
+  public TransferMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+    this.transferTimer = Timer.builder(TRANSFER_TIMER)
+      .description("Time spent in a transfer, excluding commit")
+      .withRegistry(meterRegistry);
+    this.phaseTimer = Timer.builder(PHASE_TIMER)
+      .description("Time spent in one phase of a transfer")
+      .withRegistry(meterRegistry);
+  }
+
+  public <T> T transfer(TransferMode mode, WalletLocking locking, Supplier<T> transfer) {
+    return time(transferTimer, Tags.of("mode", mode.name().toLowerCase(),
+      "locking", locking.name().toLowerCase()), transfer);
+  }
+
+  public <T> T phase(Phase phase, Supplier<T> step) {
+    return time(phaseTimer, Tags.of("phase", phase.tag), step);
+  }
+
+  private <T> T time(Meter.MeterProvider<Timer> timer, Tags tags, Supplier<T> step) {
+    var sample = Timer.start(meterRegistry);
+    var outcome = "success";
+    try {
+      return step.get();
+    } catch (RuntimeException e) {
+      outcome = outcome(e);
+      throw e;
+    } finally {
+      sample.stop(timer.withTags(tags.and("outcome", outcome)));
+    }
+  }
+
+  private static String outcome(RuntimeException e) {
+    if (e instanceof InsufficientFundsException) {
+      return "insufficient_funds";
+    }
+    if (e instanceof NotFoundException) {
+      return "not_found";
+    }
+    if (e instanceof CannotAcquireLockException) {
+      return "lock_timeout";
+    }
+    if (e instanceof SameAccountTransferException) {
+      return "same_wallet";
+    }
+    return "error";
+  }
+
+}
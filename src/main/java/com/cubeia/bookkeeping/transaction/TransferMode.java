@@ -0,0 +1,16 @@
+package com.cubeia.bookkeeping.transaction;
+
+public enum TransferMode {
+
+  /**
+   * Locks, checks and writes with one statement per step.
+   */
+  STANDARD,
+
+  /**
+   * Performs the whole transfer through the {@code txn.transfer} database function in a single
+   * round trip.
+   */
+  SINGLE_STATEMENT
+
+}
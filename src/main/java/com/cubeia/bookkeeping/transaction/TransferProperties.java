@@ -0,0 +1,78 @@
+package com.cubeia.bookkeeping.transaction;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "bookkeeping.transfer")
+public record TransferProperties(
+  @DefaultValue("standard") TransferMode mode,
+  @DefaultValue("row-lock") WalletLocking locking,
+  @DefaultValue Sequencer sequencer,
+  @DefaultValue GroupCommit groupCommit,
+  @DefaultValue Admission admission
+) {
+
+  /**
+   * In-memory lanes that serialize transfers touching the same wallets before they open a database
+   * transaction.
+   *
+   * @param enabled       whether transfers are sequenced at all
+   * @param lanes         number of lanes wallet ids are striped over
+   * @param maxQueueDepth transfers allowed to wait for a single lane before new ones are rejected
+   * @param maxWait       how long a transfer waits for its lanes before it is rejected
+   */
+  public record Sequencer(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("1024") int lanes,
+    @DefaultValue("100") int maxQueueDepth,
+    @DefaultValue("5s") Duration maxWait
+  ) {
+
+  }
+
+  /**
+   * Group commit of concurrent single transfers, which are applied together in one database
+   * transaction and share its commit.
+   *
+   * @param enabled       whether single transfers are group committed
+   * @param window        how long a batch waits for more transfers after its first one
+   * @param maxBatchSize  transfers applied in one database transaction at most
+   * @param committers    threads applying batches, each holds a connection while it applies one
+   * @param maxQueueDepth transfers allowed to wait for a batch before new ones are rejected
+   * @param maxWait       how long a transfer waits for a batch to take it before it is rejected
+   */
+  public record GroupCommit(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("1ms") Duration window,
+    @DefaultValue("100") int maxBatchSize,
+    @DefaultValue("1") int committers,
+    @DefaultValue("10000") int maxQueueDepth,
+    @DefaultValue("5s") Duration maxWait
+  ) {
+
+  }
+
+  /**
+   * Caps the transfers in flight per wallet before they open a database transaction, so that a hot
+   * wallet cannot take every connection while its transfers wait on its row lock.
+   *
+   * @param enabled       whether transfers are admitted per wallet at all
+   * @param maxInFlight   transfers in flight on a single wallet
+   * @param maxQueueDepth transfers allowed to wait for a single wallet before new ones are rejected
+   * @param maxWait       how long a transfer waits for its wallets, zero to reject at once
+   * @param stripes       number of stripes wallet ids are spread over, each with a lock of its own
+   * @param hotWallets    wallets listed by {@code GET /transactions/hot-wallets}
+   */
+  public record Admission(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("4") int maxInFlight,
+    @DefaultValue("16") int maxQueueDepth,
+    @DefaultValue("100ms") Duration maxWait,
+    @DefaultValue("64") int stripes,
+    @DefaultValue("10") int hotWallets
+  ) {
+
+  }
+
+}
@@ -0,0 +1,89 @@
+package com.cubeia.bookkeeping.transaction;
+
+import com.cubeia.bookkeeping.exception.TransferRejectedException;
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serializes transfers that touch the same wallets in memory, so that conflicting transfers wait
+ * here instead of on database row locks while holding a connection. Wallet ids are striped over a
+ * fixed number of single-writer lanes, transfers on different lanes still run in parallel.
+ */
+@Component
+public class TransferSequencer {
+
+  private final TransferProperties.Sequencer properties;
+  private final ReentrantLock[] lanes;
+  private final AtomicInteger[] waiting;
+
+  public TransferSequencer(TransferProperties transferProperties) {
+    this.properties = transferProperties.sequencer();
+    this.lanes = new ReentrantLock[properties.enabled() ? properties.lanes() : 0];
+    this.waiting = new AtomicInteger[lanes.length];
+    for (int i = 0; i < lanes.length; i++) {
+      lanes[i] = new ReentrantLock(true);
+      waiting[i] = new AtomicInteger();
+    }
+  }
+
+  public <T> T execute(Collection<UUID> walletIds, Supplier<T> action) {
+    if (!properties.enabled()) {
+      return action.get();
+    }
+
+    // Acquire lanes in ascending order so that transfers never wait on each other in a cycle
+    var laneIndexes = new TreeSet<Integer>();
+    for (var walletId : walletIds) {
+      laneIndexes.add(lane(walletId));
+    }
+
+    var acquired = new int[laneIndexes.size()];
+    int count = 0;
+    try {
+      for (var lane : laneIndexes) {
+        acquire(lane);
+        acquired[count++] = lane;
+      }
+      return action.get();
+    } finally {
+      for (int i = count - 1; i >= 0; i--) {
+        lanes[acquired[i]].unlock();
+      }
+    }
+  }
+
+  private void acquire(int lane) {
+    var lock = lanes[lane];
+    if (lock.tryLock()) {
+      return;
+    }
+
+    var queue = waiting[lane];
+    if (queue.incrementAndGet() > properties.maxQueueDepth()) {
+      queue.decrementAndGet();
+      throw new TransferRejectedException("Too many transfers waiting for the same wallet");
+    }
+    try {
+      if (!lock.tryLock(properties.maxWait().toNanos(), TimeUnit.NANOSECONDS)) {
+        throw new TransferRejectedException("Timed out waiting for the same wallet");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TransferRejectedException("Interrupted waiting for the same wallet");
+    } finally {
+      queue.decrementAndGet();
+    }
+  }
+
+  private int lane(UUID walletId) {
+    int hash = walletId.hashCode();
+    return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+  }
+
+}
@@ -0,0 +1,11 @@
+package com.cubeia.bookkeeping.transaction;
+
+import java.util.UUID;
+
+public record TransferStatementResult(
+  TransferStatus status,
+  UUID failedWalletId,
+  long sourceBalance
+) {
+
+}
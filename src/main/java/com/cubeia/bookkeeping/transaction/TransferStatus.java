@@ -0,0 +1,9 @@
+package com.cubeia.bookkeeping.transaction;
+
+public enum TransferStatus {
+  OK,
+  NOT_FOUND,
+  INSUFFICIENT_FUNDS,
+  SAME_WALLET,
+  SHARDED
+}
@@ -0,0 +1,211 @@
+package com.cubeia.bookkeeping.transaction;
+
+import com.cubeia.bookkeeping.exception.TransferRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caps the transfers in flight per wallet, so that transfers on a hot wallet wait here, briefly and
+ * in a bounded queue, instead of on its row lock while holding a connection, and transfers between
+ * other wallets still get connections. Only wallets with transfers in flight are tracked, in maps
+ * striped over a fixed number of locks.
+ */
+@Component
+public class WalletAdmission {
+
+  private static final Comparator<HotWallet> HOTTEST = Comparator
+    .comparingInt((HotWallet wallet) -> wallet.inFlight() + wallet.waiting())
+    .thenComparingLong(HotWallet::rejected)
+    .reversed();
+
+  private final TransferProperties.Admission properties;
+  private final Stripe[] stripes;
+  private final Counter rejected;
+
+  public WalletAdmission(TransferProperties transferProperties, MeterRegistry meterRegistry) {
+    this.properties = transferProperties.admission();
+    this.stripes = new Stripe[properties.enabled() ? properties.stripes() : 0];
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] = new Stripe();
+    }
+    this.rejected = Counter.builder("bookkeeping.transfer.admission.rejected")
+      .description("Transfers rejected because a wallet had too many in flight")
+      .register(meterRegistry);
+    Gauge.builder("bookkeeping.transfer.admission.wallets", this, WalletAdmission::walletCount)
+      .description("Wallets with transfers in flight")
+      .register(meterRegistry);
+    Gauge.builder("bookkeeping.transfer.admission.hottest", this, WalletAdmission::hottestLoad)
+      .description("Transfers in flight or waiting on the busiest wallet")
+      .register(meterRegistry);
+  }
+
+  public <T> T execute(Collection<UUID> walletIds, Supplier<T> action) {
+    if (!properties.enabled()) {
+      return action.get();
+    }
+
+    // Admit wallets in ascending order so that transfers never wait on each other in a cycle
+    var admitted = new ArrayList<UUID>(walletIds.size());
+    try {
+      for (var walletId : new TreeSet<>(walletIds)) {
+        acquire(walletId);
+        admitted.add(walletId);
+      }
+      return action.get();
+    } finally {
+      for (int i = admitted.size() - 1; i >= 0; i--) {
+        release(admitted.get(i));
+      }
+    }
+  }
+
+  /**
+   * The wallets with the most transfers in flight or waiting, busiest first.
+   */
+  public List<HotWallet> getHotWallets() {
+    var hotWallets = new ArrayList<HotWallet>();
+    for (var stripe : stripes) {
+      stripe.lock.lock();
+      try {
+        stripe.wallets.forEach((walletId, wallet) -> hotWallets.add(new HotWallet(walletId,
+          wallet.inFlight, wallet.waiting, wallet.admitted, wallet.rejected)));
+      } finally {
+        stripe.lock.unlock();
+      }
+    }
+    hotWallets.sort(HOTTEST);
+    return List.copyOf(hotWallets.subList(0, Math.min(properties.hotWallets(), hotWallets.size())));
+  }
+
+  private void acquire(UUID walletId) {
+    var stripe = stripe(walletId);
+    stripe.lock.lock();
+    var wallet = stripe.wallets.computeIfAbsent(walletId, id -> new InFlight(stripe.lock));
+    try {
+      if (wallet.inFlight < properties.maxInFlight()) {
+        wallet.admit();
+        return;
+      }
+      if (wallet.waiting >= properties.maxQueueDepth() || properties.maxWait().isZero()) {
+        throw reject(wallet, "Too many transfers in flight for the same wallet");
+      }
+
+      wallet.waiting++;
+      try {
+        long remaining = properties.maxWait().toNanos();
+        while (wallet.inFlight >= properties.maxInFlight()) {
+          if (remaining <= 0) {
+            throw reject(wallet, "Timed out waiting for the same wallet");
+          }
+          remaining = wallet.released.awaitNanos(remaining);
+        }
+        wallet.admit();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw reject(wallet, "Interrupted waiting for the same wallet");
+      } finally {
+        wallet.waiting--;
+      }
+    } finally {
+      if (wallet.idle()) {
+        stripe.wallets.remove(walletId);
+      }
+      stripe.lock.unlock();
+    }
+  }
+
+  private void release(UUID walletId) {
+    var stripe = stripe(walletId);
+    stripe.lock.lock();
+    try {
+      var wallet = stripe.wallets.get(walletId);
+      wallet.inFlight--;
+      if (wallet.idle()) {
+        stripe.wallets.remove(walletId);
+      } else {
+        wallet.released.signal();
+      }
+    } finally {
+      stripe.lock.unlock();
+    }
+  }
+
+  private TransferRejectedException reject(InFlight wallet, String message) {
+    wallet.rejected++;
+    rejected.increment();
+    return new TransferRejectedException(message);
+  }
+
+  private Stripe stripe(UUID walletId) {
+    int hash = walletId.hashCode();
+    return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+  }
+
+  private int walletCount() {
+    int count = 0;
+    for (var stripe : stripes) {
+      stripe.lock.lock();
+      try {
+        count += stripe.wallets.size();
+      } finally {
+        stripe.lock.unlock();
+      }
+    }
+    return count;
+  }
+
+  private int hottestLoad() {
+    var hotWallets = getHotWallets();
+    if (hotWallets.isEmpty()) {
+      return 0;
+    }
+    return hotWallets.getFirst().inFlight() + hotWallets.getFirst().waiting();
+  }
+
+  private static final class Stripe {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<UUID, InFlight> wallets = new HashMap<>();
+
+  }
+
+  /**
+   * Guarded by the lock of its stripe.
+   */
+  private static final class InFlight {
+
+    private final Condition released;
+    private int inFlight;
+    private int waiting;
+    private long admitted;
+    private long rejected;
+
+    private InFlight(ReentrantLock lock) {
+      this.released = lock.newCondition();
+    }
+
+    private void admit() {
+      inFlight++;
+      admitted++;
+    }
+
+    private boolean idle() {
+      return inFlight == 0 && waiting == 0;
+    }
+
+  }
+
+}
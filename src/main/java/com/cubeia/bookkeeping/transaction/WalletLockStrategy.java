@@ -0,0 +1,35 @@
+package com.cubeia.bookkeeping.transaction;
+
+/**
+ * How a transfer keeps concurrent transfers on the same wallets from overdrawing them while it
+ * moves the funds, selected with {@code bookkeeping.transfer.locking}. Runs inside the transaction
+ * of the transfer, which inserts the transaction and its ledger entries afterwards, still holding
+ * the row locks of both wallets.
+ */
+public interface WalletLockStrategy {
+
+  WalletLocking locking();
+
+  /**
+   * Debits the source and credits the destination wallet of {@code transaction}.
+   *
+   * @throws com.cubeia.bookkeeping.exception.NotFoundException          if a wallet does not exist
+   * @throws com.cubeia.bookkeeping.exception.InsufficientFundsException if the source wallet does
+   *                                                                     not hold enough funds
+   */
+  Balances adjustBalances(Transaction transaction);
+
+  /**
+   * Balances after the transfer.
+   *
+   * @param source       running balance of the source entry
+   * @param destination  running balance of the destination entry
+   * @param sourceWallet balance of the source wallet, differs from {@code source} for a sharded
+   *                     wallet, whose running balances are those of a shard as described on
+   *                     {@link com.cubeia.bookkeeping.wallet.WalletShardService#debit}
+   */
+  record Balances(long source, long destination, long sourceWallet) {
+
+  }
+
+}
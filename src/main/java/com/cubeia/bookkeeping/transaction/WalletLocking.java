@@ -0,0 +1,24 @@
+package com.cubeia.bookkeeping.transaction;
+
+public enum WalletLocking {
+
+  /**
+   * Locks both wallet rows with {@code SELECT ... FOR UPDATE}, checks the balance and then updates
+   * both rows.
+   */
+  ROW_LOCK,
+
+  /**
+   * Takes no lock up front, the debit is an {@code UPDATE} that only matches while the wallet holds
+   * enough funds. Both updates run in wallet id order so that they take their row locks in the
+   * same order as every other transfer.
+   */
+  CONDITIONAL_UPDATE,
+
+  /**
+   * Serializes transfers on the same wallets with transaction scoped advisory locks keyed on the
+   * wallet ids, then updates the rows like {@link #CONDITIONAL_UPDATE}.
+   */
+  ADVISORY_LOCK
+
+}
@@ -0,0 +1,12 @@
+package com.cubeia.bookkeeping.transaction;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published by {@link TransactionProcessor} for the wallets whose balance and history were changed
+ * by a transaction. Listeners should act on it after commit.
+ */
+public record WalletsChangedEvent(Set<UUID> walletIds) {
+
+}
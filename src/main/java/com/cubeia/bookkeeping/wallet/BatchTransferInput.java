@@ -0,0 +1,19 @@
+package com.cubeia.bookkeeping.wallet;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record BatchTransferInput(
+  @NotEmpty
+  @Size(max = 1000)
+  @Schema(description = "Transfers to apply, in order")
+  List<@NotNull @Valid TransferInput> transfers,
+  @Schema(description = "Apply all transfers or none. When false, failed transfers are reported per item", example = "true", defaultValue = "true")
+  Boolean atomic
+) {
+
+}
@@ -0,0 +1,16 @@
+package com.cubeia.bookkeeping.wallet;
+
+import com.cubeia.bookkeeping.transaction.TransferStatus;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record BatchTransferItemOutput(
+  int index,
+  TransferStatus status,
+  UUID transactionId,
+  BigDecimal amount,
+  BigDecimal newBalance,
+  String error
+) {
+
+}
@@ -0,0 +1,9 @@
+package com.cubeia.bookkeeping.wallet;
+
+import java.util.List;
+
+public record BatchTransferOutput(
+  List<BatchTransferItemOutput> results
+) {
+
+}
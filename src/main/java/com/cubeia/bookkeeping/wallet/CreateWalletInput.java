@@ -1,15 +1,17 @@
 package com.cubeia.bookkeeping.wallet;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import java.math.BigDecimal;
 
 public record CreateWalletInput(
-  @NotBlank @Email @Schema(description = "Email", example = "youremail@gmail.com") String email,
-  @NotNull @Min(1) @Schema(description = "Initial Amount", example = "100.00") BigDecimal amount
+  @NotBlank @Email @Size(max = 255) @Schema(description = "Email", example = "youremail@gmail.com") String email,
+  @NotNull @Min(1) @Digits(integer = 18, fraction = 0) @Schema(description = "Initial Amount in minor units", example = "10000") BigDecimal amount
 ) {
 
 }
@@ -0,0 +1,70 @@
+package com.cubeia.bookkeeping.wallet;
+
+import com.cubeia.bookkeeping.api.Cursor;
+import com.cubeia.bookkeeping.api.Page;
+import com.cubeia.bookkeeping.id.Uuids;
+import jakarta.validation.Valid;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux counterpart of {@link WalletController}, active with the {@code reactive} profile.
+ */
+@RestController
+@RequestMapping("/wallets")
+@Profile("reactive")
+public class ReactiveWalletController {
+
+  private final ReactiveWalletService walletService;
+
+  public ReactiveWalletController(ReactiveWalletService walletService) {
+    this.walletService = walletService;
+  }
+
+  @PostMapping
+  public Mono<CreateWalletOutput> createWallet(@RequestBody @Valid CreateWalletInput input) {
+    return walletService.createWallet(
+        new Wallet.WalletBuilder()
+          .id(Uuids.next())
+          .email(input.email())
+          .balance(input.amount().longValueExact())
+          .build()
+      )
+      .map(CreateWalletOutput::new);
+  }
+
+  @GetMapping
+  public Mono<ResponseEntity<List<Wallet>>> getWallets(@Valid Page page) {
+    return walletService.getWallets(page.limit(), page.offset(), page.afterCursor())
+      .collectList()
+      .map(wallets -> page.toResponse(
+        wallets,
+        wallet -> new Cursor(wallet.createdAt(), wallet.id())
+      ));
+  }
+
+  @GetMapping("/{walletId}/balance")
+  public Mono<WalletBalance> getWalletBalance(@PathVariable UUID walletId) {
+    return walletService.getWalletBalance(walletId)
+      .map(balance -> new WalletBalance(walletId, BigDecimal.valueOf(balance)));
+  }
+
+  @PutMapping("/{walletId}/shards")
+  public Mono<WalletBalance> shardWallet(@PathVariable UUID walletId,
+    @RequestBody @Valid ShardWalletInput input) {
+    return walletService.shardWallet(walletId, input.shards())
+      .map(wallet -> new WalletBalance(walletId, BigDecimal.valueOf(wallet.balance())));
+  }
+
+}
@@ -0,0 +1,89 @@
+package com.cubeia.bookkeeping.wallet;
+
+import static com.cubeia.bookkeeping.wallet.WalletRepository.WALLET_COLUMNS;
+
+import com.cubeia.bookkeeping.api.Cursor;
+import com.cubeia.bookkeeping.api.Page;
+import io.r2dbc.spi.Readable;
+import java.time.Instant;
+import java.util.UUID;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2DBC counterpart of {@link WalletRepository} for the reactive stack.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveWalletRepository {
+
+  private final DatabaseClient databaseClient;
+
+  public ReactiveWalletRepository(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+  }
+
+  private static Wallet mapWallet(Readable row) {
+    return new Wallet.WalletBuilder()
+      .id(row.get("id", UUID.class))
+      .email(row.get("email", String.class))
+      .balance(row.get("balance", Long.class))
+      .shardCount(row.get("shard_count", Integer.class))
+      .createdAt(row.get("created_at", Instant.class))
+      .build();
+  }
+
+  /**
+   * @return the id of the wallet, empty when a wallet with the email already exists
+   * @see WalletRepository#CREATE_WALLET
+   */
+  public Mono<UUID> createWallet(Wallet wallet, UUID transactionId, UUID ledgerId) {
+    return databaseClient.sql(WalletRepository.CREATE_WALLET)
+      .bind("id", wallet.id())
+      .bind("email", wallet.email())
+      .bind("balance", wallet.balance())
+      .bind("transactionId", transactionId)
+      .bind("ledgerId", ledgerId)
+      .map(row -> row.get("wallet_id", UUID.class))
+      .one();
+  }
+
+  public Flux<Wallet> getWallets(Integer limit, Integer offset, Cursor after) {
+    if (limit == null || limit <= 0) {
+      limit = Page.DEFAULT_LIMIT;
+    }
+    if (after != null) {
+      String sql = "SELECT " + WALLET_COLUMNS + " FROM mng.wallet w "
+        + "WHERE (w.created_at, w.id) < (:createdAt, :id) "
+        + "ORDER BY w.created_at DESC, w.id DESC LIMIT :limit";
+      return databaseClient.sql(sql)
+        .bind("createdAt", after.createdAtParam())
+        .bind("id", after.id())
+        .bind("limit", limit)
+        .map(ReactiveWalletRepository::mapWallet)
+        .all();
+    }
+    if (offset == null || offset < 0) {
+      offset = 0;
+    }
+    String sql = "SELECT " + WALLET_COLUMNS + " FROM mng.wallet w "
+      + "ORDER BY w.created_at DESC, w.id DESC LIMIT :limit OFFSET :offset";
+    return databaseClient.sql(sql)
+      .bind("limit", limit)
+      .bind("offset", offset)
+      .map(ReactiveWalletRepository::mapWallet)
+      .all();
+  }
+
+  public Mono<Wallet> getWalletById(UUID id) {
+    String sql = "SELECT " + WALLET_COLUMNS + " FROM mng.wallet w WHERE w.id = :id";
+    return databaseClient.sql(sql)
+      .bind("id", id)
+      .map(ReactiveWalletRepository::mapWallet)
+      .one();
+  }
+
+}
@@ -0,0 +1,50 @@
+package com.cubeia.bookkeeping.wallet;
+
+import com.cubeia.bookkeeping.api.Cursor;
+import com.cubeia.bookkeeping.exception.NotFoundException;
+import com.cubeia.bookkeeping.exception.UniqueException;
+import com.cubeia.bookkeeping.id.Uuids;
+import java.util.UUID;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactive counterpart of {@link WalletService}.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveWalletService {
+
+  private final ReactiveWalletRepository walletRepository;
+  private final WalletShardService walletShardService;
+
+  public ReactiveWalletService(ReactiveWalletRepository walletRepository,
+    WalletShardService walletShardService) {
+    this.walletRepository = walletRepository;
+    this.walletShardService = walletShardService;
+  }
+
+  public Mono<UUID> createWallet(Wallet wallet) {
+    return walletRepository.createWallet(wallet, Uuids.next(), Uuids.next())
+      .switchIfEmpty(Mono.error(() -> new UniqueException("Wallet with email already exists")));
+  }
+
+  public Flux<Wallet> getWallets(Integer limit, Integer offset, Cursor after) {
+    return walletRepository.getWallets(limit, offset, after);
+  }
+
+  public Mono<Long> getWalletBalance(UUID id) {
+    return walletRepository.getWalletById(id)
+      .map(Wallet::balance)
+      .switchIfEmpty(Mono.error(() -> new NotFoundException("Wallet not found: " + id)));
+  }
+
+  public Mono<Wallet> shardWallet(UUID id, int shards) {
+    return Mono.fromCallable(() -> walletShardService.shardWallet(id, shards))
+      .subscribeOn(Schedulers.boundedElastic());
+  }
+
+}
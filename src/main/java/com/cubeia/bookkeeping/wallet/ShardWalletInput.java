@@ -0,0 +1,16 @@
+package com.cubeia.bookkeeping.wallet;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public record ShardWalletInput(
+  @NotNull
+  @Min(0)
+  @Max(64)
+  @Schema(description = "Number of sub-balances to split the wallet into, 0 to merge them back", example = "8")
+  Integer shards
+) {
+
+}
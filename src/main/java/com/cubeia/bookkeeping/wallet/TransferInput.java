@@ -1,6 +1,7 @@
 package com.cubeia.bookkeeping.wallet;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
@@ -15,7 +16,8 @@ public record TransferInput(
   UUID toId,
   @NotNull
   @Min(1)
-  @Schema(description = "Amount to transfer", example = "100.00")
+  @Digits(integer = 18, fraction = 0)
+  @Schema(description = "Amount to transfer in minor units", example = "10000")
   BigDecimal amount
 ) {
 
@@ -1,13 +1,13 @@
 package com.cubeia.bookkeeping.wallet;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
 public record Wallet(
   UUID id,
   String email,
-  BigDecimal balance,
+  long balance,
+  int shardCount,
   Instant createdAt
 ) {
 
@@ -16,7 +16,8 @@ public record Wallet(
 
     private UUID id;
     private String email;
-    private BigDecimal balance;
+    private long balance;
+    private int shardCount;
     private Instant createdAt;
 
     public WalletBuilder() {
@@ -26,6 +27,7 @@ public record Wallet(
       this.id = other.id();
       this.email = other.email();
       this.balance = other.balance();
+      this.shardCount = other.shardCount();
       this.createdAt = other.createdAt();
     }
 
@@ -43,18 +45,23 @@ public record Wallet(
       return this;
     }
 
-    public WalletBuilder balance(BigDecimal balance) {
+    public WalletBuilder balance(long balance) {
       this.balance = balance;
       return this;
     }
 
+    public WalletBuilder shardCount(int shardCount) {
+      this.shardCount = shardCount;
+      return this;
+    }
+
     public WalletBuilder createdAt(Instant createdAt) {
       this.createdAt = createdAt;
       return this;
     }
 
     public Wallet build() {
-      return new Wallet(id, email, balance, createdAt);
+      return new Wallet(id, email, balance, shardCount, createdAt);
     }
   }
 }
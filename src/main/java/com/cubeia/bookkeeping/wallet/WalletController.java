@@ -1,26 +1,40 @@
 package com.cubeia.bookkeeping.wallet;
 
+import com.cubeia.bookkeeping.api.Cursor;
 import com.cubeia.bookkeeping.api.Page;
-import com.fasterxml.uuid.Generators;
+import com.cubeia.bookkeeping.id.Uuids;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @RequestMapping("/wallets")
+@Profile("!reactive")
 public class WalletController {
 
   private final WalletService walletService;
+  private final WalletShardService walletShardService;
+  private final WalletImportService walletImportService;
 
-  public WalletController(WalletService walletService) {
+  public WalletController(WalletService walletService, WalletShardService walletShardService,
+    WalletImportService walletImportService) {
     this.walletService = walletService;
+    this.walletShardService = walletShardService;
+    this.walletImportService = walletImportService;
   }
 
   @PostMapping
@@ -28,28 +42,67 @@ public class WalletController {
   public CreateWalletOutput createWallet(@RequestBody @Valid CreateWalletInput input) {
     var id = walletService.createWallet(
       new Wallet.WalletBuilder()
-        .id(Generators.timeBasedEpochRandomGenerator().generate())
+        .id(Uuids.next())
         .email(input.email())
-        .balance(input.amount())
+        .balance(input.amount().longValueExact())
         .build()
     );
     return new CreateWalletOutput(id);
   }
 
+  @PostMapping(value = "/import", consumes = "text/csv")
+  @Operation(
+    description = "Create wallets in bulk from 'email,amount' lines, with an optional header line. "
+      + "Invalid lines, emails repeated in the file and emails that already have a wallet are "
+      + "rejected and reported, the other wallets are created.",
+    summary = "Import wallets from CSV"
+  )
+  public WalletImportOutput importWalletsCsv(InputStream body) throws IOException {
+    return walletImportService.importWallets(WalletImportFormat.CSV, body);
+  }
+
+  @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  @Operation(
+    description = "Create wallets in bulk from one {\"email\": ..., \"amount\": ...} object per line. "
+      + "Invalid lines, emails repeated in the file and emails that already have a wallet are "
+      + "rejected and reported, the other wallets are created.",
+    summary = "Import wallets from NDJSON"
+  )
+  public WalletImportOutput importWalletsNdjson(InputStream body) throws IOException {
+    return walletImportService.importWallets(WalletImportFormat.NDJSON, body);
+  }
+
   @GetMapping
-  @Operation(description = "Get all wallets", summary = "Get all wallets")
-  public List<Wallet> getWallets(
+  @Operation(
+    description = "Get all wallets. Pass the X-Next-Cursor response header as 'after' to get the next page.",
+    summary = "Get all wallets"
+  )
+  public ResponseEntity<List<Wallet>> getWallets(
     @Valid Page page
   ) {
-    return walletService.getWallets(page.limit(), page.offset());
+    return page.toResponse(
+      walletService.getWallets(page.limit(), page.offset(), page.afterCursor()),
+      wallet -> new Cursor(wallet.createdAt(), wallet.id())
+    );
   }
 
   @GetMapping("/{walletId}/balance")
   @Operation(description = "Get wallet balance by ID", summary = "Get wallet balance by ID")
   public WalletBalance getWalletBalance(@PathVariable UUID walletId) {
-    var wallet = walletService.getWalletById(walletId, false);
-    return new WalletBalance(walletId, wallet.balance());
+    return new WalletBalance(walletId,
+      BigDecimal.valueOf(walletService.getWalletBalance(walletId)));
   }
 
+  @PutMapping("/{walletId}/shards")
+  @Operation(
+    description = "Split the balance of a hot wallet into sub-balances so that concurrent transfers "
+      + "do not serialize on a single row. Use 0 shards to merge the sub-balances back.",
+    summary = "Shard wallet balance"
+  )
+  public WalletBalance shardWallet(@PathVariable UUID walletId,
+    @RequestBody @Valid ShardWalletInput input) {
+    var wallet = walletShardService.shardWallet(walletId, input.shards());
+    return new WalletBalance(walletId, BigDecimal.valueOf(wallet.balance()));
+  }
 
 }
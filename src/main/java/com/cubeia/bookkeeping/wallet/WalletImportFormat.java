@@ -0,0 +1,15 @@
+package com.cubeia.bookkeeping.wallet;
+
+public enum WalletImportFormat {
+
+  /**
+   * {@code email,amount} per line, with an optional header line.
+   */
+  CSV,
+
+  /**
+   * One JSON object with {@code email} and {@code amount} fields per line.
+   */
+  NDJSON
+
+}
@@ -0,0 +1,15 @@
+package com.cubeia.bookkeeping.wallet;
+
+import java.util.List;
+
+/**
+ * @param rejections the first rejected lines in file order, at most
+ *                   {@link WalletImportProperties#maxReportedRejections()} of them
+ */
+public record WalletImportOutput(
+  long imported,
+  long rejected,
+  List<WalletImportRejection> rejections
+) {
+
+}
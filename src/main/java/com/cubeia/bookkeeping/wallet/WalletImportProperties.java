@@ -0,0 +1,15 @@
+package com.cubeia.bookkeeping.wallet;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param maxReportedRejections rejected lines listed in the import response, the count of
+ *                              rejected lines is always complete
+ */
+@ConfigurationProperties(prefix = "bookkeeping.wallet-import")
+public record WalletImportProperties(
+  @DefaultValue("1000") int maxReportedRejections
+) {
+
+}
@@ -0,0 +1,125 @@
+package com.cubeia.bookkeeping.wallet;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the lines of a wallet import one at a time, so that the upload never has to fit in
+ * memory. Blank lines are skipped but counted, {@link ImportLine#line()} is the line number in
+ * the uploaded file.
+ */
+final class WalletImportReader implements Closeable {
+
+  private final WalletImportFormat format;
+  private final BufferedReader reader;
+  private final JsonFactory jsonFactory;
+  private long lineNumber;
+
+  WalletImportReader(WalletImportFormat format, InputStream inputStream,
+    JsonFactory jsonFactory) {
+    this.format = format;
+    this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8),
+      64 * 1024);
+    this.jsonFactory = jsonFactory;
+  }
+
+  /**
+   * @return the next line, or {@code null} at the end of the input
+   */
+  ImportLine next() throws IOException {
+    String text;
+    while ((text = reader.readLine()) != null) {
+      lineNumber++;
+      if (text.isBlank()) {
+        continue;
+      }
+      var line = switch (format) {
+        case CSV -> parseCsv(text);
+        case NDJSON -> parseJson(text);
+      };
+      if (lineNumber == 1 && format == WalletImportFormat.CSV
+        && "email".equalsIgnoreCase(line.email()) && "amount".equalsIgnoreCase(line.amount())) {
+        continue;
+      }
+      return line;
+    }
+    return null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  /**
+   * Emails cannot contain an unquoted comma, so the amount is whatever follows the last one.
+   */
+  private ImportLine parseCsv(String text) {
+    int comma = text.lastIndexOf(',');
+    if (comma < 0) {
+      return ImportLine.malformed(lineNumber);
+    }
+    return new ImportLine(lineNumber, unquote(text.substring(0, comma)),
+      unquote(text.substring(comma + 1)), false);
+  }
+
+  private ImportLine parseJson(String text) throws IOException {
+    String email = null;
+    String amount = null;
+    try (JsonParser parser = jsonFactory.createParser(text)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return ImportLine.malformed(lineNumber);
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        var name = parser.currentName();
+        var token = parser.nextToken();
+        if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+          switch (name) {
+            case "email" -> email = parser.getText();
+            case "amount" -> amount = parser.getText();
+            default -> {
+            }
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+      if (parser.currentToken() != JsonToken.END_OBJECT) {
+        return ImportLine.malformed(lineNumber);
+      }
+    } catch (JsonProcessingException e) {
+      return ImportLine.malformed(lineNumber);
+    }
+    return new ImportLine(lineNumber, email, amount, false);
+  }
+
+  private static String unquote(String value) {
+    value = value.strip();
+    if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+      return value.substring(1, value.length() - 1).replace("\"\"", "\"");
+    }
+    return value.isEmpty() ? null : value;
+  }
+
+  record ImportLine(
+    long line,
+    String email,
+    String amount,
+    boolean malformed
+  ) {
+
+    static ImportLine malformed(long line) {
+      return new ImportLine(line, null, null, true);
+    }
+
+  }
+
+}
@@ -0,0 +1,9 @@
+package com.cubeia.bookkeeping.wallet;
+
+public record WalletImportRejection(
+  long line,
+  String email,
+  String reason
+) {
+
+}
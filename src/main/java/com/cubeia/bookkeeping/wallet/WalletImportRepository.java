@@ -0,0 +1,236 @@
+package com.cubeia.bookkeeping.wallet;
+
+import io.micrometer.core.annotation.Timed;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Bulk wallet creation through a staging table. The staging table is a temporary table dropped at
+ * commit, so every method has to run in the same transaction, starting with
+ * {@link #createStagingTable()}.
+ */
+@Repository
+@Timed("bookkeeping.repository")
+public class WalletImportRepository {
+
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+  private static final String DUPLICATE_EMAIL = "Duplicate email in file";
+  private static final String EMAIL_EXISTS = "Wallet with email already exists";
+  private static final RowMapper<WalletImportRejection> REJECTION_ROW_MAPPER = (rs, rowNum) -> new WalletImportRejection(
+    rs.getLong("line"),
+    rs.getString("email"),
+    rs.getString("error")
+  );
+  private final JdbcClient jdbcClient;
+  private final JdbcTemplate jdbcTemplate;
+
+  public WalletImportRepository(JdbcClient jdbcClient, JdbcTemplate jdbcTemplate) {
+    this.jdbcClient = jdbcClient;
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public void createStagingTable() {
+    jdbcClient.sql("""
+        CREATE TEMPORARY TABLE wallet_import (
+          line BIGINT NOT NULL,
+          email TEXT,
+          balance BIGINT,
+          wallet_id UUID,
+          transaction_id UUID,
+          ledger_id UUID,
+          error TEXT
+        ) ON COMMIT DROP""")
+      .update();
+  }
+
+  /**
+   * Streams every staged wallet of {@code source} into the staging table with {@code COPY}, so
+   * that loading costs one round trip per {@value #COPY_BUFFER_SIZE} bytes instead of one per
+   * row.
+   *
+   * @return the number of staged rows
+   */
+  public long copyToStaging(StagedWalletSource source) {
+    Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+      var copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+        "COPY wallet_import (line, email, balance, wallet_id, transaction_id, ledger_id, error) "
+          + "FROM STDIN (FORMAT csv)");
+      try {
+        var buffer = new StringBuilder(COPY_BUFFER_SIZE + 1024);
+        StagedWallet wallet;
+        while ((wallet = source.next()) != null) {
+          appendCsv(buffer, wallet);
+          if (buffer.length() >= COPY_BUFFER_SIZE) {
+            write(copyIn, buffer);
+          }
+        }
+        write(copyIn, buffer);
+        return copyIn.endCopy();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } finally {
+        if (copyIn.isActive()) {
+          copyIn.cancelCopy();
+        }
+      }
+    });
+    // Temporary tables are never analyzed by autovacuum, give the planner real row counts
+    jdbcClient.sql("ANALYZE wallet_import").update();
+    return rows == null ? 0 : rows;
+  }
+
+  /**
+   * Rejects every valid row whose email appeared on an earlier valid line.
+   */
+  public int rejectDuplicateEmails() {
+    return jdbcClient.sql("""
+        UPDATE wallet_import i SET error = ?
+        FROM (
+          SELECT line, row_number() OVER (PARTITION BY email ORDER BY line) AS n
+          FROM wallet_import WHERE error IS NULL
+        ) d
+        WHERE i.line = d.line AND d.n > 1""")
+      .param(DUPLICATE_EMAIL)
+      .update();
+  }
+
+  /**
+   * Creates the wallets of all valid rows. Rows whose email is already taken, including by a
+   * wallet created concurrently, are rejected instead of failing the import.
+   *
+   * @return the number of wallets created
+   */
+  public int insertWallets() {
+    jdbcClient.sql("""
+        WITH inserted AS (
+          INSERT INTO mng.wallet (id, email, balance)
+          SELECT wallet_id, email, balance FROM wallet_import WHERE error IS NULL
+          ON CONFLICT (email) DO NOTHING
+          RETURNING id
+        )
+        UPDATE wallet_import i SET error = ?
+        WHERE i.error IS NULL AND NOT EXISTS (SELECT 1 FROM inserted WHERE inserted.id = i.wallet_id)""")
+      .param(EMAIL_EXISTS)
+      .update();
+    return jdbcClient.sql("SELECT count(*) FROM wallet_import WHERE error IS NULL")
+      .query(Integer.class)
+      .single();
+  }
+
+  /**
+   * Records the opening balance of every created wallet as a transaction with its ledger entry,
+   * the same way a single wallet creation does.
+   */
+  public void insertOpeningTransactions() {
+    jdbcClient.sql("""
+        INSERT INTO txn.transaction (id, from_id, to_id, amount)
+        SELECT transaction_id, NULL, wallet_id, balance FROM wallet_import WHERE error IS NULL""")
+      .update();
+    jdbcClient.sql("""
+        INSERT INTO gnl.ledger (id, transaction_id, wallet_id, amount, running_balance)
+        SELECT ledger_id, transaction_id, wallet_id, balance, balance FROM wallet_import WHERE error IS NULL""")
+      .update();
+  }
+
+  public long countRejected() {
+    return jdbcClient.sql("SELECT count(*) FROM wallet_import WHERE error IS NOT NULL")
+      .query(Long.class)
+      .single();
+  }
+
+  public List<WalletImportRejection> getRejections(int limit) {
+    return jdbcClient.sql(
+        "SELECT line, email, error FROM wallet_import WHERE error IS NOT NULL ORDER BY line LIMIT ?")
+      .param(limit)
+      .query(REJECTION_ROW_MAPPER)
+      .list();
+  }
+
+  private static void write(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+    if (buffer.isEmpty()) {
+      return;
+    }
+    var bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+    copyIn.writeToCopy(bytes, 0, bytes.length);
+    buffer.setLength(0);
+  }
+
+  private static void appendCsv(StringBuilder buffer, StagedWallet wallet) {
+    buffer.append(wallet.line()).append(',');
+    appendQuoted(buffer, wallet.email());
+    buffer.append(',');
+    if (wallet.balance() != null) {
+      buffer.append(wallet.balance().longValue());
+    }
+    buffer.append(',');
+    appendId(buffer, wallet.walletId());
+    buffer.append(',');
+    appendId(buffer, wallet.transactionId());
+    buffer.append(',');
+    appendId(buffer, wallet.ledgerId());
+    buffer.append(',');
+    appendQuoted(buffer, wallet.error());
+    buffer.append('\n');
+  }
+
+  /**
+   * An unquoted empty field is NULL in CSV mode, a quoted one is an empty string.
+   */
+  private static void appendQuoted(StringBuilder buffer, String value) {
+    if (value == null) {
+      return;
+    }
+    buffer.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"') {
+        buffer.append('"');
+      }
+      buffer.append(c);
+    }
+    buffer.append('"');
+  }
+
+  private static void appendId(StringBuilder buffer, UUID id) {
+    if (id != null) {
+      buffer.append(id);
+    }
+  }
+
+  /**
+   * A row of the staging table. Rejected rows carry the {@code error} and no ids.
+   */
+  public record StagedWallet(
+    long line,
+    String email,
+    Long balance,
+    UUID walletId,
+    UUID transactionId,
+    UUID ledgerId,
+    String error
+  ) {
+
+  }
+
+  @FunctionalInterface
+  public interface StagedWalletSource {
+
+    /**
+     * @return the next row to stage, or {@code null} when there are no more
+     */
+    StagedWallet next() throws IOException;
+
+  }
+
+}
@@ -0,0 +1,96 @@
+package com.cubeia.bookkeeping.wallet;
+
+import com.cubeia.bookkeeping.id.Uuids;
+import com.cubeia.bookkeeping.wallet.WalletImportReader.ImportLine;
+import com.cubeia.bookkeeping.wallet.WalletImportRepository.StagedWallet;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Comparator;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Transactional
+public class WalletImportService {
+
+  private static final Comparator<ConstraintViolation<?>> BY_PROPERTY = Comparator.comparing(
+    violation -> violation.getPropertyPath().toString());
+
+  private final WalletImportRepository walletImportRepository;
+  private final WalletImportProperties importProperties;
+  private final Validator validator;
+  private final ObjectMapper objectMapper;
+
+  public WalletImportService(WalletImportRepository walletImportRepository,
+    WalletImportProperties importProperties, Validator validator, ObjectMapper objectMapper) {
+    this.walletImportRepository = walletImportRepository;
+    this.importProperties = importProperties;
+    this.validator = validator;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Creates a wallet with its opening transaction for every valid line of {@code inputStream}.
+   * Each line is validated like a single {@code POST /wallets}, then all lines are copied into a
+   * staging table and duplicate or already registered emails are rejected set-wise, so that
+   * neither the file nor the result has to fit in memory. Rejected lines do not fail the import;
+   * the whole import is still one transaction.
+   */
+  public WalletImportOutput importWallets(WalletImportFormat format, InputStream inputStream)
+    throws IOException {
+    walletImportRepository.createStagingTable();
+    try (var reader = new WalletImportReader(format, inputStream, objectMapper.getFactory())) {
+      walletImportRepository.copyToStaging(() -> {
+        var line = reader.next();
+        return line == null ? null : stage(line);
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+
+    walletImportRepository.rejectDuplicateEmails();
+    long imported = walletImportRepository.insertWallets();
+    walletImportRepository.insertOpeningTransactions();
+
+    return new WalletImportOutput(
+      imported,
+      walletImportRepository.countRejected(),
+      walletImportRepository.getRejections(importProperties.maxReportedRejections())
+    );
+  }
+
+  private StagedWallet stage(ImportLine line) {
+    if (line.malformed()) {
+      return rejected(line, "Malformed line");
+    }
+
+    BigDecimal amount = null;
+    if (line.amount() != null) {
+      try {
+        amount = new BigDecimal(line.amount());
+      } catch (NumberFormatException e) {
+        return rejected(line, "amount: must be a number");
+      }
+    }
+
+    var violation = validator.validate(new CreateWalletInput(line.email(), amount)).stream()
+      .min(BY_PROPERTY);
+    if (violation.isPresent()) {
+      return rejected(line,
+        violation.get().getPropertyPath() + ": " + violation.get().getMessage());
+    }
+
+    return new StagedWallet(line.line(), line.email(), amount.longValueExact(), Uuids.next(),
+      Uuids.next(), Uuids.next(), null);
+  }
+
+  private static StagedWallet rejected(ImportLine line, String error) {
+    return new StagedWallet(line.line(), line.email(), null, null, null, null, error);
+  }
+
+}
@@ -1,53 +1,93 @@
 package com.cubeia.bookkeeping.wallet;
 
-import java.math.BigDecimal;
+import com.cubeia.bookkeeping.api.Cursor;
+import com.cubeia.bookkeeping.api.Page;
+import io.micrometer.core.annotation.Timed;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.simple.JdbcClient;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 @Repository
+@Timed("bookkeeping.repository")
 public class WalletRepository {
 
   private static final RowMapper<Wallet> WALLET_ROW_MAPPER = (rs, rowNum) -> new Wallet.WalletBuilder()
     .id(rs.getObject("id", UUID.class))
     .email(rs.getString("email"))
-    .balance(rs.getBigDecimal("balance"))
+    .balance(rs.getLong("balance"))
+    .shardCount(rs.getInt("shard_count"))
     .createdAt(rs.getTimestamp("created_at").toInstant())
     .build();
-  private static final RowMapper<BigDecimal> BALANCE_ROW_MAPPER = (rs, rowNum) -> rs.getBigDecimal(
+  private static final RowMapper<Long> BALANCE_ROW_MAPPER = (rs, rowNum) -> rs.getLong(
     "balance");
+  /**
+   * The public balance of a sharded wallet is its own balance plus the sum of its shards. Expects
+   * the wallet as {@code w}.
+   */
+  public static final String BALANCE = "CASE WHEN w.shard_count = 0 THEN w.balance ELSE w.balance + "
+    + "(SELECT COALESCE(SUM(s.balance), 0)::BIGINT FROM mng.wallet_shard s WHERE s.wallet_id = w.id) END";
+  static final String WALLET_COLUMNS = "w.id, w.email, w.shard_count, w.created_at, "
+    + BALANCE + " AS balance";
+  /**
+   * Creates the wallet together with its opening transaction and ledger entry in one statement.
+   * A wallet whose email is taken is not inserted, and then neither is anything that depends on
+   * it, so there is no check before the insert for a concurrent signup to slip past.
+   */
+  static final String CREATE_WALLET = """
+    WITH wallet AS (
+      INSERT INTO mng.wallet (id, email, balance) VALUES (:id, :email, :balance)
+      ON CONFLICT (email) DO NOTHING
+      RETURNING id, balance
+    ), opening AS (
+      INSERT INTO txn.transaction (id, from_id, to_id, amount)
+      SELECT :transactionId, NULL, id, balance FROM wallet
+      RETURNING id, to_id, amount, created_at
+    )
+    INSERT INTO gnl.ledger (id, transaction_id, wallet_id, amount, running_balance, created_at)
+    SELECT :ledgerId, id, to_id, amount, amount, created_at FROM opening
+    RETURNING wallet_id""";
   private final JdbcClient jdbcClient;
 
   public WalletRepository(JdbcClient jdbcClient) {
     this.jdbcClient = jdbcClient;
   }
 
-  public UUID createWallet(Wallet wallet) {
-    KeyHolder keyHolder = new GeneratedKeyHolder();
-    String sql = "INSERT INTO mng.wallet (id, email, balance) VALUES (?, ?, ?)";
-    jdbcClient.sql(sql)
-      .param(wallet.id())
-      .param(wallet.email())
-      .param(wallet.balance())
-      .update(
-        keyHolder, "id"
-      );
-    return keyHolder.getKeyAs(UUID.class);
+  /**
+   * @return the id of the wallet, empty when a wallet with the email already exists
+   */
+  public Optional<UUID> createWallet(Wallet wallet, UUID transactionId, UUID ledgerId) {
+    return jdbcClient.sql(CREATE_WALLET)
+      .param("id", wallet.id())
+      .param("email", wallet.email())
+      .param("balance", wallet.balance())
+      .param("transactionId", transactionId)
+      .param("ledgerId", ledgerId)
+      .query(UUID.class)
+      .optional();
   }
 
-  public List<Wallet> getWallets(Integer limit, Integer offset) {
+  public List<Wallet> getWallets(Integer limit, Integer offset, Cursor after) {
     if (limit == null || limit <= 0) {
-      limit = 10;
+      limit = Page.DEFAULT_LIMIT;
+    }
+    if (after != null) {
+      String sql = "SELECT " + WALLET_COLUMNS + " FROM mng.wallet w "
+        + "WHERE (w.created_at, w.id) < (?, ?) "
+        + "ORDER BY w.created_at DESC, w.id DESC LIMIT ?";
+      return jdbcClient.sql(sql)
+        .param(after.createdAtParam())
+        .param(after.id())
+        .param(limit)
+        .query(WALLET_ROW_MAPPER)
+        .list();
     }
     if (offset == null || offset < 0) {
       offset = 0;
     }
-    String sql = "SELECT id, email, balance, created_at FROM mng.wallet ORDER BY created_at DESC LIMIT ? OFFSET ?";
+    String sql = "SELECT " + WALLET_COLUMNS + " FROM mng.wallet w ORDER BY w.created_at DESC, w.id DESC LIMIT ? OFFSET ?";
     return jdbcClient.sql(sql)
       .param(limit)
       .param(offset)
@@ -56,7 +96,7 @@ public class WalletRepository {
   }
 
   public Wallet getWalletById(UUID id, boolean rowLock) {
-    String sql = "SELECT id, email, balance, created_at FROM mng.wallet WHERE id = ?"
+    String sql = "SELECT " + WALLET_COLUMNS + " FROM mng.wallet w WHERE w.id = ?"
       + (rowLock ? " FOR UPDATE" : "");
     return jdbcClient.sql(sql)
       .param(id)
@@ -64,21 +104,76 @@ public class WalletRepository {
       .optional().orElse(null);
   }
 
-  public BigDecimal adjustBalance(UUID id, BigDecimal amount) {
-    String sql = "UPDATE mng.wallet SET balance = balance + ? WHERE id = ? returning balance";
+  /**
+   * Locks the row of an unsharded wallet. Sharded wallets are returned without locking their row,
+   * their funds are guarded by the locks on the individual shards instead.
+   */
+  public Wallet lockWallet(UUID id) {
+    String sql = "SELECT id, email, balance, shard_count, created_at FROM mng.wallet WHERE id = ? AND shard_count = 0 FOR UPDATE";
+    var wallet = jdbcClient.sql(sql)
+      .param(id)
+      .query(WALLET_ROW_MAPPER)
+      .optional().orElse(null);
+    if (wallet != null) {
+      return wallet;
+    }
+    return getWalletById(id, false);
+  }
+
+  public void updateShards(UUID id, int shardCount, long balance) {
+    String sql = "UPDATE mng.wallet SET shard_count = ?, balance = ? WHERE id = ?";
+    jdbcClient.sql(sql)
+      .param(shardCount)
+      .param(balance)
+      .param(id)
+      .update();
+  }
+
+  /**
+   * Debits an unsharded wallet if it holds enough funds, without locking it first. Returns the new
+   * balance, or empty if the wallet does not exist, is sharded or does not hold enough funds.
+   */
+  public Optional<Long> debitIfSufficient(UUID id, long amount) {
+    String sql = "UPDATE mng.wallet SET balance = balance - ? WHERE id = ? AND shard_count = 0 AND balance >= ? returning balance";
     return jdbcClient.sql(sql)
       .param(amount)
       .param(id)
+      .param(amount)
       .query(BALANCE_ROW_MAPPER)
-      .single();
+      .optional();
   }
 
-  public Optional<Wallet> getWalletByEmail(String email) {
-    String sql = "SELECT id, email, balance, created_at FROM mng.wallet WHERE email = ?";
+  /**
+   * Credits an unsharded wallet. Returns the new balance, or empty if the wallet does not exist or
+   * is sharded.
+   */
+  public Optional<Long> creditUnsharded(UUID id, long amount) {
+    String sql = "UPDATE mng.wallet SET balance = balance + ? WHERE id = ? AND shard_count = 0 returning balance";
     return jdbcClient.sql(sql)
-      .param(email)
-      .query(WALLET_ROW_MAPPER)
+      .param(amount)
+      .param(id)
+      .query(BALANCE_ROW_MAPPER)
       .optional();
   }
 
+  /**
+   * Takes a transaction scoped advisory lock on the wallet id, whether or not the wallet exists.
+   * Ids are hashed to 64 bit keys, a collision only serializes two unrelated wallets.
+   */
+  public void advisoryLock(UUID id) {
+    jdbcClient.sql("SELECT pg_advisory_xact_lock(hashtextextended(?::text, 0))")
+      .param(id)
+      .query()
+      .listOfRows();
+  }
+
+  public long adjustBalance(UUID id, long amount) {
+    String sql = "UPDATE mng.wallet SET balance = balance + ? WHERE id = ? returning balance";
+    return jdbcClient.sql(sql)
+      .param(amount)
+      .param(id)
+      .query(BALANCE_ROW_MAPPER)
+      .single();
+  }
+
 }
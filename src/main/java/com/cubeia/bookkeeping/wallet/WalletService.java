@@ -1,51 +1,54 @@
 package com.cubeia.bookkeeping.wallet;
 
+import com.cubeia.bookkeeping.api.Cursor;
+import com.cubeia.bookkeeping.cache.ReadCacheProperties;
+import com.cubeia.bookkeeping.cache.ReadThroughCache;
 import com.cubeia.bookkeeping.exception.NotFoundException;
 import com.cubeia.bookkeeping.exception.UniqueException;
-import com.cubeia.bookkeeping.transaction.Transaction;
-import com.cubeia.bookkeeping.transaction.TransactionProcessor;
-import com.fasterxml.uuid.Generators;
-import java.math.BigDecimal;
+import com.cubeia.bookkeeping.id.Uuids;
+import com.cubeia.bookkeeping.transaction.WalletsChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 @Service
 @Transactional
 public class WalletService {
 
   private final WalletRepository walletRepository;
-  private final TransactionProcessor transactionProcessor;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ReadThroughCache<UUID, Long> balances;
 
   public WalletService(WalletRepository walletRepository,
-    TransactionProcessor transactionProcessor) {
+    ApplicationEventPublisher eventPublisher, ReadCacheProperties readCacheProperties,
+    MeterRegistry meterRegistry) {
     this.walletRepository = walletRepository;
-    this.transactionProcessor = transactionProcessor;
+    this.eventPublisher = eventPublisher;
+    this.balances = new ReadThroughCache<>(
+      "wallet.balance",
+      readCacheProperties.balanceSize(),
+      readCacheProperties.ttl(),
+      readCacheProperties.enabled(),
+      meterRegistry
+    );
   }
 
   public UUID createWallet(Wallet wallet) {
-    if (walletRepository.getWalletByEmail(wallet.email()).isPresent()) {
-      throw new UniqueException("Wallet with email already exists");
-    }
-
-    var id = walletRepository.createWallet(wallet);
-
-    transactionProcessor.createTransaction(
-      new Transaction.TransactionBuilder()
-        .id(Generators.timeBasedEpochRandomGenerator().generate())
-        .toId(id)
-        .amount(wallet.balance())
-        .build(),
-      true
-    );
-
+    var id = walletRepository.createWallet(wallet, Uuids.next(), Uuids.next())
+      .orElseThrow(() -> new UniqueException("Wallet with email already exists"));
+    eventPublisher.publishEvent(new WalletsChangedEvent(Set.of(id)));
     return id;
   }
 
   @Transactional(readOnly = true)
-  public List<Wallet> getWallets(Integer limit, Integer offset) {
-    return walletRepository.getWallets(limit, offset);
+  public List<Wallet> getWallets(Integer limit, Integer offset, Cursor after) {
+    return walletRepository.getWallets(limit, offset, after);
   }
 
   @Transactional(readOnly = true)
@@ -57,7 +60,28 @@ public class WalletService {
     return wallet;
   }
 
-  public BigDecimal adjustBalance(UUID id, BigDecimal amount) {
+  /**
+   * Served from memory when possible, a cache hit does not open a transaction.
+   */
+  @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+  public long getWalletBalance(UUID id) {
+    var balance = balances.get(id, walletId -> {
+      var wallet = walletRepository.getWalletById(walletId, false);
+      return wallet == null ? null : wallet.balance();
+    });
+    if (balance == null) {
+      throw new NotFoundException("Wallet not found: " + id);
+    }
+    return balance;
+  }
+
+  @TransactionalEventListener
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public void onWalletsChanged(WalletsChangedEvent event) {
+    event.walletIds().forEach(balances::invalidate);
+  }
+
+  public long adjustBalance(UUID id, long amount) {
     return walletRepository.adjustBalance(id, amount);
   }
 
@@ -0,0 +1,11 @@
+package com.cubeia.bookkeeping.wallet;
+
+import java.util.UUID;
+
+public record WalletShard(
+  UUID walletId,
+  int shard,
+  long balance
+) {
+
+}
@@ -0,0 +1,92 @@
+package com.cubeia.bookkeeping.wallet;
+
+import io.micrometer.core.annotation.Timed;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@Timed("bookkeeping.repository")
+public class WalletShardRepository {
+
+  private static final RowMapper<WalletShard> WALLET_SHARD_ROW_MAPPER = (rs, rowNum) -> new WalletShard(
+    rs.getObject("wallet_id", UUID.class),
+    rs.getInt("shard"),
+    rs.getLong("balance")
+  );
+  private static final RowMapper<Long> BALANCE_ROW_MAPPER = (rs, rowNum) -> rs.getLong(
+    "balance");
+  private final JdbcClient jdbcClient;
+
+  public WalletShardRepository(JdbcClient jdbcClient) {
+    this.jdbcClient = jdbcClient;
+  }
+
+  public void createShard(UUID walletId, int shard, long balance) {
+    String sql = "INSERT INTO mng.wallet_shard (wallet_id, shard, balance) VALUES (?, ?, ?)";
+    jdbcClient.sql(sql)
+      .param(walletId)
+      .param(shard)
+      .param(balance)
+      .update();
+  }
+
+  public void deleteShards(UUID walletId) {
+    String sql = "DELETE FROM mng.wallet_shard WHERE wallet_id = ?";
+    jdbcClient.sql(sql)
+      .param(walletId)
+      .update();
+  }
+
+  /**
+   * Locks all shards of a wallet in shard order.
+   */
+  public List<WalletShard> lockShards(UUID walletId) {
+    String sql = "SELECT wallet_id, shard, balance FROM mng.wallet_shard WHERE wallet_id = ? ORDER BY shard FOR UPDATE";
+    return jdbcClient.sql(sql)
+      .param(walletId)
+      .query(WALLET_SHARD_ROW_MAPPER)
+      .list();
+  }
+
+  /**
+   * Debits a shard if it holds enough funds. Returns the new shard balance, or empty if the shard
+   * does not hold enough funds or no longer exists.
+   */
+  public Optional<Long> debit(UUID walletId, int shard, long amount) {
+    String sql = "UPDATE mng.wallet_shard SET balance = balance - ? WHERE wallet_id = ? AND shard = ? AND balance >= ? returning balance";
+    return jdbcClient.sql(sql)
+      .param(amount)
+      .param(walletId)
+      .param(shard)
+      .param(amount)
+      .query(BALANCE_ROW_MAPPER)
+      .optional();
+  }
+
+  /**
+   * Credits a shard. Returns the new shard balance, or empty if the shard no longer exists.
+   */
+  public Optional<Long> credit(UUID walletId, int shard, long amount) {
+    String sql = "UPDATE mng.wallet_shard SET balance = balance + ? WHERE wallet_id = ? AND shard = ? returning balance";
+    return jdbcClient.sql(sql)
+      .param(amount)
+      .param(walletId)
+      .param(shard)
+      .query(BALANCE_ROW_MAPPER)
+      .optional();
+  }
+
+  public void setBalance(UUID walletId, int shard, long balance) {
+    String sql = "UPDATE mng.wallet_shard SET balance = ? WHERE wallet_id = ? AND shard = ?";
+    jdbcClient.sql(sql)
+      .param(balance)
+      .param(walletId)
+      .param(shard)
+      .update();
+  }
+
+}
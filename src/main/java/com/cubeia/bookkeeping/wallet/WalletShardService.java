@@ -0,0 +1,159 @@
+package com.cubeia.bookkeeping.wallet;
+
+import com.cubeia.bookkeeping.exception.NotFoundException;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Shard rows are locked in the order wallets are: wallets in id order, and within a wallet either a
+ * single shard or all of its shards in shard order. A transaction that already holds a shard of a
+ * wallet never goes on to lock all of them, a batch locks all shards of its sharded wallets up
+ * front instead, so transactions never wait on each other in a cycle.
+ */
+@Service
+@Transactional
+public class WalletShardService {
+
+  private final WalletRepository walletRepository;
+  private final WalletShardRepository walletShardRepository;
+  private final TransactionTemplate savepoint;
+
+  public WalletShardService(WalletRepository walletRepository,
+    WalletShardRepository walletShardRepository, PlatformTransactionManager transactionManager) {
+    this.walletRepository = walletRepository;
+    this.walletShardRepository = walletShardRepository;
+    this.savepoint = new TransactionTemplate(transactionManager);
+    this.savepoint.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+  }
+
+  /**
+   * Splits the funds of a wallet evenly over the given number of shards, or merges all shards back
+   * into the wallet row when {@code shards} is zero.
+   */
+  public Wallet shardWallet(UUID id, int shards) {
+    if (walletRepository.getWalletById(id, true) == null) {
+      throw new NotFoundException("Wallet not found: " + id);
+    }
+    walletShardRepository.lockShards(id);
+
+    // Both the wallet row and its shards are locked, so the public balance is stable
+    var balance = walletRepository.getWalletById(id, false).balance();
+
+    walletShardRepository.deleteShards(id);
+    if (shards == 0) {
+      walletRepository.updateShards(id, 0, balance);
+    } else {
+      var split = split(balance, shards);
+      for (int shard = 0; shard < shards; shard++) {
+        walletShardRepository.createShard(id, shard, split[shard]);
+      }
+      walletRepository.updateShards(id, shards, 0);
+    }
+
+    return walletRepository.getWalletById(id, false);
+  }
+
+  /**
+   * Locks all shards of a sharded wallet, for a transaction that changes it more than once.
+   */
+  public void lockShards(UUID walletId) {
+    walletShardRepository.lockShards(walletId);
+  }
+
+  /**
+   * The balance of a sharded wallet, the sum of its shards. Unless this transaction holds all of
+   * them, it includes the changes of the transfers committed on the other shards so far.
+   */
+  public long balance(UUID walletId) {
+    return walletRepository.getWalletById(walletId, false).balance();
+  }
+
+  /**
+   * Debits a sharded wallet. A random shard is debited first, when it does not hold enough funds
+   * the wallet is rebalanced by pooling all shards. Returns the new balance of the debited shard,
+   * or of the whole wallet when all shards were pooled, or empty if the wallet does not hold enough
+   * funds.
+   *
+   * <p>This is the running balance recorded for the entry. Transfers on the other shards run
+   * concurrently, so no balance of the whole wallet is known without locking every shard, and the
+   * running balances of a sharded wallet do not form a chain. Callers are given the
+   * {@link #balance(UUID) balance} of the wallet instead.
+   */
+  public OptionalLong debit(Wallet wallet, long amount) {
+    int shard = ThreadLocalRandom.current().nextInt(wallet.shardCount());
+    // A debit that waited on the shard and then found too little in it still holds its lock, the
+    // savepoint releases it so that the wallet is not rebalanced while holding one of its shards
+    var balance = savepoint.execute(status -> {
+      var debited = walletShardRepository.debit(wallet.id(), shard, amount);
+      if (debited.isEmpty()) {
+        status.setRollbackOnly();
+      }
+      return debited;
+    });
+    if (balance.isPresent()) {
+      return OptionalLong.of(balance.get());
+    }
+    return rebalanceAndDebit(wallet.id(), amount);
+  }
+
+  /**
+   * Credits a random shard of a sharded wallet. Returns the new balance of the credited shard, the
+   * running balance recorded for the entry as for a {@link #debit(Wallet, long) debit}, or of the
+   * wallet when its shards were merged concurrently.
+   */
+  public long credit(Wallet wallet, long amount) {
+    int shard = ThreadLocalRandom.current().nextInt(wallet.shardCount());
+    var balance = walletShardRepository.credit(wallet.id(), shard, amount);
+    if (balance.isPresent()) {
+      return balance.get();
+    }
+    // The shards were merged concurrently, the wallet row holds the funds now
+    return walletRepository.adjustBalance(wallet.id(), amount);
+  }
+
+  /**
+   * Expects no shard of the wallet locked by this transaction, or all of them.
+   */
+  private OptionalLong rebalanceAndDebit(UUID walletId, long amount) {
+    List<WalletShard> shards = walletShardRepository.lockShards(walletId);
+    if (shards.isEmpty()) {
+      return OptionalLong.empty();
+    }
+
+    long total = 0;
+    for (var shard : shards) {
+      total += shard.balance();
+    }
+    if (total < amount) {
+      return OptionalLong.empty();
+    }
+
+    var split = split(total - amount, shards.size());
+    for (int i = 0; i < shards.size(); i++) {
+      var shard = shards.get(i);
+      if (shard.balance() != split[i]) {
+        walletShardRepository.setBalance(walletId, shard.shard(), split[i]);
+      }
+    }
+
+    // Every shard is locked, so this is the balance of the whole wallet
+    return OptionalLong.of(total - amount);
+  }
+
+  private static long[] split(long amount, int parts) {
+    var split = new long[parts];
+    for (int i = 0; i < parts; i++) {
+      split[i] = amount / parts;
+    }
+    split[0] += amount % parts;
+    return split;
+  }
+
+}
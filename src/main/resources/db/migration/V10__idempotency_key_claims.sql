@@ -0,0 +1,5 @@
+-- A key is claimed before its transfer runs and completed with the result in the same transaction,
+-- so the result is unknown while the claim is in flight. Readers only see completed keys.
+ALTER TABLE txn.idempotency_key
+    ALTER COLUMN transaction_id DROP NOT NULL,
+    ALTER COLUMN new_balance DROP NOT NULL;
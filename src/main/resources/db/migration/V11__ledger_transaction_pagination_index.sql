@@ -0,0 +1,5 @@
+-- Transactions of a wallet are paged on (created_at, transaction_id) of its ledger entries, which
+-- the (wallet_id, created_at, id) index from V5 cannot seek on. Created on the partitioned ledger of
+-- V7, so every partition gets it, including those attached later.
+CREATE INDEX ledger_wallet_id_created_at_transaction_id_idx
+    ON gnl.ledger (wallet_id, created_at, transaction_id);
@@ -0,0 +1,53 @@
+-- Performs a whole transfer (locks, balance check, balance updates, transaction and ledger
+-- inserts) in a single round trip. Wallets are locked in the order given by the caller so the
+-- function shares the lock ordering of the multi-statement transfer path.
+CREATE OR REPLACE FUNCTION txn.transfer(
+    p_transaction_id UUID,
+    p_from_id UUID,
+    p_to_id UUID,
+    p_amount BIGINT,
+    p_debit_ledger_id UUID,
+    p_credit_ledger_id UUID,
+    p_first_lock_id UUID,
+    p_second_lock_id UUID
+)
+RETURNS TABLE (status TEXT, failed_wallet_id UUID, source_balance BIGINT)
+LANGUAGE plpgsql AS $$
+DECLARE
+    v_source_balance BIGINT;
+    v_destination_balance BIGINT;
+BEGIN
+    PERFORM 1 FROM mng.wallet WHERE id = p_first_lock_id FOR UPDATE;
+    IF NOT FOUND THEN
+        RETURN QUERY SELECT 'NOT_FOUND'::TEXT, p_first_lock_id, NULL::BIGINT;
+        RETURN;
+    END IF;
+
+    PERFORM 1 FROM mng.wallet WHERE id = p_second_lock_id FOR UPDATE;
+    IF NOT FOUND THEN
+        RETURN QUERY SELECT 'NOT_FOUND'::TEXT, p_second_lock_id, NULL::BIGINT;
+        RETURN;
+    END IF;
+
+    SELECT w.balance INTO v_source_balance FROM mng.wallet w WHERE w.id = p_from_id;
+    IF v_source_balance < p_amount THEN
+        RETURN QUERY SELECT 'INSUFFICIENT_FUNDS'::TEXT, p_from_id, v_source_balance;
+        RETURN;
+    END IF;
+
+    UPDATE mng.wallet w SET balance = w.balance - p_amount WHERE w.id = p_from_id
+    RETURNING w.balance INTO v_source_balance;
+
+    UPDATE mng.wallet w SET balance = w.balance + p_amount WHERE w.id = p_to_id
+    RETURNING w.balance INTO v_destination_balance;
+
+    INSERT INTO txn.transaction (id, from_id, to_id, amount)
+    VALUES (p_transaction_id, p_from_id, p_to_id, p_amount);
+
+    INSERT INTO gnl.ledger (id, transaction_id, wallet_id, amount, running_balance)
+    VALUES (p_debit_ledger_id, p_transaction_id, p_from_id, -p_amount, v_source_balance),
+           (p_credit_ledger_id, p_transaction_id, p_to_id, p_amount, v_destination_balance);
+
+    RETURN QUERY SELECT 'OK'::TEXT, NULL::UUID, v_source_balance;
+END;
+$$;
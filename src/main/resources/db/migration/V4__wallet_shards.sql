@@ -0,0 +1,73 @@
+-- Hot wallets can split their balance into shard_count sub-balances so that concurrent transfers
+-- lock a single shard row instead of the wallet row. The public balance of a wallet is its own
+-- balance plus the sum of its shards.
+ALTER TABLE mng.wallet ADD COLUMN shard_count SMALLINT NOT NULL DEFAULT 0;
+
+CREATE TABLE mng.wallet_shard (
+    wallet_id UUID NOT NULL,
+    shard SMALLINT NOT NULL,
+    balance BIGINT NOT NULL,
+    PRIMARY KEY (wallet_id, shard),
+    FOREIGN KEY (wallet_id) REFERENCES mng.wallet(id)
+);
+
+-- Sharded wallets are not locked by the transfer function, it reports SHARDED instead and the
+-- application falls back to the multi-statement path which debits and credits individual shards.
+CREATE OR REPLACE FUNCTION txn.transfer(
+    p_transaction_id UUID,
+    p_from_id UUID,
+    p_to_id UUID,
+    p_amount BIGINT,
+    p_debit_ledger_id UUID,
+    p_credit_ledger_id UUID,
+    p_first_lock_id UUID,
+    p_second_lock_id UUID
+)
+RETURNS TABLE (status TEXT, failed_wallet_id UUID, source_balance BIGINT)
+LANGUAGE plpgsql AS $$
+DECLARE
+    v_source_balance BIGINT;
+    v_destination_balance BIGINT;
+BEGIN
+    PERFORM 1 FROM mng.wallet WHERE id = p_first_lock_id AND shard_count = 0 FOR UPDATE;
+    IF NOT FOUND THEN
+        IF EXISTS (SELECT 1 FROM mng.wallet WHERE id = p_first_lock_id) THEN
+            RETURN QUERY SELECT 'SHARDED'::TEXT, p_first_lock_id, NULL::BIGINT;
+        ELSE
+            RETURN QUERY SELECT 'NOT_FOUND'::TEXT, p_first_lock_id, NULL::BIGINT;
+        END IF;
+        RETURN;
+    END IF;
+
+    PERFORM 1 FROM mng.wallet WHERE id = p_second_lock_id AND shard_count = 0 FOR UPDATE;
+    IF NOT FOUND THEN
+        IF EXISTS (SELECT 1 FROM mng.wallet WHERE id = p_second_lock_id) THEN
+            RETURN QUERY SELECT 'SHARDED'::TEXT, p_second_lock_id, NULL::BIGINT;
+        ELSE
+            RETURN QUERY SELECT 'NOT_FOUND'::TEXT, p_second_lock_id, NULL::BIGINT;
+        END IF;
+        RETURN;
+    END IF;
+
+    SELECT w.balance INTO v_source_balance FROM mng.wallet w WHERE w.id = p_from_id;
+    IF v_source_balance < p_amount THEN
+        RETURN QUERY SELECT 'INSUFFICIENT_FUNDS'::TEXT, p_from_id, v_source_balance;
+        RETURN;
+    END IF;
+
+    UPDATE mng.wallet w SET balance = w.balance - p_amount WHERE w.id = p_from_id
+    RETURNING w.balance INTO v_source_balance;
+
+    UPDATE mng.wallet w SET balance = w.balance + p_amount WHERE w.id = p_to_id
+    RETURNING w.balance INTO v_destination_balance;
+
+    INSERT INTO txn.transaction (id, from_id, to_id, amount)
+    VALUES (p_transaction_id, p_from_id, p_to_id, p_amount);
+
+    INSERT INTO gnl.ledger (id, transaction_id, wallet_id, amount, running_balance)
+    VALUES (p_debit_ledger_id, p_transaction_id, p_from_id, -p_amount, v_source_balance),
+           (p_credit_ledger_id, p_transaction_id, p_to_id, p_amount, v_destination_balance);
+
+    RETURN QUERY SELECT 'OK'::TEXT, NULL::UUID, v_source_balance;
+END;
+$$;
@@ -0,0 +1,5 @@
+-- Keyset pagination orders by (created_at, id) within a wallet, these indexes let every page start
+-- where the previous one ended instead of scanning and discarding the earlier rows.
+CREATE INDEX wallet_created_at_id_idx ON mng.wallet (created_at, id);
+
+CREATE INDEX ledger_wallet_id_created_at_id_idx ON gnl.ledger (wallet_id, created_at, id);
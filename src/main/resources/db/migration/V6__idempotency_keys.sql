@@ -0,0 +1,13 @@
+-- Results of transfers made with an Idempotency-Key, so that retries return the original result
+-- instead of transferring again.
+CREATE TABLE txn.idempotency_key (
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    from_id UUID NOT NULL,
+    to_id UUID NOT NULL,
+    amount BIGINT NOT NULL,
+    transaction_id UUID NOT NULL,
+    new_balance BIGINT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT now()
+);
+
+CREATE INDEX idempotency_key_created_at_idx ON txn.idempotency_key (created_at);
@@ -0,0 +1,80 @@
+-- Range partitions txn.transaction and gnl.ledger by created_at, one partition per calendar month
+-- in UTC named <table>_pYYYY_MM. Inserts only maintain the indexes of the current month, and
+-- queries that bound created_at only read the partitions they need. PartitionManager creates the
+-- partitions of upcoming months and, when a retention is configured, detaches old ones.
+--
+-- Unique constraints of a partitioned table have to include the partition key, so the primary
+-- keys become (id, created_at) and the ledger can no longer reference txn.transaction(id). A
+-- transaction and its ledger entries are always written in the same database transaction and
+-- therefore share created_at, joins match on both columns so that they stay in one partition.
+
+ALTER TABLE gnl.ledger DROP CONSTRAINT ledger_transaction_id_fkey;
+ALTER TABLE txn.transaction RENAME TO transaction_unpartitioned;
+ALTER TABLE gnl.ledger RENAME TO ledger_unpartitioned;
+
+CREATE TABLE txn.transaction (
+    id UUID NOT NULL,
+    from_id UUID,
+    to_id UUID NOT NULL,
+    amount BIGINT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE gnl.ledger (
+    id UUID NOT NULL,
+    transaction_id UUID NOT NULL,
+    wallet_id UUID NOT NULL,
+    amount BIGINT NOT NULL,
+    running_balance BIGINT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+) PARTITION BY RANGE (created_at);
+
+-- Partitions from the month of the oldest row up to three months ahead, the partition manager
+-- keeps extending them from there
+DO $$
+DECLARE
+    v_month TIMESTAMP;
+    v_last TIMESTAMP := date_trunc('month', now() AT TIME ZONE 'UTC') + INTERVAL '3 months';
+BEGIN
+    v_month := date_trunc('month', LEAST(
+        (SELECT min(created_at) FROM txn.transaction_unpartitioned),
+        (SELECT min(created_at) FROM gnl.ledger_unpartitioned),
+        now()
+    ) AT TIME ZONE 'UTC');
+    WHILE v_month <= v_last LOOP
+        EXECUTE format('CREATE TABLE txn.%I PARTITION OF txn.transaction FOR VALUES FROM (%L) TO (%L)',
+            'transaction_p' || to_char(v_month, 'YYYY_MM'),
+            v_month AT TIME ZONE 'UTC', (v_month + INTERVAL '1 month') AT TIME ZONE 'UTC');
+        EXECUTE format('CREATE TABLE gnl.%I PARTITION OF gnl.ledger FOR VALUES FROM (%L) TO (%L)',
+            'ledger_p' || to_char(v_month, 'YYYY_MM'),
+            v_month AT TIME ZONE 'UTC', (v_month + INTERVAL '1 month') AT TIME ZONE 'UTC');
+        v_month := v_month + INTERVAL '1 month';
+    END LOOP;
+END;
+$$;
+
+INSERT INTO txn.transaction (id, from_id, to_id, amount, created_at)
+SELECT id, from_id, to_id, amount, COALESCE(created_at, now()) FROM txn.transaction_unpartitioned;
+
+INSERT INTO gnl.ledger (id, transaction_id, wallet_id, amount, running_balance, created_at)
+SELECT id, transaction_id, wallet_id, amount, running_balance, COALESCE(created_at, now())
+FROM gnl.ledger_unpartitioned;
+
+DROP TABLE gnl.ledger_unpartitioned;
+DROP TABLE txn.transaction_unpartitioned;
+
+-- Constraints and indexes are created once the data is in, on every partition at once
+ALTER TABLE txn.transaction
+    ADD PRIMARY KEY (id, created_at),
+    ADD FOREIGN KEY (from_id) REFERENCES mng.wallet(id),
+    ADD FOREIGN KEY (to_id) REFERENCES mng.wallet(id);
+
+ALTER TABLE gnl.ledger
+    ADD PRIMARY KEY (id, created_at),
+    ADD UNIQUE (transaction_id, wallet_id, created_at),
+    ADD FOREIGN KEY (wallet_id) REFERENCES mng.wallet(id);
+
+CREATE INDEX ledger_wallet_id_created_at_id_idx ON gnl.ledger (wallet_id, created_at, id);
+
+ANALYZE txn.transaction;
+ANALYZE gnl.ledger;
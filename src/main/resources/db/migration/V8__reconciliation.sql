@@ -0,0 +1,41 @@
+-- Incremental reconciliation of wallet balances against the ledger. Every run covers the ledger
+-- entries created between the horizon of the previous run and its own, and keeps a checkpoint per
+-- wallet with the balance the ledger adds up to, so that no run has to read older entries again.
+CREATE TABLE gnl.reconciliation_run (
+    id UUID PRIMARY KEY,
+    since TIMESTAMP WITH TIME ZONE,
+    horizon TIMESTAMP WITH TIME ZONE NOT NULL,
+    started_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    finished_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    wallets_checked INTEGER NOT NULL,
+    entries_checked BIGINT NOT NULL,
+    drifted_wallets INTEGER NOT NULL,
+    drift_amount BIGINT NOT NULL
+);
+
+CREATE INDEX reconciliation_run_horizon_idx ON gnl.reconciliation_run (horizon);
+
+CREATE TABLE gnl.reconciliation_checkpoint (
+    wallet_id UUID PRIMARY KEY,
+    balance BIGINT NOT NULL,
+    last_ledger_id UUID NOT NULL,
+    verified_to TIMESTAMP WITH TIME ZONE NOT NULL,
+    checked_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    FOREIGN KEY (wallet_id) REFERENCES mng.wallet(id)
+);
+
+-- Drift is recorded while a run is in progress and the run itself once it is done, hence the
+-- deferred foreign key
+CREATE TABLE gnl.reconciliation_drift (
+    run_id UUID NOT NULL,
+    wallet_id UUID NOT NULL,
+    ledger_balance BIGINT NOT NULL,
+    wallet_balance BIGINT NOT NULL,
+    PRIMARY KEY (run_id, wallet_id),
+    FOREIGN KEY (run_id) REFERENCES gnl.reconciliation_run(id) DEFERRABLE INITIALLY DEFERRED,
+    FOREIGN KEY (wallet_id) REFERENCES mng.wallet(id)
+);
+
+-- Runs select the entries of a time range across all wallets. Ledger rows arrive in created_at
+-- order, so a BRIN index finds the range for next to no cost on inserts.
+CREATE INDEX ledger_created_at_brin_idx ON gnl.ledger USING brin (created_at);
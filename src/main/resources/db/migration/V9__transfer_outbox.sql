@@ -0,0 +1,32 @@
+-- Transfer events waiting for the outbox relay to deliver them. Every insert into txn.transaction
+-- adds its events in the same database transaction through a statement level trigger, whichever
+-- path wrote it: the transaction processor, txn.transfer(), the reactive repository or a bulk
+-- wallet import. A transfer that rolls back leaves no event behind. The application disables the
+-- trigger at startup unless the relay is enabled.
+--
+-- The relay delivers in id order. Transactions on an unsharded wallet are inserted while its row
+-- is locked, so its events get increasing ids in the order its balance changed. A sharded wallet
+-- is not row locked, transfers on different shards run concurrently and their events carry no
+-- order beyond that of their ids.
+CREATE TABLE txn.outbox (
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    transaction_id UUID NOT NULL,
+    from_id UUID,
+    to_id UUID NOT NULL,
+    amount BIGINT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE FUNCTION txn.enqueue_transfer_events() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    INSERT INTO txn.outbox (transaction_id, from_id, to_id, amount, created_at)
+    SELECT id, from_id, to_id, amount, created_at FROM inserted ORDER BY id;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER transaction_outbox
+    AFTER INSERT ON txn.transaction
+    REFERENCING NEW TABLE AS inserted
+    FOR EACH STATEMENT EXECUTE FUNCTION txn.enqueue_transfer_events();
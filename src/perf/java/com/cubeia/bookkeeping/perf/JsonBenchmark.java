@@ -0,0 +1,79 @@
+package com.cubeia.bookkeeping.perf;
+
+import com.cubeia.bookkeeping.transaction.TransactionView;
+import com.cubeia.bookkeeping.wallet.TransferOutput;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Serialization of the transfer response and of a default history page, with the same object
+ * mapper defaults Spring MVC uses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+  private ObjectMapper objectMapper;
+  private TransferOutput transferOutput;
+  private TransactionView transactionView;
+  private List<TransactionView> transactionPage;
+
+  @Setup
+  public void setUp() {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    transferOutput = new TransferOutput(
+      UUID.randomUUID(),
+      BigDecimal.valueOf(1000),
+      BigDecimal.valueOf(122456)
+    );
+    transactionView = new TransactionView(
+      UUID.randomUUID(),
+      UUID.randomUUID(),
+      UUID.randomUUID(),
+      -1000L,
+      122456L,
+      Instant.now()
+    );
+    transactionPage = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      transactionPage.add(transactionView);
+    }
+  }
+
+  @Benchmark
+  public byte[] transferOutput() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(transferOutput);
+  }
+
+  @Benchmark
+  public byte[] transactionView() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(transactionView);
+  }
+
+  @Benchmark
+  public byte[] transactionPage() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(transactionPage);
+  }
+
+}
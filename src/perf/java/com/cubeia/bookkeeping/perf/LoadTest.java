@@ -0,0 +1,276 @@
+package com.cubeia.bookkeeping.perf;
+
+import com.cubeia.bookkeeping.BookkeepingApplication;
+import com.cubeia.bookkeeping.api.Cursor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Load harness for the HTTP API. Creates wallets, sends a mix of transfers and reads for a fixed
+ * time with wallets picked from a Zipf distribution, prints throughput, latency percentiles and
+ * error rates, and finally checks that every balance matches its ledger and that no money was
+ * created or lost.
+ *
+ * <pre>
+ * mvn -Pperf test-compile exec:exec \
+ *   -Dexec.args="-cp %classpath com.cubeia.bookkeeping.perf.LoadTest --wallets=1000 --zipf=1.2"
+ * </pre>
+ */
+public final class LoadTest {
+
+  private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+  private final LoadTestOptions options;
+  private final String baseUrl;
+  private final HttpClient httpClient = HttpClient.newBuilder()
+    .connectTimeout(Duration.ofSeconds(5))
+    .build();
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final Operation transfers = new Operation("transfer");
+  private final Operation balances = new Operation("balance");
+  private final Operation histories = new Operation("history");
+
+  private LoadTest(LoadTestOptions options, String baseUrl) {
+    this.options = options;
+    this.baseUrl = baseUrl;
+  }
+
+  public static void main(String[] args) throws Exception {
+    var options = LoadTestOptions.parse(args);
+
+    ConfigurableApplicationContext context = null;
+    var baseUrl = options.baseUrl();
+    if (baseUrl == null) {
+      // A shorter lock timeout than the database's 10s, so that contention shows up as a rate of
+      // rejected transfers within a run instead of as long waits. Set on the R2DBC connections too
+      // for runs with the reactive profile.
+      context = new SpringApplicationBuilder(BookkeepingApplication.class)
+        .run(PerfDatabase.arguments(
+          "server.port=0",
+          "spring.datasource.hikari.connection-init-sql=SET lock_timeout = '2s'",
+          "spring.r2dbc.properties.lockWaitTimeout=PT2S"
+        ));
+      baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    boolean consistent;
+    try {
+      consistent = new LoadTest(options, baseUrl).run();
+    } finally {
+      if (context != null) {
+        context.close();
+        PerfDatabase.stop();
+      }
+    }
+    System.exit(consistent ? 0 : 1);
+  }
+
+  private boolean run() throws Exception {
+    System.out.printf("Creating %d wallets on %s%n", options.wallets(), baseUrl);
+    var walletIds = createWallets();
+    var distribution = new ZipfDistribution(walletIds.size(), options.zipf());
+
+    long start = System.nanoTime();
+    long recordFrom = start + options.warmup().toNanos();
+    long end = recordFrom + options.duration().toNanos();
+
+    ExecutorService executor = Executors.newFixedThreadPool(options.concurrency());
+    List<Future<?>> workers = new ArrayList<>();
+    for (int i = 0; i < options.concurrency(); i++) {
+      workers.add(executor.submit(() -> {
+        work(walletIds, distribution, recordFrom, end);
+        return null;
+      }));
+    }
+    for (var worker : workers) {
+      worker.get();
+    }
+    executor.shutdown();
+
+    report(options.duration());
+    return checkConsistency(walletIds);
+  }
+
+  private void work(List<UUID> walletIds, ZipfDistribution distribution, long recordFrom,
+    long end) throws IOException, InterruptedException {
+    var random = ThreadLocalRandom.current();
+    long now;
+    while ((now = System.nanoTime()) < end) {
+      var walletId = walletIds.get(distribution.sample(random));
+      Operation operation;
+      HttpRequest request;
+
+      if (random.nextDouble() < options.readRatio()) {
+        if (random.nextBoolean()) {
+          operation = balances;
+          request = get("/wallets/" + walletId + "/balance");
+        } else {
+          operation = histories;
+          request = get("/transactions/" + walletId);
+        }
+      } else {
+        UUID toId;
+        do {
+          toId = walletIds.get(distribution.sample(random));
+        } while (toId.equals(walletId));
+        operation = transfers;
+        request = post("/transactions/transfer", Map.of(
+          "fromId", walletId,
+          "toId", toId,
+          "amount", 1 + random.nextInt(options.maxAmount())
+        ));
+      }
+
+      var response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+      if (now >= recordFrom) {
+        operation.record(response.statusCode(), System.nanoTime() - now);
+      }
+    }
+  }
+
+  private void report(Duration duration) {
+    double seconds = duration.toMillis() / 1000.0;
+    System.out.printf("%n%-10s %10s %10s %10s %10s %10s %12s %12s %10s%n",
+      "operation", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "lock/503 %", "no funds %",
+      "errors");
+    for (var operation : List.of(transfers, balances, histories)) {
+      var histogram = operation.histogram;
+      long requests = histogram.getTotalCount();
+      System.out.printf("%-10s %10d %10.1f %10.2f %10.2f %10.2f %12.2f %12.2f %10d%n",
+        operation.name,
+        requests,
+        requests / seconds,
+        histogram.getValueAtPercentile(50) / 1000.0,
+        histogram.getValueAtPercentile(99) / 1000.0,
+        histogram.getValueAtPercentile(99.9) / 1000.0,
+        percentage(operation.unavailable.sum(), requests),
+        percentage(operation.insufficientFunds.sum(), requests),
+        operation.errors.sum()
+      );
+    }
+  }
+
+  /**
+   * Transfers only move money, so the balances have to add up to what the wallets were created
+   * with, and every balance has to equal the sum of its ledger entries.
+   */
+  private boolean checkConsistency(List<UUID> walletIds) throws IOException, InterruptedException {
+    var expectedTotal = options.initialBalance().multiply(BigDecimal.valueOf(walletIds.size()));
+    var total = BigDecimal.ZERO;
+    int mismatches = 0;
+
+    for (var walletId : walletIds) {
+      var balance = send(get("/wallets/" + walletId + "/balance")).get("balance").decimalValue();
+      total = total.add(balance);
+
+      var ledgerTotal = BigDecimal.ZERO;
+      String after = null;
+      do {
+        var response = httpClient.send(
+          get("/transactions/" + walletId + "?limit=200" + (after == null ? "" : "&after=" + after)),
+          HttpResponse.BodyHandlers.ofString()
+        );
+        for (var entry : objectMapper.readTree(response.body())) {
+          ledgerTotal = ledgerTotal.add(entry.get("amount").decimalValue());
+        }
+        after = response.headers().firstValue(Cursor.NEXT_CURSOR_HEADER).orElse(null);
+      } while (after != null);
+
+      if (ledgerTotal.compareTo(balance) != 0) {
+        mismatches++;
+        System.out.printf("Wallet %s has balance %s but its ledger adds up to %s%n",
+          walletId, balance, ledgerTotal);
+      }
+    }
+
+    boolean consistent = mismatches == 0 && total.compareTo(expectedTotal) == 0;
+    System.out.printf("%nConsistency: %s (total balance %s, expected %s, %d ledger mismatches)%n",
+      consistent ? "OK" : "FAILED", total, expectedTotal, mismatches);
+    return consistent;
+  }
+
+  private List<UUID> createWallets() throws IOException, InterruptedException {
+    List<UUID> walletIds = new ArrayList<>(options.wallets());
+    for (int i = 0; i < options.wallets(); i++) {
+      var wallet = send(post("/wallets", Map.of(
+        "email", "load-" + UUID.randomUUID() + "@example.com",
+        "amount", options.initialBalance()
+      )));
+      walletIds.add(UUID.fromString(wallet.get("id").asText()));
+    }
+    return walletIds;
+  }
+
+  private JsonNode send(HttpRequest request) throws IOException, InterruptedException {
+    var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() != 200) {
+      throw new IllegalStateException(
+        request.uri() + " returned " + response.statusCode() + ": " + response.body());
+    }
+    return objectMapper.readTree(response.body());
+  }
+
+  private HttpRequest get(String path) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+  }
+
+  private HttpRequest post(String path, Map<String, Object> body) throws IOException {
+    return HttpRequest.newBuilder(URI.create(baseUrl + path))
+      .header("Content-Type", "application/json")
+      .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+      .build();
+  }
+
+  private static double percentage(long count, long total) {
+    return total == 0 ? 0 : 100.0 * count / total;
+  }
+
+  private static final class Operation {
+
+    private final String name;
+    private final Histogram histogram = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final LongAdder insufficientFunds = new LongAdder();
+    private final LongAdder unavailable = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    private Operation(String name) {
+      this.name = name;
+    }
+
+    private void record(int status, long latencyNanos) {
+      histogram.recordValue(
+        Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS));
+      switch (status) {
+        case 200 -> {
+        }
+        case 409 -> insufficientFunds.increment();
+        case 503 -> unavailable.increment();
+        default -> errors.increment();
+      }
+    }
+
+  }
+
+}
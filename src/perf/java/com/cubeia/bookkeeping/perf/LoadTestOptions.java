@@ -0,0 +1,67 @@
+package com.cubeia.bookkeeping.perf;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Options of {@link LoadTest}, given as {@code --name=value} arguments.
+ *
+ * @param baseUrl        API to load, when missing the application is started in process
+ * @param wallets        number of wallets created before the run
+ * @param initialBalance balance of every wallet
+ * @param maxAmount      transfers move a random whole amount between 1 and this
+ * @param zipf           skew of the wallet distribution, 0 picks wallets uniformly
+ * @param readRatio      share of requests that read a balance or a history page
+ * @param concurrency    number of requests in flight
+ * @param warmup         time before latencies are recorded
+ * @param duration       measured time
+ */
+record LoadTestOptions(
+  String baseUrl,
+  int wallets,
+  BigDecimal initialBalance,
+  int maxAmount,
+  double zipf,
+  double readRatio,
+  int concurrency,
+  Duration warmup,
+  Duration duration
+) {
+
+  static LoadTestOptions parse(String[] args) {
+    Map<String, String> values = new HashMap<>();
+    for (var arg : args) {
+      if (!arg.startsWith("--") || !arg.contains("=")) {
+        throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+      }
+      values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+    }
+
+    var options = new LoadTestOptions(
+      values.remove("base-url"),
+      Integer.parseInt(values.getOrDefault("wallets", "100")),
+      new BigDecimal(values.getOrDefault("initial-balance", "1000")),
+      Integer.parseInt(values.getOrDefault("max-amount", "10")),
+      Double.parseDouble(values.getOrDefault("zipf", "1.0")),
+      Double.parseDouble(values.getOrDefault("read-ratio", "0.2")),
+      Integer.parseInt(values.getOrDefault("concurrency", "32")),
+      Duration.parse(values.getOrDefault("warmup", "PT5S")),
+      Duration.parse(values.getOrDefault("duration", "PT30S"))
+    );
+
+    values.keySet().removeAll(
+      List.of("wallets", "initial-balance", "max-amount", "zipf", "read-ratio",
+        "concurrency", "warmup", "duration"));
+    if (!values.isEmpty()) {
+      throw new IllegalArgumentException("Unknown options: " + values.keySet());
+    }
+    if (options.wallets() < 2) {
+      throw new IllegalArgumentException("At least 2 wallets are needed for transfers");
+    }
+    return options;
+  }
+
+}
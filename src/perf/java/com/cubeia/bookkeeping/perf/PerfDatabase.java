@@ -0,0 +1,62 @@
+package com.cubeia.bookkeeping.perf;
+
+import java.util.ArrayList;
+import java.util.Map;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Database for benchmarks that need one. Uses a Testcontainers Postgres unless
+ * {@code PERF_DATASOURCE_URL} points at an existing database, environment variables are used
+ * rather than system properties because they reach the JVMs forked by JMH.
+ */
+final class PerfDatabase {
+
+  private static PostgreSQLContainer<?> postgres;
+
+  private PerfDatabase() {
+  }
+
+  /**
+   * Command line arguments for the application, these take precedence over
+   * {@code application.properties} unlike default properties.
+   */
+  static String[] arguments(String... properties) {
+    var arguments = new ArrayList<String>();
+    properties().forEach((name, value) -> arguments.add("--" + name + "=" + value));
+    for (var property : properties) {
+      arguments.add("--" + property);
+    }
+    return arguments.toArray(String[]::new);
+  }
+
+  private static synchronized Map<String, Object> properties() {
+    var url = System.getenv("PERF_DATASOURCE_URL");
+    if (url != null) {
+      return Map.of(
+        "spring.docker.compose.enabled", false,
+        "spring.datasource.url", url,
+        "spring.datasource.username", System.getenv().getOrDefault("PERF_DATASOURCE_USERNAME", "user"),
+        "spring.datasource.password", System.getenv().getOrDefault("PERF_DATASOURCE_PASSWORD", "user")
+      );
+    }
+
+    if (postgres == null) {
+      postgres = new PostgreSQLContainer<>("postgres:17.4").withDatabaseName("bookkeeping");
+      postgres.start();
+    }
+    return Map.of(
+      "spring.docker.compose.enabled", false,
+      "spring.datasource.url", postgres.getJdbcUrl(),
+      "spring.datasource.username", postgres.getUsername(),
+      "spring.datasource.password", postgres.getPassword()
+    );
+  }
+
+  static synchronized void stop() {
+    if (postgres != null) {
+      postgres.stop();
+      postgres = null;
+    }
+  }
+
+}
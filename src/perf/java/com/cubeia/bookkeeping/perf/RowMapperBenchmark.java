@@ -0,0 +1,122 @@
+package com.cubeia.bookkeeping.perf;
+
+import com.cubeia.bookkeeping.ledger.Ledger;
+import com.cubeia.bookkeeping.ledger.LedgerRepository;
+import com.cubeia.bookkeeping.transaction.TransactionRepository;
+import com.cubeia.bookkeeping.transaction.TransactionView;
+import com.cubeia.bookkeeping.wallet.Wallet;
+import com.cubeia.bookkeeping.wallet.WalletRepository;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Cost of the repository row mappers on a single row. The rows come from an in-memory
+ * {@link ResultSet} proxy, {@link #resultSetBaseline} measures the proxy alone so that the cost of
+ * the mapping itself is the difference.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMapperBenchmark {
+
+  private RowMapper<Wallet> walletRowMapper;
+  private RowMapper<Ledger> ledgerRowMapper;
+  private RowMapper<TransactionView> transactionViewRowMapper;
+
+  private ResultSet walletRow;
+  private ResultSet ledgerRow;
+  private ResultSet transactionViewRow;
+
+  @Setup
+  public void setUp() throws ReflectiveOperationException {
+    walletRowMapper = rowMapper(WalletRepository.class, "WALLET_ROW_MAPPER");
+    ledgerRowMapper = rowMapper(LedgerRepository.class, "LEDGER_ROW_MAPPER");
+    transactionViewRowMapper = rowMapper(TransactionRepository.class, "TRANSACTION_VIEW_ROW_MAPPER");
+
+    var createdAt = Timestamp.from(Instant.now());
+    walletRow = resultSet(Map.of(
+      "id", UUID.randomUUID(),
+      "email", "perf@example.com",
+      "balance", 123456L,
+      "shard_count", 0,
+      "created_at", createdAt
+    ));
+    ledgerRow = resultSet(Map.of(
+      "id", UUID.randomUUID(),
+      "transaction_id", UUID.randomUUID(),
+      "wallet_id", UUID.randomUUID(),
+      "amount", -1000L,
+      "created_at", createdAt
+    ));
+    transactionViewRow = resultSet(Map.of(
+      "id", UUID.randomUUID(),
+      "from_id", UUID.randomUUID(),
+      "to_id", UUID.randomUUID(),
+      "amount", -1000L,
+      "running_balance", 122456L,
+      "created_at", createdAt
+    ));
+  }
+
+  @Benchmark
+  public Wallet walletRowMapper() throws SQLException {
+    return walletRowMapper.mapRow(walletRow, 0);
+  }
+
+  @Benchmark
+  public Ledger ledgerRowMapper() throws SQLException {
+    return ledgerRowMapper.mapRow(ledgerRow, 0);
+  }
+
+  @Benchmark
+  public TransactionView transactionViewRowMapper() throws SQLException {
+    return transactionViewRowMapper.mapRow(transactionViewRow, 0);
+  }
+
+  @Benchmark
+  public Object resultSetBaseline() throws SQLException {
+    return transactionViewRow.getObject("id", UUID.class);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> RowMapper<T> rowMapper(Class<?> repository, String name)
+    throws ReflectiveOperationException {
+    var field = repository.getDeclaredField(name);
+    field.setAccessible(true);
+    return (RowMapper<T>) field.get(null);
+  }
+
+  private static ResultSet resultSet(Map<String, Object> row) {
+    return (ResultSet) Proxy.newProxyInstance(
+      ResultSet.class.getClassLoader(),
+      new Class<?>[]{ResultSet.class},
+      (proxy, method, args) -> switch (method.getName()) {
+        case "getObject", "getString", "getTimestamp" -> row.get((String) args[0]);
+        case "getInt" -> ((Number) row.get((String) args[0])).intValue();
+        case "getLong" -> ((Number) row.get((String) args[0])).longValue();
+        default -> throw new UnsupportedOperationException(method.getName());
+      }
+    );
+  }
+
+}
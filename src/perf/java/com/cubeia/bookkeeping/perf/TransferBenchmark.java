@@ -0,0 +1,100 @@
+package com.cubeia.bookkeeping.perf;
+
+import com.cubeia.bookkeeping.BookkeepingApplication;
+import com.cubeia.bookkeeping.transaction.Transaction;
+import com.cubeia.bookkeeping.transaction.TransactionProcessor;
+import com.cubeia.bookkeeping.transaction.TransactionResult;
+import com.cubeia.bookkeeping.wallet.Wallet;
+import com.cubeia.bookkeeping.wallet.WalletService;
+import com.fasterxml.uuid.Generators;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.UUID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * End to end transfers through {@link TransactionProcessor#createTransaction} against Postgres.
+ * Fewer wallets means more transfers contend for the same rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class TransferBenchmark {
+
+  /**
+   * Wallet locking of the standard mode, or the single-statement mode.
+   */
+  @Param({"row-lock", "conditional-update", "advisory-lock", "single-statement"})
+  public String strategy;
+
+  @Param({"10", "1000"})
+  public int wallets;
+
+  private ConfigurableApplicationContext context;
+  private TransactionProcessor transactionProcessor;
+  private UUID[] walletIds;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new SpringApplicationBuilder(BookkeepingApplication.class)
+      .web(WebApplicationType.NONE)
+      .run(PerfDatabase.arguments(strategy.equals("single-statement")
+        ? "bookkeeping.transfer.mode=single-statement"
+        : "bookkeeping.transfer.locking=" + strategy));
+    transactionProcessor = context.getBean(TransactionProcessor.class);
+
+    var walletService = context.getBean(WalletService.class);
+    walletIds = new UUID[wallets];
+    for (int i = 0; i < wallets; i++) {
+      walletIds[i] = walletService.createWallet(
+        new Wallet.WalletBuilder()
+          .id(Generators.timeBasedEpochRandomGenerator().generate())
+          .email("perf-" + UUID.randomUUID() + "@example.com")
+          .balance(1_000_000_000L)
+          .build()
+      );
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+    PerfDatabase.stop();
+  }
+
+  @Benchmark
+  public TransactionResult transfer() {
+    var random = ThreadLocalRandom.current();
+    int from = random.nextInt(wallets);
+    int to = (from + 1 + random.nextInt(wallets - 1)) % wallets;
+    return transactionProcessor.createTransaction(
+      new Transaction.TransactionBuilder()
+        .id(Generators.timeBasedEpochRandomGenerator().generate())
+        .fromId(walletIds[from])
+        .toId(walletIds[to])
+        .amount(1)
+        .build()
+    );
+  }
+
+}
@@ -0,0 +1,117 @@
+package com.cubeia.bookkeeping.perf;
+
+import com.cubeia.bookkeeping.BookkeepingApplication;
+import com.cubeia.bookkeeping.wallet.Wallet;
+import com.cubeia.bookkeeping.wallet.WalletService;
+import com.fasterxml.uuid.Generators;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * {@code POST /transactions/transfer} over HTTP with more clients than Tomcat has platform threads,
+ * once on Tomcat's thread pool and once on virtual threads with the connection limiter. The
+ * application runs in the benchmark JVM, so run with {@code -prof gc} for allocation, the peak
+ * thread count and committed memory are printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(400)
+public class TransferEndpointBenchmark {
+
+  @Param({"false", "true"})
+  public boolean virtualThreads;
+
+  @Param({"1000"})
+  public int wallets;
+
+  private ConfigurableApplicationContext context;
+  private HttpClient httpClient;
+  private String transferUrl;
+  private UUID[] walletIds;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new SpringApplicationBuilder(BookkeepingApplication.class)
+      .run(PerfDatabase.arguments(
+        "server.port=0",
+        "spring.threads.virtual.enabled=" + virtualThreads,
+        "bookkeeping.datasource.limiter.enabled=" + virtualThreads,
+        "bookkeeping.datasource.limiter.max-waiting=1000",
+        "bookkeeping.datasource.limiter.max-wait=30s"
+      ));
+    transferUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+      + "/transactions/transfer";
+    httpClient = HttpClient.newHttpClient();
+
+    var walletService = context.getBean(WalletService.class);
+    walletIds = new UUID[wallets];
+    for (int i = 0; i < wallets; i++) {
+      walletIds[i] = walletService.createWallet(
+        new Wallet.WalletBuilder()
+          .id(Generators.timeBasedEpochRandomGenerator().generate())
+          .email("perf-" + UUID.randomUUID() + "@example.com")
+          .balance(1_000_000_000L)
+          .build()
+      );
+    }
+    ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    var memory = ManagementFactory.getMemoryMXBean();
+    long workerThreads = Thread.getAllStackTraces().keySet().stream()
+      .filter(thread -> thread.getName().startsWith("http-nio-"))
+      .count();
+    System.out.printf("%nvirtualThreads=%s tomcat platform threads=%d peak platform threads=%d "
+        + "heap committed=%d MB non-heap committed=%d MB%n",
+      virtualThreads,
+      workerThreads,
+      ManagementFactory.getThreadMXBean().getPeakThreadCount(),
+      memory.getHeapMemoryUsage().getCommitted() >> 20,
+      memory.getNonHeapMemoryUsage().getCommitted() >> 20);
+    context.close();
+    PerfDatabase.stop();
+  }
+
+  @Benchmark
+  public int transfer() throws Exception {
+    var random = ThreadLocalRandom.current();
+    int from = random.nextInt(wallets);
+    int to = (from + 1 + random.nextInt(wallets - 1)) % wallets;
+    var body = "{\"fromId\":\"" + walletIds[from] + "\",\"toId\":\"" + walletIds[to]
+      + "\",\"amount\":1}";
+    var request = HttpRequest.newBuilder(URI.create(transferUrl))
+      .header("Content-Type", "application/json")
+      .POST(HttpRequest.BodyPublishers.ofString(body))
+      .build();
+    return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+  }
+
+}
@@ -0,0 +1,43 @@
+package com.cubeia.bookkeeping.perf;
+
+import com.fasterxml.uuid.Generators;
+import com.fasterxml.uuid.impl.TimeBasedEpochRandomGenerator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * UUIDv7 generation as done in the code today, building a generator per call, against one shared
+ * generator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class UuidGeneratorBenchmark {
+
+  private final TimeBasedEpochRandomGenerator generator = Generators.timeBasedEpochRandomGenerator();
+
+  @Benchmark
+  public UUID generatorPerCall() {
+    return Generators.timeBasedEpochRandomGenerator().generate();
+  }
+
+  @Benchmark
+  public UUID sharedGenerator() {
+    return generator.generate();
+  }
+
+}
@@ -0,0 +1,33 @@
+package com.cubeia.bookkeeping.perf;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Samples indexes {@code 0..n-1} where index {@code k} is drawn with probability proportional to
+ * {@code 1 / (k + 1)^exponent}. An exponent of 0 is uniform, around 1 a handful of indexes take
+ * most of the draws.
+ */
+final class ZipfDistribution {
+
+  private final double[] cumulative;
+
+  ZipfDistribution(int n, double exponent) {
+    if (n < 1) {
+      throw new IllegalArgumentException("n must be positive");
+    }
+    cumulative = new double[n];
+    double sum = 0;
+    for (int k = 0; k < n; k++) {
+      sum += 1 / Math.pow(k + 1, exponent);
+      cumulative[k] = sum;
+    }
+  }
+
+  int sample(RandomGenerator random) {
+    double u = random.nextDouble() * cumulative[cumulative.length - 1];
+    int index = Arrays.binarySearch(cumulative, u);
+    return index >= 0 ? index : Math.min(-index - 1, cumulative.length - 1);
+  }
+
+}
@@ -11,7 +11,7 @@ public abstract class BaseIntegrationTest {
 
   @Container
   @ServiceConnection
-  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17.4")
+  protected static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17.4")
     .withDatabaseName("bookkeeping")
     .withMinimumRunningDuration(Duration.ofSeconds(5L));
 
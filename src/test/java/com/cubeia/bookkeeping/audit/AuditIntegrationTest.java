@@ -0,0 +1,170 @@
+package com.cubeia.bookkeeping.audit;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cubeia.bookkeeping.BaseIntegrationTest;
+import com.cubeia.bookkeeping.audit.AuditFinding.Type;
+import com.cubeia.bookkeeping.audit.AuditStatus.State;
+import com.cubeia.bookkeeping.partition.PartitionRepository;
+import com.cubeia.bookkeeping.partition.PartitionedTable;
+import com.cubeia.bookkeeping.wallet.CreateWalletInput;
+import com.cubeia.bookkeeping.wallet.CreateWalletOutput;
+import com.cubeia.bookkeeping.wallet.ShardWalletInput;
+import com.cubeia.bookkeeping.wallet.TransferInput;
+
+// The database is shared with the other tests, so the assertions only look at findings for the
+// test's own wallets
+class AuditIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcClient jdbcClient;
+
+    @Autowired
+    private PartitionRepository partitionRepository;
+
+    private UUID createWallet(String amount) {
+        CreateWalletInput input = new CreateWalletInput("audit-" + UUID.randomUUID() + "@example.com",
+                new BigDecimal(amount));
+        return restTemplate.postForObject("/wallets", input, CreateWalletOutput.class).id();
+    }
+
+    private void transfer(UUID from, UUID to, String amount) {
+        ResponseEntity<String> response = restTemplate.postForEntity("/transactions/transfer",
+                new TransferInput(from, to, new BigDecimal(amount)), String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    private AuditStatus runAudit() throws InterruptedException {
+        ResponseEntity<AuditStatus> started = restTemplate.postForEntity("/audits", null, AuditStatus.class);
+        assertEquals(HttpStatus.ACCEPTED, started.getStatusCode());
+        AuditStatus status = started.getBody();
+        for (int i = 0; i < 600 && status.state() == State.RUNNING; i++) {
+            Thread.sleep(100);
+            status = restTemplate.getForObject("/audits/" + status.id(), AuditStatus.class);
+        }
+        assertEquals(State.COMPLETED, status.state(), status.error());
+        return status;
+    }
+
+    private static List<AuditFinding> findings(AuditStatus status, UUID walletId) {
+        return status.findings().stream().filter(finding -> finding.walletId().equals(walletId)).toList();
+    }
+
+    @Test
+    void audit_OfConsistentWallets_ShouldFindNothing() throws InterruptedException {
+        UUID source = createWallet("100");
+        UUID target = createWallet("5");
+        transfer(source, target, "30");
+        transfer(target, source, "10");
+
+        AuditStatus status = runAudit();
+
+        assertEquals(status.ranges(), status.completedRanges());
+        assertTrue(status.wallets() >= 2);
+        assertTrue(status.entries() >= 6);
+        assertTrue(findings(status, source).isEmpty());
+        assertTrue(findings(status, target).isEmpty());
+    }
+
+    @Test
+    void audit_OfShardedWallet_ShouldOnlyCheckItsBalance() throws InterruptedException {
+        UUID house = createWallet("100");
+        UUID player = createWallet("10");
+        restTemplate.put("/wallets/{id}/shards", new ShardWalletInput(4), house);
+        // Running balances of the shards, the second one pools them all for a rebalance
+        transfer(house, player, "20");
+        transfer(house, player, "60");
+        transfer(player, house, "5");
+
+        AuditStatus status = runAudit();
+
+        assertTrue(findings(status, house).isEmpty());
+        assertTrue(findings(status, player).isEmpty());
+
+        jdbcClient.sql("UPDATE mng.wallet_shard SET balance = balance + 7 WHERE wallet_id = ? AND shard = 0")
+                .param(house)
+                .update();
+
+        assertEquals(List.of(new AuditFinding(Type.BALANCE_MISMATCH, house, null, 25, 32, true)),
+                findings(runAudit(), house));
+    }
+
+    @Test
+    void audit_ShouldReportBalanceMismatchesAndRunningBalanceBreaks() throws InterruptedException {
+        UUID drifted = createWallet("100");
+        UUID broken = createWallet("50");
+        transfer(drifted, broken, "20");
+        transfer(broken, drifted, "5");
+        jdbcClient.sql("UPDATE mng.wallet SET balance = balance + 7 WHERE id = ?").param(drifted).update();
+        UUID corrupted = jdbcClient.sql("""
+                        UPDATE gnl.ledger SET running_balance = running_balance + 3
+                        WHERE id = (SELECT id FROM gnl.ledger WHERE wallet_id = ? ORDER BY created_at, id
+                                    OFFSET 1 LIMIT 1)
+                        RETURNING id""")
+                .param(broken)
+                .query(UUID.class)
+                .single();
+        UUID next = jdbcClient.sql("SELECT id FROM gnl.ledger WHERE wallet_id = ? ORDER BY created_at, id OFFSET 2")
+                .param(broken)
+                .query(UUID.class)
+                .single();
+
+        AuditStatus status = runAudit();
+
+        assertEquals(List.of(new AuditFinding(Type.BALANCE_MISMATCH, drifted, null, 85, 92, false)),
+                findings(status, drifted));
+        // The corrupted running balance breaks the chain both into and out of its entry, the wallet
+        // balance still matches the sum of the amounts
+        assertEquals(List.of(
+                new AuditFinding(Type.RUNNING_BALANCE_BREAK, broken, corrupted, 50, 53, false),
+                new AuditFinding(Type.RUNNING_BALANCE_BREAK, broken, next, 73, 70, false)
+        ), findings(status, broken));
+        assertTrue(status.balanceMismatches() >= 1);
+        assertTrue(status.runningBalanceBreaks() >= 2);
+    }
+
+    @Test
+    void audit_OfWalletWithArchivedHistory_ShouldReadTheArchivedEntries() throws InterruptedException {
+        UUID wallet = createWallet("10");
+        // An older entry the opening entry's running balance continues from, in a partition archived since
+        YearMonth month = YearMonth.of(2002, 1);
+        partitionRepository.createPartition(PartitionedTable.LEDGER, month);
+        try {
+            jdbcClient.sql("INSERT INTO gnl.ledger (id, transaction_id, wallet_id, amount, running_balance, created_at) "
+                            + "VALUES (?, ?, ?, 5, 5, ?)")
+                    .params(UUID.randomUUID(), UUID.randomUUID(), wallet,
+                            OffsetDateTime.of(2002, 1, 15, 12, 0, 0, 0, ZoneOffset.UTC))
+                    .update();
+            jdbcClient.sql("UPDATE mng.wallet SET balance = balance + 5 WHERE id = ?").param(wallet).update();
+            jdbcClient.sql("UPDATE gnl.ledger SET running_balance = running_balance + 5 WHERE wallet_id = ? "
+                            + "AND created_at > '2002-02-01'")
+                    .param(wallet)
+                    .update();
+            partitionRepository.detachPartition(PartitionedTable.LEDGER, month);
+            partitionRepository.archivePartition(PartitionedTable.LEDGER, month, "archive");
+
+            assertTrue(findings(runAudit(), wallet).isEmpty());
+        } finally {
+            jdbcClient.sql("DROP TABLE IF EXISTS archive." + PartitionedTable.LEDGER.partitionName(month)).update();
+            jdbcClient.sql("DROP TABLE IF EXISTS gnl." + PartitionedTable.LEDGER.partitionName(month)).update();
+        }
+    }
+
+}
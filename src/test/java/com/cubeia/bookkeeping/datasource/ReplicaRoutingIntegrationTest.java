@@ -0,0 +1,119 @@
+package com.cubeia.bookkeeping.datasource;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import com.cubeia.bookkeeping.BaseIntegrationTest;
+
+// The test database stands in for a replica in sync, by putting a schema of fake recovery functions
+// ahead of pg_catalog on its connections. Next to it are the primary as it is, which is not in
+// recovery, and a replica nothing listens on. Replica connections are told apart from the
+// primary's by their application name.
+@TestPropertySource(properties = {
+        "bookkeeping.datasource.replicas.enabled=true",
+        "bookkeeping.datasource.replicas.maximum-pool-size=2",
+        "bookkeeping.datasource.replicas.connection-timeout=250ms",
+        "bookkeeping.datasource.replicas.lag-check-interval=PT1H",
+        "spring.datasource.hikari.maximum-pool-size=3"
+})
+@DirtiesContext
+class ReplicaRoutingIntegrationTest extends BaseIntegrationTest {
+
+    @DynamicPropertySource
+    static void replicas(DynamicPropertyRegistry registry) {
+        registry.add("bookkeeping.datasource.replicas.urls[0]",
+                () -> postgres.getJdbcUrl() + "&currentSchema=standby,pg_catalog");
+        registry.add("bookkeeping.datasource.replicas.urls[1]", postgres::getJdbcUrl);
+        registry.add("bookkeeping.datasource.replicas.urls[2]",
+                () -> "jdbc:postgresql://localhost:1/bookkeeping");
+    }
+
+    @Autowired
+    private ReplicaPool replicaPool;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcClient jdbcClient;
+
+    @BeforeEach
+    void checkLag() {
+        jdbcClient.sql("""
+                CREATE SCHEMA IF NOT EXISTS standby;
+                CREATE OR REPLACE FUNCTION standby.pg_is_in_recovery() RETURNS boolean
+                  LANGUAGE sql AS 'SELECT true';
+                CREATE OR REPLACE FUNCTION standby.pg_last_wal_receive_lsn() RETURNS pg_lsn
+                  LANGUAGE sql AS 'SELECT ''0/1000''::pg_lsn';
+                CREATE OR REPLACE FUNCTION standby.pg_last_wal_replay_lsn() RETURNS pg_lsn
+                  LANGUAGE sql AS 'SELECT ''0/1000''::pg_lsn';
+                DROP TABLE IF EXISTS standby.pg_stat_wal_receiver;
+                CREATE TABLE standby.pg_stat_wal_receiver AS SELECT 'streaming' AS status;
+                """).update();
+        replicaPool.checkLag();
+    }
+
+    @AfterAll
+    static void dropStandby(@Autowired JdbcClient jdbcClient) {
+        jdbcClient.sql("DROP SCHEMA standby CASCADE").update();
+    }
+
+    private String applicationName() {
+        return jdbcClient.sql("SELECT current_setting('application_name')").query(String.class).single();
+    }
+
+    private String applicationName(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> applicationName());
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldReadFromReplicaInRotation() {
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica-0", applicationName(true));
+        }
+    }
+
+    @Test
+    void lagCheck_ShouldTakeServerNotInRecoveryOutOfRotation() {
+        for (int i = 0; i < 4; i++) {
+            assertNotEquals("replica-1", applicationName(true));
+        }
+    }
+
+    @Test
+    void lagCheck_ShouldTakeDisconnectedReplicaOutOfRotation() {
+        jdbcClient.sql("UPDATE standby.pg_stat_wal_receiver SET status = 'waiting'").update();
+        replicaPool.checkLag();
+
+        assertNotEquals("replica-0", applicationName(true));
+    }
+
+    @Test
+    void readWriteTransaction_ShouldUsePrimary() {
+        assertNotEquals("replica-0", applicationName(false));
+    }
+
+    @Test
+    void readOnlyTransaction_WithReadYourWrites_ShouldUsePrimary() {
+        assertNotEquals("replica-0", ReadYourWrites.call(() -> applicationName(true)));
+    }
+
+    @Test
+    void readOutsideTransaction_ShouldUsePrimary() {
+        assertNotEquals("replica-0", applicationName());
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.cubeia.bookkeeping.ledger;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cubeia.bookkeeping.BaseIntegrationTest;
+import com.cubeia.bookkeeping.wallet.CreateWalletInput;
+import com.cubeia.bookkeeping.wallet.CreateWalletOutput;
+import com.cubeia.bookkeeping.wallet.TransferInput;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// A fetch size below the number of entries makes the export go through several fetches and flushes
+@TestPropertySource(properties = "bookkeeping.ledger.export.fetch-size=2")
+class LedgerExportIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private UUID createWallet(BigDecimal amount) {
+        CreateWalletInput input = new CreateWalletInput("test-" + UUID.randomUUID() + "@example.com", amount);
+        return restTemplate.postForObject("/wallets", input, CreateWalletOutput.class).id();
+    }
+
+    private UUID createWalletWithTransfers(int transfers) {
+        UUID source = createWallet(new BigDecimal("100"));
+        UUID target = createWallet(new BigDecimal("1"));
+        for (int i = 0; i < transfers; i++) {
+            ResponseEntity<String> response = restTemplate.postForEntity("/transactions/transfer",
+                    new TransferInput(source, target, new BigDecimal("10")), String.class);
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+        }
+        return source;
+    }
+
+    private List<JsonNode> exportNdjson(String uri) throws Exception {
+        ResponseEntity<String> response = restTemplate.getForEntity(uri, String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(MediaType.APPLICATION_NDJSON.isCompatibleWith(response.getHeaders().getContentType()));
+        if (response.getBody() == null) {
+            return List.of();
+        }
+        List<JsonNode> entries = new ArrayList<>();
+        for (String line : response.getBody().split("\n")) {
+            entries.add(objectMapper.readTree(line));
+        }
+        return entries;
+    }
+
+    @Test
+    void exportLedger_AsNdjson_ShouldStreamAllEntriesOldestFirst() throws Exception {
+        UUID walletId = createWalletWithTransfers(5);
+
+        List<JsonNode> entries = exportNdjson("/wallets/" + walletId + "/ledger/export");
+
+        assertEquals(6, entries.size());
+        assertEquals(100, entries.get(0).get("amount").asLong());
+        assertEquals(100, entries.get(0).get("runningBalance").asLong());
+        for (int i = 1; i < entries.size(); i++) {
+            assertEquals(-10, entries.get(i).get("amount").asLong());
+            assertEquals(100 - 10 * i, entries.get(i).get("runningBalance").asLong());
+            assertEquals(walletId.toString(), entries.get(i).get("walletId").asText());
+        }
+    }
+
+    @Test
+    void exportLedger_AsCsv_ShouldWriteHeaderAndOneLinePerEntry() {
+        UUID walletId = createWalletWithTransfers(3);
+
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "/wallets/" + walletId + "/ledger/export?format=CSV", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("text/csv", response.getHeaders().getContentType().toString());
+        assertTrue(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION).contains(".csv"));
+        String[] lines = response.getBody().split("\n");
+        assertEquals(5, lines.length);
+        assertEquals("id,transactionId,walletId,amount,runningBalance,createdAt", lines[0]);
+        String[] last = lines[4].split(",");
+        assertEquals(walletId.toString(), last[2]);
+        assertEquals("-10", last[3]);
+        assertEquals("70", last[4]);
+    }
+
+    @Test
+    void exportLedger_WithTimeRange_ShouldOnlyIncludeEntriesInRange() throws Exception {
+        UUID walletId = createWalletWithTransfers(3);
+        List<JsonNode> entries = exportNdjson("/wallets/" + walletId + "/ledger/export");
+        String second = entries.get(1).get("createdAt").asText();
+
+        List<JsonNode> fromSecond = exportNdjson("/wallets/" + walletId + "/ledger/export?from=" + second);
+        List<JsonNode> toSecond = exportNdjson("/wallets/" + walletId + "/ledger/export?to=" + second);
+
+        assertEquals(3, fromSecond.size());
+        assertEquals(entries.get(1).get("id"), fromSecond.get(0).get("id"));
+        assertEquals(1, toSecond.size());
+        assertEquals(entries.get(0).get("id"), toSecond.get(0).get("id"));
+    }
+
+    @Test
+    void exportLedger_WithUnknownWallet_ShouldReturnNotFound() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "/wallets/" + UUID.randomUUID() + "/ledger/export", String.class);
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void exportLedger_WithEmptyTimeRange_ShouldReturnBadRequest() {
+        UUID walletId = createWallet(new BigDecimal("1"));
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "/wallets/" + walletId + "/ledger/export?from=2025-01-02T00:00:00Z&to=2025-01-01T00:00:00Z",
+                String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+}
@@ -0,0 +1,85 @@
+package com.cubeia.bookkeeping.limiter;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdaptiveLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AdaptiveLimiter limiter(int initialLimit) {
+        return new AdaptiveLimiter("test",
+                new ConcurrencyLimitProperties.Limit(initialLimit, 2, 50, 2.0, 0.5), meterRegistry);
+    }
+
+    // Admits a full limit of requests and releases them all with the given latency
+    private void round(AdaptiveLimiter limiter, long latencyNanos, boolean dropped) {
+        int admitted = 0;
+        while (limiter.tryAcquire()) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            limiter.release(latencyNanos, dropped);
+        }
+    }
+
+    @Test
+    void tryAcquire_OverTheLimit_ShouldRejectUntilReleased() {
+        AdaptiveLimiter limiter = limiter(2);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1, meterRegistry.get("bookkeeping.concurrency-limit.rejected").counter().count());
+
+        limiter.release(FAST, false);
+        assertTrue(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void release_WithSteadyLatency_ShouldGrowAUsedLimit() {
+        AdaptiveLimiter limiter = limiter(10);
+
+        for (int i = 0; i < 20; i++) {
+            round(limiter, FAST, false);
+        }
+
+        assertTrue(limiter.getLimit() > 10, "limit " + limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void release_WithRisingLatency_ShouldCutTheLimit() {
+        AdaptiveLimiter limiter = limiter(20);
+        round(limiter, FAST, false);
+        int limitBefore = limiter.getLimit();
+
+        for (int i = 0; i < 3; i++) {
+            round(limiter, SLOW, false);
+        }
+
+        assertTrue(limiter.getLimit() < limitBefore, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    void release_WhenDropped_ShouldCutTheLimitDownToTheMinimum() {
+        AdaptiveLimiter limiter = limiter(20);
+
+        for (int i = 0; i < 10; i++) {
+            round(limiter, FAST, true);
+        }
+
+        assertEquals(2, limiter.getLimit());
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.cubeia.bookkeeping.limiter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cubeia.bookkeeping.BaseIntegrationTest;
+import com.cubeia.bookkeeping.wallet.CreateWalletInput;
+import com.cubeia.bookkeeping.wallet.CreateWalletOutput;
+import com.cubeia.bookkeeping.wallet.TransferInput;
+
+// The limits are held at one, the tests take that permit themselves to saturate them
+@TestPropertySource(properties = {
+        "bookkeeping.concurrency-limit.enabled=true",
+        "bookkeeping.concurrency-limit.transfers.initial-limit=1",
+        "bookkeeping.concurrency-limit.transfers.min-limit=1",
+        "bookkeeping.concurrency-limit.transfers.max-limit=1",
+        "bookkeeping.concurrency-limit.reads.initial-limit=1",
+        "bookkeeping.concurrency-limit.reads.min-limit=1",
+        "bookkeeping.concurrency-limit.reads.max-limit=1",
+        "spring.datasource.hikari.maximum-pool-size=3"
+})
+@DirtiesContext
+class ConcurrencyLimitIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    @Qualifier("transferLimiter")
+    private AdaptiveLimiter transferLimiter;
+
+    @Autowired
+    @Qualifier("readLimiter")
+    private AdaptiveLimiter readLimiter;
+
+    private UUID createWallet(String amount) {
+        return restTemplate.postForObject("/wallets",
+                new CreateWalletInput("limit-" + UUID.randomUUID() + "@example.com", new BigDecimal(amount)),
+                CreateWalletOutput.class).id();
+    }
+
+    private ResponseEntity<String> transfer(UUID from, UUID to) {
+        return restTemplate.postForEntity("/transactions/transfer",
+                new TransferInput(from, to, BigDecimal.ONE), String.class);
+    }
+
+    @Test
+    void transfer_OverTheLimit_ShouldBeShedWhileReadsStillPass() {
+        UUID source = createWallet("10");
+        UUID destination = createWallet("10");
+
+        assertEquals(HttpStatus.OK, transfer(source, destination).getStatusCode());
+
+        assertTrue(transferLimiter.tryAcquire());
+        try {
+            ResponseEntity<String> shed = transfer(source, destination);
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, shed.getStatusCode());
+            assertEquals("1", shed.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+            assertEquals(HttpStatus.OK,
+                    restTemplate.getForEntity("/wallets/" + source + "/balance", String.class).getStatusCode());
+        } finally {
+            transferLimiter.release(0, false);
+        }
+
+        assertEquals(HttpStatus.OK, transfer(source, destination).getStatusCode());
+        assertEquals(0, transferLimiter.getInFlight());
+    }
+
+    @Test
+    void hotWallets_ShouldNotBeShedWithTheReads() {
+        UUID wallet = createWallet("10");
+
+        assertTrue(readLimiter.tryAcquire());
+        try {
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE,
+                    restTemplate.getForEntity("/transactions/" + wallet, String.class).getStatusCode());
+            assertEquals(HttpStatus.OK,
+                    restTemplate.getForEntity("/transactions/hot-wallets", String.class).getStatusCode());
+        } finally {
+            readLimiter.release(0, false);
+        }
+    }
+
+}
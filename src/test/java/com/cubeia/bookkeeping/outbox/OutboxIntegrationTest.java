@@ -0,0 +1,155 @@
+package com.cubeia.bookkeeping.outbox;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cubeia.bookkeeping.BaseIntegrationTest;
+import com.cubeia.bookkeeping.transaction.TransactionResult;
+import com.cubeia.bookkeeping.wallet.CreateWalletInput;
+import com.cubeia.bookkeeping.wallet.CreateWalletOutput;
+import com.cubeia.bookkeeping.wallet.TransferInput;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// The file is kept across runs, events are looked up by the wallets each test creates
+@TestPropertySource(properties = {
+        "bookkeeping.outbox.enabled=true",
+        "bookkeeping.outbox.sink=file",
+        "bookkeeping.outbox.file=target/outbox-transfer-events.ndjson",
+        "spring.datasource.hikari.maximum-pool-size=3"
+})
+@DirtiesContext
+class OutboxIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcClient jdbcClient;
+
+    @Autowired
+    private OutboxProperties outboxProperties;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    private UUID createWallet(String amount) {
+        CreateWalletInput input = new CreateWalletInput("outbox-" + UUID.randomUUID() + "@example.com",
+                new BigDecimal(amount));
+        return restTemplate.postForObject("/wallets", input, CreateWalletOutput.class).id();
+    }
+
+    private UUID transfer(UUID from, UUID to, String amount) {
+        ResponseEntity<TransactionResult> response = restTemplate.postForEntity("/transactions/transfer",
+                new TransferInput(from, to, new BigDecimal(amount)), TransactionResult.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody().transactionId();
+    }
+
+    private List<TransferEvent> deliveredEvents(UUID walletId) throws IOException {
+        List<TransferEvent> events = new ArrayList<>();
+        if (!Files.exists(outboxProperties.file())) {
+            return events;
+        }
+        for (String line : Files.readAllLines(outboxProperties.file())) {
+            TransferEvent event = objectMapper.readValue(line, TransferEvent.class);
+            if (walletId.equals(event.fromId()) || walletId.equals(event.toId())) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    private List<TransferEvent> awaitEvents(UUID walletId, int count) throws Exception {
+        List<TransferEvent> events = deliveredEvents(walletId);
+        for (int i = 0; i < 100 && events.size() < count; i++) {
+            outboxRelay.relay();
+            Thread.sleep(100);
+            events = deliveredEvents(walletId);
+        }
+        return events;
+    }
+
+    @Test
+    void transfers_ShouldBeDeliveredInOrderPerWallet() throws Exception {
+        UUID source = createWallet("100");
+        UUID target = createWallet("1");
+        UUID first = transfer(source, target, "30");
+        UUID second = transfer(target, source, "10");
+        UUID third = transfer(source, target, "5");
+
+        List<TransferEvent> events = awaitEvents(source, 4);
+
+        assertEquals(4, events.size());
+        assertNull(events.get(0).fromId());
+        assertEquals(100, events.get(0).amount());
+        assertEquals(List.of(first, second, third),
+                events.subList(1, 4).stream().map(TransferEvent::transactionId).toList());
+        assertEquals(List.of(source, target, source),
+                events.subList(1, 4).stream().map(TransferEvent::fromId).toList());
+        assertTrue(events.get(1).sequence() < events.get(2).sequence());
+        assertTrue(events.get(2).sequence() < events.get(3).sequence());
+        assertEquals(0, jdbcClient.sql("SELECT count(*) FROM txn.outbox WHERE transaction_id IN (?, ?, ?)")
+                .params(first, second, third)
+                .query(Long.class)
+                .single());
+    }
+
+    @Test
+    void failedTransfer_ShouldRecordNoEvent() throws Exception {
+        UUID source = createWallet("10");
+        UUID target = createWallet("1");
+
+        ResponseEntity<String> response = restTemplate.postForEntity("/transactions/transfer",
+                new TransferInput(source, target, new BigDecimal("50")), String.class);
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        UUID delivered = transfer(source, target, "5");
+
+        List<TransferEvent> events = awaitEvents(source, 2);
+
+        assertEquals(2, events.size());
+        assertEquals(delivered, events.get(1).transactionId());
+    }
+
+    @Test
+    void disabledRelay_ShouldRecordNoEvents() throws Exception {
+        assertTrue(outboxRepository.isRecording());
+        try {
+            new OutboxRecording(outboxRepository, new OutboxProperties(false, 500, null, null)).afterPropertiesSet();
+            UUID wallet = createWallet("10");
+            outboxRelay.relay();
+
+            // Read in this order, a relay that delivers the event in between leaves it in the file
+            assertEquals(0, jdbcClient.sql("SELECT count(*) FROM txn.outbox WHERE to_id = ?")
+                    .param(wallet)
+                    .query(Long.class)
+                    .single());
+            assertEquals(List.of(), deliveredEvents(wallet));
+        } finally {
+            new OutboxRecording(outboxRepository, outboxProperties).afterPropertiesSet();
+        }
+        assertTrue(outboxRepository.isRecording());
+    }
+
+}
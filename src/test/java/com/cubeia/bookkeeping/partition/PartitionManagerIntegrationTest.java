@@ -0,0 +1,159 @@
+package com.cubeia.bookkeeping.partition;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.BindException;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.context.TestPropertySource;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cubeia.bookkeeping.BaseIntegrationTest;
+import com.cubeia.bookkeeping.wallet.CreateWalletInput;
+import com.cubeia.bookkeeping.wallet.CreateWalletOutput;
+
+@TestPropertySource(properties = "bookkeeping.partitioning.retention=12m")
+class PartitionManagerIntegrationTest extends BaseIntegrationTest {
+
+    private static final YearMonth ARCHIVED_MONTH = YearMonth.of(2001, 1);
+
+    @Autowired
+    private PartitionManager partitionManager;
+
+    @Autowired
+    private PartitionRepository partitionRepository;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcClient jdbcClient;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @AfterEach
+    void dropArchivedPartitions() {
+        for (PartitionedTable table : PartitionedTable.values()) {
+            jdbcClient.sql("DROP TABLE IF EXISTS archive." + table.partitionName(ARCHIVED_MONTH)).update();
+            jdbcClient.sql("DROP TABLE IF EXISTS " + table.schema() + "." + table.partitionName(ARCHIVED_MONTH))
+                    .update();
+        }
+    }
+
+    @Test
+    void maintainPartitions_ShouldKeepPartitionsForTheComingMonths() {
+        partitionManager.maintainPartitions();
+
+        YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+        for (PartitionedTable table : PartitionedTable.values()) {
+            var months = partitionRepository.getPartitionMonths(table);
+            for (int i = 0; i <= 3; i++) {
+                assertTrue(months.contains(currentMonth.plusMonths(i)), table + " " + currentMonth.plusMonths(i));
+            }
+        }
+    }
+
+    @Test
+    void maintainPartitions_ShouldArchivePartitionsPastRetention() {
+        UUID walletId = restTemplate.postForObject("/wallets",
+                new CreateWalletInput("partition-" + UUID.randomUUID() + "@example.com", new BigDecimal("10")),
+                CreateWalletOutput.class).id();
+        partitionRepository.createPartition(PartitionedTable.LEDGER, ARCHIVED_MONTH);
+        UUID ledgerId = UUID.randomUUID();
+        jdbcClient.sql("INSERT INTO gnl.ledger (id, transaction_id, wallet_id, amount, running_balance, created_at) "
+                        + "VALUES (?, ?, ?, 10, 10, ?)")
+                .param(ledgerId)
+                .param(UUID.randomUUID())
+                .param(walletId)
+                .param(OffsetDateTime.of(2001, 1, 15, 12, 0, 0, 0, ZoneOffset.UTC))
+                .update();
+
+        partitionManager.maintainPartitions();
+
+        assertFalse(partitionRepository.getPartitionMonths(PartitionedTable.LEDGER).contains(ARCHIVED_MONTH));
+        assertEquals(0, count("SELECT count(*) FROM gnl.ledger WHERE id = ?", ledgerId));
+        assertEquals(1, count("SELECT count(*) FROM archive." + PartitionedTable.LEDGER.partitionName(ARCHIVED_MONTH)
+                + " WHERE id = ?", ledgerId));
+        assertTrue(partitionRepository.getPartitionMonths(PartitionedTable.LEDGER)
+                .contains(YearMonth.now(ZoneOffset.UTC)));
+    }
+
+    @Test
+    void maintainPartitions_ShouldArchivePartitionLeftDetached() {
+        partitionRepository.createPartition(PartitionedTable.LEDGER, ARCHIVED_MONTH);
+        partitionRepository.detachPartition(PartitionedTable.LEDGER, ARCHIVED_MONTH);
+
+        partitionManager.maintainPartitions();
+
+        assertEquals(List.of(), partitionRepository.getDetachedMonths(PartitionedTable.LEDGER));
+        assertTrue(archived(PartitionedTable.LEDGER));
+    }
+
+    @Test
+    void maintainPartitions_ShouldFinalizeInterruptedDetach() throws Exception {
+        partitionRepository.createPartition(PartitionedTable.TRANSACTION, ARCHIVED_MONTH);
+
+        // The detach waits for the open transaction to finish with the parent and is cancelled there
+        try (Connection reader = dataSource.getConnection()) {
+            reader.setAutoCommit(false);
+            reader.createStatement().execute("SELECT count(*) FROM txn.transaction WHERE false");
+            var detach = CompletableFuture.runAsync(
+                    () -> partitionRepository.detachPartition(PartitionedTable.TRANSACTION, ARCHIVED_MONTH));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!partitionRepository.getPendingDetachMonths(PartitionedTable.TRANSACTION).contains(ARCHIVED_MONTH)
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            jdbcClient.sql("SELECT pg_cancel_backend(pid) FROM pg_stat_activity WHERE query LIKE '%DETACH PARTITION%'"
+                            + " AND pid <> pg_backend_pid()")
+                    .query(Boolean.class).list();
+            assertThrows(ExecutionException.class, () -> detach.get(10, TimeUnit.SECONDS));
+            reader.rollback();
+        }
+        assertEquals(List.of(ARCHIVED_MONTH), partitionRepository.getPendingDetachMonths(PartitionedTable.TRANSACTION));
+
+        partitionManager.maintainPartitions();
+
+        assertEquals(List.of(), partitionRepository.getPendingDetachMonths(PartitionedTable.TRANSACTION));
+        assertTrue(archived(PartitionedTable.TRANSACTION));
+    }
+
+    @Test
+    void retention_WithDays_ShouldBeRejected() {
+        var binder = new Binder(new MapConfigurationPropertySource(Map.of("bookkeeping.partitioning.retention", "P30D")));
+
+        assertThrows(BindException.class, () -> binder.bind("bookkeeping.partitioning", PartitioningProperties.class));
+    }
+
+    private boolean archived(PartitionedTable table) {
+        return jdbcClient.sql("SELECT to_regclass(?) IS NOT NULL")
+                .param("archive." + table.partitionName(ARCHIVED_MONTH))
+                .query(Boolean.class)
+                .single();
+    }
+
+    private long count(String sql, UUID id) {
+        return jdbcClient.sql(sql).param(id).query(Long.class).single();
+    }
+
+}
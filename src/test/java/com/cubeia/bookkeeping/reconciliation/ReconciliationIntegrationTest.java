@@ -0,0 +1,116 @@
+package com.cubeia.bookkeeping.reconciliation;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.context.TestPropertySource;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cubeia.bookkeeping.BaseIntegrationTest;
+import com.cubeia.bookkeeping.wallet.CreateWalletInput;
+import com.cubeia.bookkeeping.wallet.CreateWalletOutput;
+import com.cubeia.bookkeeping.wallet.TransferInput;
+
+// Runs are triggered by the tests, other cached contexts may still reconcile in between, so the
+// assertions look at checkpoints and drifts of the test's own wallets rather than at the latest run
+@TestPropertySource(properties = "bookkeeping.reconciliation.enabled=false")
+class ReconciliationIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcClient jdbcClient;
+
+    private UUID createWallet(String amount) {
+        CreateWalletInput input = new CreateWalletInput("reconcile-" + UUID.randomUUID() + "@example.com",
+                new BigDecimal(amount));
+        return restTemplate.postForObject("/wallets", input, CreateWalletOutput.class).id();
+    }
+
+    private void transfer(UUID from, UUID to, String amount) {
+        ResponseEntity<String> response = restTemplate.postForEntity("/transactions/transfer",
+                new TransferInput(from, to, new BigDecimal(amount)), String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    private ReconciliationReport runReconciliation() {
+        ResponseEntity<ReconciliationReport> response = restTemplate.postForEntity("/reconciliation/runs", null,
+                ReconciliationReport.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody();
+    }
+
+    private long checkpointBalance(UUID walletId) {
+        return jdbcClient.sql("SELECT balance FROM gnl.reconciliation_checkpoint WHERE wallet_id = ?")
+                .param(walletId)
+                .query(Long.class)
+                .single();
+    }
+
+    private List<WalletDrift> drifts(UUID walletId) {
+        return jdbcClient.sql("SELECT wallet_id, ledger_balance, wallet_balance FROM gnl.reconciliation_drift "
+                        + "WHERE wallet_id = ?")
+                .param(walletId)
+                .query((rs, rowNum) -> new WalletDrift(rs.getObject(1, UUID.class), rs.getLong(2), rs.getLong(3)))
+                .list();
+    }
+
+    @Test
+    void reconcile_ShouldCheckpointBalancesOfWalletsWithNewEntries() {
+        UUID source = createWallet("100");
+        UUID target = createWallet("5");
+        transfer(source, target, "30");
+
+        ReconciliationReport report = runReconciliation();
+
+        assertNotNull(report.run());
+        assertEquals(70, checkpointBalance(source));
+        assertEquals(35, checkpointBalance(target));
+        assertTrue(drifts(source).isEmpty());
+
+        transfer(target, source, "10");
+        runReconciliation();
+
+        assertEquals(80, checkpointBalance(source));
+        assertEquals(25, checkpointBalance(target));
+        assertTrue(drifts(target).isEmpty());
+    }
+
+    @Test
+    void reconcile_WhenBalanceChangedWithoutLedgerEntry_ShouldReportDrift() {
+        UUID source = createWallet("100");
+        UUID target = createWallet("1");
+        runReconciliation();
+
+        jdbcClient.sql("UPDATE mng.wallet SET balance = balance + 5 WHERE id = ?").param(source).update();
+        transfer(source, target, "10");
+        runReconciliation();
+
+        assertEquals(List.of(new WalletDrift(source, 90, 95)), drifts(source));
+        assertTrue(drifts(target).isEmpty());
+        assertEquals(90, checkpointBalance(source));
+    }
+
+    @Test
+    void getReport_ShouldReturnLatestRun() {
+        runReconciliation();
+
+        ResponseEntity<ReconciliationReport> response = restTemplate.getForEntity("/reconciliation/report",
+                ReconciliationReport.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody().run().horizon());
+        assertNotNull(response.getBody().drifts());
+    }
+
+}
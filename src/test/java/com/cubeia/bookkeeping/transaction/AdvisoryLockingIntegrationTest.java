@@ -0,0 +1,13 @@
+package com.cubeia.bookkeeping.transaction;
+
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = {
+        "bookkeeping.transfer.locking=advisory-lock",
+        "spring.datasource.hikari.maximum-pool-size=5"
+})
+@DirtiesContext
+class AdvisoryLockingIntegrationTest extends WalletLockingIntegrationTest {
+
+}
@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -12,15 +13,24 @@ import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.cubeia.bookkeeping.BaseIntegrationTest;
+import com.cubeia.bookkeeping.wallet.BatchTransferInput;
 import com.cubeia.bookkeeping.wallet.CreateWalletInput;
 import com.cubeia.bookkeeping.wallet.CreateWalletOutput;
+import com.cubeia.bookkeeping.wallet.ShardWalletInput;
 import com.cubeia.bookkeeping.wallet.TransferInput;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -33,6 +43,12 @@ class TransactionConcurrencyIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private JdbcClient jdbcClient;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private String generateUniqueEmail() {
         return "test-" + UUID.randomUUID() + "@example.com";
     }
@@ -219,4 +235,159 @@ class TransactionConcurrencyIntegrationTest extends BaseIntegrationTest {
         executorService.shutdown();
         executorService.awaitTermination(5, TimeUnit.SECONDS);
     }
-} 
\ No newline at end of file
+
+    @Test
+    void bidirectionalBatches_BetweenShardedWallets_ShouldNotDeadlock() throws Exception {
+        CreateWalletOutput first = createWallet(new BigDecimal("400"));
+        CreateWalletOutput second = createWallet(new BigDecimal("400"));
+        // Shards of 25, so that debits of 10 often have to rebalance the wallet
+        for (CreateWalletOutput wallet : List.of(first, second)) {
+            mockMvc.perform(put("/wallets/{id}/shards", wallet.id())
+                            .contentType("application/json")
+                            .content(objectMapper.writeValueAsString(new ShardWalletInput(16))))
+                    .andExpect(status().isOk());
+        }
+
+        // Every batch debits and credits both wallets several times, in alternating order, while
+        // single transfers debit and credit one shard of each
+        BigDecimal amount = new BigDecimal("10");
+        BatchTransferInput batch = new BatchTransferInput(List.of(
+                new TransferInput(first.id(), second.id(), amount),
+                new TransferInput(second.id(), first.id(), amount),
+                new TransferInput(first.id(), second.id(), amount),
+                new TransferInput(second.id(), first.id(), amount),
+                new TransferInput(first.id(), second.id(), amount),
+                new TransferInput(second.id(), first.id(), amount)
+        ), true);
+        ExecutorService executorService = Executors.newFixedThreadPool(20);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(CompletableFuture.runAsync(() -> perform("/transactions/transfers/batch", batch),
+                    executorService));
+            futures.add(CompletableFuture.runAsync(() -> perform("/transactions/transfer",
+                    new TransferInput(first.id(), second.id(), amount)), executorService));
+            futures.add(CompletableFuture.runAsync(() -> perform("/transactions/transfer",
+                    new TransferInput(second.id(), first.id(), amount)), executorService));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .get(60, TimeUnit.SECONDS);
+
+        mockMvc.perform(get("/wallets/{id}/balance", first.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(400));
+        mockMvc.perform(get("/wallets/{id}/balance", second.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(400));
+
+        executorService.shutdown();
+        executorService.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void concurrentTransfers_WithSameIdempotencyKey_ShouldTransferOnce() throws Exception {
+        CreateWalletOutput source = createWallet(new BigDecimal("100"));
+        CreateWalletOutput target = createWallet(new BigDecimal("1"));
+        String idempotencyKey = UUID.randomUUID().toString();
+        TransferInput transferInput = new TransferInput(source.id(), target.id(), new BigDecimal("30"));
+
+        // Every request but the one that claims the key first waits on it and replays its result
+        ExecutorService executorService = Executors.newFixedThreadPool(10);
+        List<CompletableFuture<TransactionResult>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    String response = mockMvc.perform(post("/transactions/transfer")
+                                    .header(TransactionController.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                                    .contentType("application/json")
+                                    .content(objectMapper.writeValueAsString(transferInput)))
+                            .andExpect(status().isOk())
+                            .andExpect(jsonPath("$.newBalance").value(70))
+                            .andReturn()
+                            .getResponse()
+                            .getContentAsString();
+                    return objectMapper.readValue(response, TransactionResult.class);
+                } catch (Exception e) {
+                    throw new RuntimeException("Transfer failed", e);
+                }
+            }, executorService));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .get(30, TimeUnit.SECONDS);
+
+        assertEquals(1, futures.stream()
+                .map(future -> future.join().transactionId())
+                .distinct()
+                .count());
+        mockMvc.perform(get("/wallets/{id}/balance", source.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(70));
+
+        executorService.shutdown();
+        executorService.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void transfer_WhenWalletLockedLongerThanLockTimeout_ShouldReturnServiceUnavailable() throws Exception {
+        CreateWalletOutput source = createWallet(new BigDecimal("100"));
+        CreateWalletOutput target = createWallet(new BigDecimal("1"));
+
+        // Hold the row lock of the source wallet in another transaction
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcClient.sql("SELECT id FROM mng.wallet WHERE id = ? FOR UPDATE")
+                            .param(source.id())
+                            .query()
+                            .listOfRows();
+                    locked.countDown();
+                    try {
+                        release.await(30, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+
+        try {
+            locked.await(10, TimeUnit.SECONDS);
+            TransferInput transferInput = new TransferInput(source.id(), target.id(), new BigDecimal("10"));
+            mockMvc.perform(post("/transactions/transfer")
+                            .contentType("application/json")
+                            .content(objectMapper.writeValueAsString(transferInput)))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        } finally {
+            release.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+        }
+
+        mockMvc.perform(get("/wallets/{id}/balance", source.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(100));
+    }
+
+    private void perform(String uri, Object input) {
+        try {
+            mockMvc.perform(post(uri)
+                            .contentType("application/json")
+                            .content(objectMapper.writeValueAsString(input)))
+                    .andExpect(status().isOk());
+        } catch (Exception e) {
+            throw new RuntimeException("Transfer failed", e);
+        }
+    }
+
+    private CreateWalletOutput createWallet(BigDecimal amount) throws Exception {
+        CreateWalletInput input = new CreateWalletInput(generateUniqueEmail(), amount);
+        String response = mockMvc.perform(post("/wallets")
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(input)))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return objectMapper.readValue(response, CreateWalletOutput.class);
+    }
+}
@@ -1,6 +1,8 @@
 package com.cubeia.bookkeeping.transaction;
 
 import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
@@ -10,6 +12,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import com.cubeia.bookkeeping.wallet.BatchTransferInput;
 import com.cubeia.bookkeeping.wallet.TransferInput;
 
 import jakarta.validation.ConstraintViolation;
@@ -38,6 +41,18 @@ class TransactionControllerInputValidationTest {
         assertTrue(violations.isEmpty());
     }
 
+    @Test
+    void transferInput_WithFractionalAmount_ShouldFailValidation() {
+        TransferInput input = new TransferInput(
+                UUID.randomUUID(),
+                UUID.randomUUID(),
+                new BigDecimal("100.5")
+        );
+        Set<ConstraintViolation<TransferInput>> violations = validator.validate(input);
+        assertEquals(1, violations.size());
+        assertEquals("amount", violations.iterator().next().getPropertyPath().toString());
+    }
+
     @Test
     void transferInput_WithNullFromId_ShouldFailValidation() {
         TransferInput input = new TransferInput(
@@ -102,4 +117,31 @@ class TransactionControllerInputValidationTest {
         assertEquals(1, violations.size());
         assertEquals("must be greater than or equal to 1", violations.iterator().next().getMessage());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void batchTransferInput_WithNoTransfers_ShouldFailValidation() {
+        BatchTransferInput input = new BatchTransferInput(List.of(), true);
+        Set<ConstraintViolation<BatchTransferInput>> violations = validator.validate(input);
+        assertEquals(1, violations.size());
+        assertEquals("must not be empty", violations.iterator().next().getMessage());
+    }
+
+    @Test
+    void batchTransferInput_WithTooManyTransfers_ShouldFailValidation() {
+        TransferInput transfer = new TransferInput(UUID.randomUUID(), UUID.randomUUID(), new BigDecimal("1"));
+        BatchTransferInput input = new BatchTransferInput(Collections.nCopies(1001, transfer), true);
+        Set<ConstraintViolation<BatchTransferInput>> violations = validator.validate(input);
+        assertEquals(1, violations.size());
+        assertEquals("size must be between 0 and 1000", violations.iterator().next().getMessage());
+    }
+
+    @Test
+    void batchTransferInput_WithInvalidTransfer_ShouldFailValidation() {
+        BatchTransferInput input = new BatchTransferInput(List.of(
+                new TransferInput(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.ZERO)
+        ), false);
+        Set<ConstraintViolation<BatchTransferInput>> violations = validator.validate(input);
+        assertEquals(1, violations.size());
+        assertEquals("must be greater than or equal to 1", violations.iterator().next().getMessage());
+    }
+}
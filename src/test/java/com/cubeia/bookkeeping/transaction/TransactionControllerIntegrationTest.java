@@ -1,6 +1,9 @@
 package com.cubeia.bookkeeping.transaction;
 
 import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
@@ -10,14 +13,21 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.cubeia.bookkeeping.BaseIntegrationTest;
+import com.cubeia.bookkeeping.api.Cursor;
+import com.cubeia.bookkeeping.wallet.BatchTransferInput;
 import com.cubeia.bookkeeping.wallet.CreateWalletInput;
 import com.cubeia.bookkeeping.wallet.CreateWalletOutput;
 import com.cubeia.bookkeeping.wallet.TransferInput;
+import com.cubeia.bookkeeping.wallet.WalletRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.test.web.servlet.MvcResult;
 
 @AutoConfigureMockMvc
 class TransactionControllerIntegrationTest extends BaseIntegrationTest {
@@ -172,4 +182,235 @@ class TransactionControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(2));
     }
-} 
\ No newline at end of file
+
+    private CreateWalletOutput createWallet(BigDecimal amount) throws Exception {
+        CreateWalletInput input = new CreateWalletInput(generateUniqueEmail(), amount);
+        String response = mockMvc.perform(post("/wallets")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(input)))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return objectMapper.readValue(response, CreateWalletOutput.class);
+    }
+
+    @Test
+    void transferBatch_WithPerItemFailures_ShouldApplyRemainingTransfers() throws Exception {
+        CreateWalletOutput first = createWallet(new BigDecimal("100"));
+        CreateWalletOutput second = createWallet(new BigDecimal("10"));
+        CreateWalletOutput third = createWallet(new BigDecimal("1"));
+
+        BatchTransferInput batchInput = new BatchTransferInput(List.of(
+                new TransferInput(first.id(), second.id(), new BigDecimal("30")),
+                new TransferInput(second.id(), third.id(), new BigDecimal("50")),
+                new TransferInput(second.id(), third.id(), new BigDecimal("40")),
+                new TransferInput(first.id(), UUID.randomUUID(), new BigDecimal("1"))
+        ), false);
+
+        mockMvc.perform(post("/transactions/transfers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batchInput)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results.length()").value(4))
+                .andExpect(jsonPath("$.results[0].status").value("OK"))
+                .andExpect(jsonPath("$.results[0].newBalance").value(70))
+                .andExpect(jsonPath("$.results[1].status").value("INSUFFICIENT_FUNDS"))
+                .andExpect(jsonPath("$.results[2].status").value("OK"))
+                .andExpect(jsonPath("$.results[2].newBalance").value(0))
+                .andExpect(jsonPath("$.results[3].status").value("NOT_FOUND"));
+
+        mockMvc.perform(get("/wallets/{id}/balance", first.id()))
+                .andExpect(jsonPath("$.balance").value(70));
+        mockMvc.perform(get("/wallets/{id}/balance", second.id()))
+                .andExpect(jsonPath("$.balance").value(0));
+        mockMvc.perform(get("/wallets/{id}/balance", third.id()))
+                .andExpect(jsonPath("$.balance").value(41));
+
+        mockMvc.perform(get("/transactions/{walletId}", second.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3));
+    }
+
+    @Test
+    void transferBatch_WhenAtomicAndOneTransferFails_ShouldApplyNothing() throws Exception {
+        CreateWalletOutput first = createWallet(new BigDecimal("100"));
+        CreateWalletOutput second = createWallet(new BigDecimal("10"));
+
+        BatchTransferInput batchInput = new BatchTransferInput(List.of(
+                new TransferInput(first.id(), second.id(), new BigDecimal("30")),
+                new TransferInput(second.id(), first.id(), new BigDecimal("50"))
+        ), true);
+
+        mockMvc.perform(post("/transactions/transfers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batchInput)))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get("/wallets/{id}/balance", first.id()))
+                .andExpect(jsonPath("$.balance").value(100));
+        mockMvc.perform(get("/wallets/{id}/balance", second.id()))
+                .andExpect(jsonPath("$.balance").value(10));
+    }
+
+    @Test
+    void getTransactionsByWalletId_WithCursor_ShouldWalkAllTransactions() throws Exception {
+        CreateWalletOutput source = createWallet(new BigDecimal("100"));
+        CreateWalletOutput target = createWallet(new BigDecimal("1"));
+
+        for (int i = 0; i < 5; i++) {
+            TransferInput transferInput = new TransferInput(source.id(), target.id(), new BigDecimal("10"));
+            mockMvc.perform(post("/transactions/transfer")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(transferInput)))
+                    .andExpect(status().isOk());
+        }
+
+        // The initial deposit and five transfers, walked two at a time
+        Set<String> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MvcResult result = mockMvc.perform(get("/transactions/{walletId}", source.id())
+                            .param("limit", "2")
+                            .param("after", cursor == null ? "" : cursor))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode items = objectMapper.readTree(result.getResponse().getContentAsString());
+            items.forEach(item -> seen.add(item.get("id").asText()));
+            cursor = result.getResponse().getHeader(Cursor.NEXT_CURSOR_HEADER);
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(6, seen.size());
+        assertEquals(4, pages);
+    }
+
+    @Test
+    void getTransactionsByWalletId_WithLastPartialPage_ShouldNotReturnCursor() throws Exception {
+        CreateWalletOutput source = createWallet(new BigDecimal("100"));
+
+        MvcResult result = mockMvc.perform(get("/transactions/{walletId}?limit=2", source.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andReturn();
+        assertNull(result.getResponse().getHeader(Cursor.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getTransactionsByWalletId_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/transactions/{walletId}?after=not-a-cursor", UUID.randomUUID()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void transfer_WithSameIdempotencyKey_ShouldTransferOnce() throws Exception {
+        CreateWalletOutput source = createWallet(new BigDecimal("100"));
+        CreateWalletOutput target = createWallet(new BigDecimal("1"));
+        String idempotencyKey = UUID.randomUUID().toString();
+        TransferInput transferInput = new TransferInput(source.id(), target.id(), new BigDecimal("30"));
+
+        String first = mockMvc.perform(post("/transactions/transfer")
+                        .header(TransactionController.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transferInput)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.newBalance").value(70))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String retry = mockMvc.perform(post("/transactions/transfer")
+                        .header(TransactionController.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transferInput)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.readTree(first), objectMapper.readTree(retry));
+
+        mockMvc.perform(get("/wallets/{id}/balance", source.id()))
+                .andExpect(jsonPath("$.balance").value(70));
+        mockMvc.perform(get("/wallets/{id}/balance", target.id()))
+                .andExpect(jsonPath("$.balance").value(31));
+    }
+
+    @Test
+    void transfer_WithReusedIdempotencyKeyForDifferentTransfer_ShouldReturnUnprocessableEntity() throws Exception {
+        CreateWalletOutput source = createWallet(new BigDecimal("100"));
+        CreateWalletOutput target = createWallet(new BigDecimal("1"));
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        mockMvc.perform(post("/transactions/transfer")
+                        .header(TransactionController.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new TransferInput(source.id(), target.id(), new BigDecimal("30")))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/transactions/transfer")
+                        .header(TransactionController.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new TransferInput(source.id(), target.id(), new BigDecimal("31")))))
+                .andExpect(status().isUnprocessableEntity());
+
+        mockMvc.perform(get("/wallets/{id}/balance", source.id()))
+                .andExpect(jsonPath("$.balance").value(70));
+    }
+
+    @Test
+    void getTransactionsByWalletId_AfterTransfer_ShouldNotReturnCachedPage() throws Exception {
+        CreateWalletOutput source = createWallet(new BigDecimal("100"));
+        CreateWalletOutput target = createWallet(new BigDecimal("1"));
+
+        mockMvc.perform(get("/transactions/{walletId}", source.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+
+        mockMvc.perform(post("/transactions/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new TransferInput(source.id(), target.id(), new BigDecimal("10")))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/transactions/{walletId}", source.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        mockMvc.perform(get("/transactions/{walletId}?limit=1", source.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void transfer_ShouldRecordPhaseAndRepositoryMetrics() throws Exception {
+        CreateWalletOutput source = createWallet(new BigDecimal("10"));
+        CreateWalletOutput target = createWallet(new BigDecimal("1"));
+
+        mockMvc.perform(post("/transactions/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new TransferInput(source.id(), target.id(), new BigDecimal("100")))))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get("/actuator/metrics/" + TransferMetrics.TRANSFER_TIMER)
+                        .param("tag", "outcome:insufficient_funds"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/" + TransferMetrics.PHASE_TIMER)
+                        .param("tag", "phase:balance_check", "outcome:insufficient_funds"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/bookkeeping.repository")
+                        .param("tag", "class:" + WalletRepository.class.getName(), "method:lockWallet"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/hikaricp.connections.acquire"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getHotWallets_WithoutAdmission_ShouldReturnEmptyList() throws Exception {
+        mockMvc.perform(get("/transactions/hot-wallets"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+}
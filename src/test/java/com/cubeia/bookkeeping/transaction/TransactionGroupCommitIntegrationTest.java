@@ -0,0 +1,136 @@
+package com.cubeia.bookkeeping.transaction;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.cubeia.bookkeeping.BaseIntegrationTest;
+import com.cubeia.bookkeeping.wallet.CreateWalletInput;
+import com.cubeia.bookkeeping.wallet.CreateWalletOutput;
+import com.cubeia.bookkeeping.wallet.TransferInput;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "bookkeeping.transfer.group-commit.enabled=true",
+        "bookkeeping.transfer.group-commit.window=20ms",
+        "bookkeeping.transfer.group-commit.max-batch-size=16",
+        "spring.datasource.hikari.maximum-pool-size=3"
+})
+@DirtiesContext
+class TransactionGroupCommitIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private CreateWalletOutput createWallet(BigDecimal amount) throws Exception {
+        CreateWalletInput input = new CreateWalletInput("test-" + UUID.randomUUID() + "@example.com", amount);
+        String response = mockMvc.perform(post("/wallets")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(input)))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return objectMapper.readValue(response, CreateWalletOutput.class);
+    }
+
+    private int transfer(UUID from, UUID to, String amount) {
+        try {
+            return mockMvc.perform(post("/transactions/transfer")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new TransferInput(from, to, new BigDecimal(amount)))))
+                    .andReturn()
+                    .getResponse()
+                    .getStatus();
+        } catch (Exception e) {
+            throw new RuntimeException("Transfer failed", e);
+        }
+    }
+
+    @Test
+    void groupCommittedTransfers_ShouldFailOnlyTheTransfersWithoutFunds() throws Exception {
+        CreateWalletOutput hot = createWallet(new BigDecimal("1000"));
+        CreateWalletOutput poor = createWallet(new BigDecimal("25"));
+        List<CreateWalletOutput> others = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            others.add(createWallet(new BigDecimal("1000")));
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(20);
+        List<CompletableFuture<Integer>> fromOthers = new ArrayList<>();
+        List<CompletableFuture<Integer>> fromPoor = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            fromPoor.add(CompletableFuture.supplyAsync(() -> transfer(poor.id(), hot.id(), "10"), executorService));
+        }
+        for (CreateWalletOutput other : others) {
+            for (int i = 0; i < 10; i++) {
+                boolean fromHot = i % 2 == 0;
+                fromOthers.add(CompletableFuture.supplyAsync(() -> transfer(
+                        fromHot ? hot.id() : other.id(),
+                        fromHot ? other.id() : hot.id(),
+                        "10"), executorService));
+            }
+        }
+
+        CompletableFuture.allOf(fromOthers.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        CompletableFuture.allOf(fromPoor.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        executorService.shutdown();
+        executorService.awaitTermination(5, TimeUnit.SECONDS);
+
+        for (CompletableFuture<Integer> response : fromOthers) {
+            assertEquals(200, response.get());
+        }
+        assertEquals(2, fromPoor.stream().filter(response -> response.join() == 200).count());
+        assertEquals(8, fromPoor.stream().filter(response -> response.join() == 409).count());
+
+        mockMvc.perform(get("/wallets/{id}/balance", poor.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(5));
+        mockMvc.perform(get("/wallets/{id}/balance", hot.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(1020));
+        for (CreateWalletOutput other : others) {
+            mockMvc.perform(get("/wallets/{id}/balance", other.id()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.balance").value(1000));
+        }
+
+        assertTrue(meterRegistry.get("bookkeeping.transfer.group-commit.size").summary().max() > 1);
+    }
+
+    @Test
+    void groupCommittedTransfer_ToUnknownWallet_ShouldReturnNotFound() throws Exception {
+        CreateWalletOutput wallet = createWallet(new BigDecimal("100"));
+
+        assertEquals(404, transfer(wallet.id(), UUID.randomUUID(), "10"));
+        assertEquals(200, transfer(wallet.id(), createWallet(BigDecimal.ONE).id(), "10"));
+    }
+
+}
@@ -0,0 +1,270 @@
+package com.cubeia.bookkeeping.transaction;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cubeia.bookkeeping.BaseIntegrationTest;
+import com.cubeia.bookkeeping.api.Cursor;
+import com.cubeia.bookkeeping.wallet.BatchTransferInput;
+import com.cubeia.bookkeeping.wallet.CreateWalletInput;
+import com.cubeia.bookkeeping.wallet.CreateWalletOutput;
+import com.cubeia.bookkeeping.wallet.ShardWalletInput;
+import com.cubeia.bookkeeping.wallet.TransferInput;
+
+@AutoConfigureWebTestClient
+@ActiveProfiles("reactive")
+class TransactionReactiveIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private JdbcClient jdbcClient;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private CreateWalletOutput createWallet(BigDecimal amount) {
+        CreateWalletInput input = new CreateWalletInput("test-" + UUID.randomUUID() + "@example.com", amount);
+        return webTestClient.post().uri("/wallets")
+                .bodyValue(input)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(CreateWalletOutput.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private TransferInput transfer(CreateWalletOutput from, CreateWalletOutput to, String amount) {
+        return new TransferInput(from.id(), to.id(), new BigDecimal(amount));
+    }
+
+    @Test
+    void transfer_ShouldUpdateBalancesAndLedger() {
+        CreateWalletOutput source = createWallet(new BigDecimal("100"));
+        CreateWalletOutput target = createWallet(new BigDecimal("1"));
+
+        webTestClient.post().uri("/transactions/transfer")
+                .bodyValue(transfer(source, target, "40"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.transactionId").isNotEmpty()
+                .jsonPath("$.amount").isEqualTo(40)
+                .jsonPath("$.newBalance").isEqualTo(60);
+
+        webTestClient.get().uri("/wallets/{id}/balance", target.id())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.balance").isEqualTo(41);
+
+        webTestClient.get().uri("/transactions/{walletId}", source.id())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].amount").isEqualTo(-40)
+                .jsonPath("$[0].runningBalance").isEqualTo(60)
+                .jsonPath("$[1].amount").isEqualTo(100);
+    }
+
+    @Test
+    void getTransactions_ShouldPageWithCursor() {
+        CreateWalletOutput source = createWallet(new BigDecimal("100"));
+        CreateWalletOutput target = createWallet(new BigDecimal("1"));
+        for (int i = 0; i < 3; i++) {
+            webTestClient.post().uri("/transactions/transfer")
+                    .bodyValue(transfer(source, target, "1"))
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+
+        String cursor = webTestClient.get().uri("/transactions/{walletId}?limit=2", source.id())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(Cursor.NEXT_CURSOR_HEADER)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .returnResult()
+                .getResponseHeaders()
+                .getFirst(Cursor.NEXT_CURSOR_HEADER);
+
+        webTestClient.get().uri("/transactions/{walletId}?limit=2&after={after}", source.id(), cursor)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[1].amount").isEqualTo(100);
+    }
+
+    @Test
+    void transfer_WithInsufficientFunds_ShouldReturnConflict() {
+        CreateWalletOutput source = createWallet(new BigDecimal("10"));
+        CreateWalletOutput target = createWallet(new BigDecimal("1"));
+
+        webTestClient.post().uri("/transactions/transfer")
+                .bodyValue(transfer(source, target, "11"))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        webTestClient.get().uri("/wallets/{id}/balance", source.id())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.balance").isEqualTo(10);
+    }
+
+    @Test
+    void transfer_WithUnknownWallet_ShouldReturnNotFound() {
+        CreateWalletOutput source = createWallet(new BigDecimal("10"));
+
+        webTestClient.post().uri("/transactions/transfer")
+                .bodyValue(new TransferInput(source.id(), UUID.randomUUID(), new BigDecimal("1")))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void createWallet_WithDuplicateEmail_ShouldReturnConflict() {
+        String email = "test-" + UUID.randomUUID() + "@example.com";
+        webTestClient.post().uri("/wallets")
+                .bodyValue(new CreateWalletInput(email, new BigDecimal("1")))
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.post().uri("/wallets")
+                .bodyValue(new CreateWalletInput(email, new BigDecimal("1")))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void createWallet_WithInvalidInput_ShouldReturnConstraintViolation() {
+        webTestClient.post().uri("/wallets")
+                .bodyValue(new CreateWalletInput("not-an-email", new BigDecimal("1")))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Constraint Violation")
+                .jsonPath("$.errors.email").isNotEmpty();
+    }
+
+    @Test
+    void transfer_ToShardedWallet_ShouldFallBackToBlockingPath() {
+        CreateWalletOutput source = createWallet(new BigDecimal("100"));
+        CreateWalletOutput target = createWallet(new BigDecimal("1"));
+
+        webTestClient.put().uri("/wallets/{id}/shards", target.id())
+                .bodyValue(new ShardWalletInput(4))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.balance").isEqualTo(1);
+
+        webTestClient.post().uri("/transactions/transfer")
+                .bodyValue(transfer(source, target, "25"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.newBalance").isEqualTo(75);
+
+        webTestClient.get().uri("/wallets/{id}/balance", target.id())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.balance").isEqualTo(26);
+    }
+
+    @Test
+    void transferBatch_WithIdempotencyKey_ShouldRunOnBlockingServices() {
+        CreateWalletOutput source = createWallet(new BigDecimal("100"));
+        CreateWalletOutput target = createWallet(new BigDecimal("1"));
+        String key = UUID.randomUUID().toString();
+
+        for (int i = 0; i < 2; i++) {
+            webTestClient.post().uri("/transactions/transfer")
+                    .header(TransactionController.IDEMPOTENCY_KEY_HEADER, key)
+                    .bodyValue(transfer(source, target, "10"))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.newBalance").isEqualTo(90);
+        }
+
+        BatchTransferInput batch = new BatchTransferInput(List.of(
+                transfer(source, target, "5"),
+                transfer(target, source, "1")
+        ), true);
+        webTestClient.post().uri("/transactions/transfers/batch")
+                .bodyValue(batch)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.results.length()").isEqualTo(2);
+
+        webTestClient.get().uri("/wallets/{id}/balance", source.id())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.balance").isEqualTo(86);
+    }
+
+    @Test
+    void transfer_WhenWalletLockedLongerThanLockTimeout_ShouldReturnServiceUnavailable() throws Exception {
+        CreateWalletOutput source = createWallet(new BigDecimal("100"));
+        CreateWalletOutput target = createWallet(new BigDecimal("1"));
+
+        // Hold the row lock of the source wallet in another transaction
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcClient.sql("SELECT id FROM mng.wallet WHERE id = ? FOR UPDATE")
+                            .param(source.id())
+                            .query()
+                            .listOfRows();
+                    locked.countDown();
+                    try {
+                        release.await(30, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+
+        try {
+            locked.await(10, TimeUnit.SECONDS);
+            // Waits out the database's lock_timeout of 10s
+            webTestClient.mutate().responseTimeout(Duration.ofSeconds(20)).build()
+                    .post().uri("/transactions/transfer")
+                    .bodyValue(transfer(source, target, "10"))
+                    .exchange()
+                    .expectStatus().isEqualTo(503)
+                    .expectHeader().exists(HttpHeaders.RETRY_AFTER);
+        } finally {
+            release.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+        }
+
+        webTestClient.get().uri("/wallets/{id}/balance", source.id())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.balance").isEqualTo(100);
+    }
+}
@@ -0,0 +1,103 @@
+package com.cubeia.bookkeeping.transaction;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.cubeia.bookkeeping.BaseIntegrationTest;
+import com.cubeia.bookkeeping.wallet.CreateWalletInput;
+import com.cubeia.bookkeeping.wallet.CreateWalletOutput;
+import com.cubeia.bookkeeping.wallet.TransferInput;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "bookkeeping.transfer.sequencer.enabled=true",
+        "bookkeeping.transfer.sequencer.lanes=16"
+})
+class TransactionSequencerIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private CreateWalletOutput createWallet(BigDecimal amount) throws Exception {
+        CreateWalletInput input = new CreateWalletInput("test-" + UUID.randomUUID() + "@example.com", amount);
+        String response = mockMvc.perform(post("/wallets")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(input)))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return objectMapper.readValue(response, CreateWalletOutput.class);
+    }
+
+    @Test
+    void sequencedTransfers_ShouldMaintainBalanceConsistency() throws Exception {
+        // A hot wallet exchanging funds with several other wallets in both directions
+        CreateWalletOutput hot = createWallet(new BigDecimal("1000"));
+        List<CreateWalletOutput> others = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            others.add(createWallet(new BigDecimal("1000")));
+        }
+
+        int transfersPerWallet = 20;
+        ExecutorService executorService = Executors.newFixedThreadPool(20);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        for (CreateWalletOutput other : others) {
+            for (int i = 0; i < transfersPerWallet; i++) {
+                boolean fromHot = i % 2 == 0;
+                TransferInput transferInput = new TransferInput(
+                        fromHot ? hot.id() : other.id(),
+                        fromHot ? other.id() : hot.id(),
+                        new BigDecimal("10")
+                );
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        mockMvc.perform(post("/transactions/transfer")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(transferInput)))
+                                .andExpect(status().isOk());
+                    } catch (Exception e) {
+                        throw new RuntimeException("Transfer failed", e);
+                    }
+                }, executorService));
+            }
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .get(30, TimeUnit.SECONDS);
+
+        mockMvc.perform(get("/wallets/{id}/balance", hot.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(1000));
+
+        for (CreateWalletOutput other : others) {
+            mockMvc.perform(get("/wallets/{id}/balance", other.id()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.balance").value(1000));
+        }
+
+        executorService.shutdown();
+        executorService.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,99 @@
+package com.cubeia.bookkeeping.transaction;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.cubeia.bookkeeping.BaseIntegrationTest;
+import com.cubeia.bookkeeping.wallet.CreateWalletInput;
+import com.cubeia.bookkeeping.wallet.CreateWalletOutput;
+import com.cubeia.bookkeeping.wallet.TransferInput;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "bookkeeping.transfer.mode=single-statement")
+class TransactionSingleStatementIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private CreateWalletOutput createWallet(BigDecimal amount) throws Exception {
+        CreateWalletInput input = new CreateWalletInput("test-" + UUID.randomUUID() + "@example.com", amount);
+        String response = mockMvc.perform(post("/wallets")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(input)))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return objectMapper.readValue(response, CreateWalletOutput.class);
+    }
+
+    @Test
+    void transfer_ShouldUpdateBalancesAndLedger() throws Exception {
+        CreateWalletOutput source = createWallet(new BigDecimal("100"));
+        CreateWalletOutput target = createWallet(new BigDecimal("1"));
+
+        TransferInput transferInput = new TransferInput(source.id(), target.id(), new BigDecimal("40"));
+        mockMvc.perform(post("/transactions/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transferInput)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactionId").isNotEmpty())
+                .andExpect(jsonPath("$.amount").value(40))
+                .andExpect(jsonPath("$.newBalance").value(60));
+
+        mockMvc.perform(get("/wallets/{id}/balance", target.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(41));
+
+        mockMvc.perform(get("/transactions/{walletId}", source.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].amount").value(-40))
+                .andExpect(jsonPath("$[0].runningBalance").value(60));
+
+        mockMvc.perform(get("/transactions/{walletId}", target.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].amount").value(40))
+                .andExpect(jsonPath("$[0].runningBalance").value(41));
+    }
+
+    @Test
+    void transfer_WithInsufficientFunds_ShouldReturnConflict() throws Exception {
+        CreateWalletOutput source = createWallet(new BigDecimal("10"));
+        CreateWalletOutput target = createWallet(new BigDecimal("1"));
+
+        TransferInput transferInput = new TransferInput(source.id(), target.id(), new BigDecimal("11"));
+        mockMvc.perform(post("/transactions/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transferInput)))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get("/wallets/{id}/balance", source.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(10));
+    }
+
+    @Test
+    void transfer_WithUnknownWallet_ShouldReturnNotFound() throws Exception {
+        CreateWalletOutput source = createWallet(new BigDecimal("10"));
+
+        TransferInput transferInput = new TransferInput(source.id(), UUID.randomUUID(), new BigDecimal("1"));
+        mockMvc.perform(post("/transactions/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transferInput)))
+                .andExpect(status().isNotFound());
+    }
+}
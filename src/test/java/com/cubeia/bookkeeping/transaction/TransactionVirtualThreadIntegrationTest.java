@@ -0,0 +1,86 @@
+package com.cubeia.bookkeeping.transaction;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import com.cubeia.bookkeeping.BaseIntegrationTest;
+import com.cubeia.bookkeeping.datasource.LimitedDataSource;
+import com.cubeia.bookkeeping.wallet.CreateWalletInput;
+import com.cubeia.bookkeeping.wallet.CreateWalletOutput;
+import com.cubeia.bookkeeping.wallet.TransferInput;
+import com.cubeia.bookkeeping.wallet.WalletBalance;
+
+@TestPropertySource(properties = {
+        "spring.threads.virtual.enabled=true",
+        "bookkeeping.datasource.limiter.enabled=true",
+        "bookkeeping.datasource.limiter.permits=4",
+        "bookkeeping.datasource.limiter.max-waiting=1000",
+        "bookkeeping.datasource.limiter.max-wait=30s"
+})
+class TransactionVirtualThreadIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private CreateWalletOutput createWallet(BigDecimal amount) {
+        CreateWalletInput input = new CreateWalletInput("test-" + UUID.randomUUID() + "@example.com", amount);
+        return restTemplate.postForObject("/wallets", input, CreateWalletOutput.class);
+    }
+
+    @Test
+    void concurrentTransfersOnVirtualThreads_ShouldMaintainBalanceConsistency() throws Exception {
+        assertInstanceOf(LimitedDataSource.class, dataSource);
+
+        CreateWalletOutput source = createWallet(new BigDecimal("1000"));
+        List<CreateWalletOutput> targets = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            targets.add(createWallet(new BigDecimal("1")));
+        }
+
+        // Far more requests in flight than connection permits
+        int transfers = 200;
+        ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+        List<CompletableFuture<HttpStatus>> futures = new ArrayList<>();
+        for (int i = 0; i < transfers; i++) {
+            TransferInput transferInput = new TransferInput(
+                    source.id(),
+                    targets.get(i % targets.size()).id(),
+                    BigDecimal.ONE
+            );
+            futures.add(CompletableFuture.supplyAsync(() -> HttpStatus.valueOf(
+                    restTemplate.postForEntity("/transactions/transfer", transferInput, String.class)
+                            .getStatusCode().value()), executorService));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .get(60, TimeUnit.SECONDS);
+        for (CompletableFuture<HttpStatus> future : futures) {
+            assertEquals(HttpStatus.OK, future.get());
+        }
+
+        WalletBalance balance = restTemplate.getForObject(
+                "/wallets/{id}/balance", WalletBalance.class, source.id());
+        assertEquals(0, new BigDecimal("800").compareTo(balance.balance()));
+
+        executorService.shutdown();
+        executorService.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
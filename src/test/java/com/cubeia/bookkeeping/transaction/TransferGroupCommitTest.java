@@ -0,0 +1,123 @@
+package com.cubeia.bookkeeping.transaction;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cubeia.bookkeeping.exception.TransferRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TransferGroupCommitTest {
+
+    private static final TransferProperties PROPERTIES = new TransferProperties(
+            TransferMode.STANDARD,
+            WalletLocking.ROW_LOCK,
+            new TransferProperties.Sequencer(false, 1024, 100, Duration.ofSeconds(5)),
+            new TransferProperties.GroupCommit(true, Duration.ofMillis(1), 100, 1, 10000, Duration.ofMillis(200)),
+            new TransferProperties.Admission(false, 4, 16, Duration.ofMillis(100), 64, 10)
+    );
+
+    private final StubProcessor processor = new StubProcessor();
+    private final TransferGroupCommit groupCommit = new TransferGroupCommit(PROPERTIES, processor,
+            new SimpleMeterRegistry());
+
+    @AfterEach
+    void destroy() throws Exception {
+        groupCommit.destroy();
+    }
+
+    private static Transaction transaction() {
+        return new Transaction(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), 10, null);
+    }
+
+    private static List<TransferItemResult> applied(List<Transaction> transactions) {
+        return transactions.stream().map(transaction -> TransferItemResult.ok(transaction.id(), 0)).toList();
+    }
+
+    @Test
+    void execute_AfterACommitterError_ShouldFailThatBatchAndKeepCommitting() {
+        processor.apply = transactions -> {
+            throw new AssertionError("Committer failure");
+        };
+
+        CompletionException failure = assertThrows(CompletionException.class,
+                () -> groupCommit.execute(transaction()));
+        assertInstanceOf(AssertionError.class, failure.getCause());
+
+        processor.apply = TransferGroupCommitTest::applied;
+        Transaction transaction = transaction();
+        assertEquals(transaction.id(), groupCommit.execute(transaction).transactionId());
+    }
+
+    @Test
+    void execute_WhenNoBatchTakesTheTransferInTime_ShouldRejectIt() throws Exception {
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        processor.apply = transactions -> {
+            committing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return applied(transactions);
+        };
+        Transaction first = transaction();
+        CompletableFuture<TransactionResult> inBatch = CompletableFuture.supplyAsync(() -> groupCommit.execute(first));
+        assertTrue(committing.await(5, TimeUnit.SECONDS));
+
+        // The only committer is busy for longer than the transfer waits, a batch that was taken is
+        // waited for however long it takes
+        Transaction second = transaction();
+        assertThrows(TransferRejectedException.class, () -> groupCommit.execute(second));
+        release.countDown();
+        assertEquals(first.id(), inBatch.get(5, TimeUnit.SECONDS).transactionId());
+
+        Transaction third = transaction();
+        assertEquals(third.id(), groupCommit.execute(third).transactionId());
+        assertFalse(processor.received.contains(second));
+    }
+
+    private static final class StubProcessor extends TransactionProcessor {
+
+        private final Queue<Transaction> received = new ConcurrentLinkedQueue<>();
+        private volatile Function<List<Transaction>, List<TransferItemResult>> apply;
+
+        private StubProcessor() {
+            super(null, null, null, null, PROPERTIES, null, null, List.of(new WalletLockStrategy() {
+                @Override
+                public WalletLocking locking() {
+                    return WalletLocking.ROW_LOCK;
+                }
+
+                @Override
+                public Balances adjustBalances(Transaction transaction) {
+                    throw new UnsupportedOperationException();
+                }
+            }));
+        }
+
+        @Override
+        public List<TransferItemResult> createTransactions(List<Transaction> transactions, boolean atomic) {
+            received.addAll(transactions);
+            return apply.apply(transactions);
+        }
+
+    }
+
+}
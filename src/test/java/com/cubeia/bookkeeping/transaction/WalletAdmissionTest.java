@@ -0,0 +1,109 @@
+package com.cubeia.bookkeeping.transaction;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cubeia.bookkeeping.exception.TransferRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WalletAdmissionTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private WalletAdmission admission(int maxInFlight, int maxQueueDepth, Duration maxWait) {
+        return new WalletAdmission(new TransferProperties(
+                TransferMode.STANDARD,
+                WalletLocking.ROW_LOCK,
+                new TransferProperties.Sequencer(false, 1024, 100, Duration.ofSeconds(5)),
+                new TransferProperties.GroupCommit(false, Duration.ofMillis(1), 100, 1, 10000, Duration.ofSeconds(5)),
+                new TransferProperties.Admission(true, maxInFlight, maxQueueDepth, maxWait, 4, 10)
+        ), meterRegistry);
+    }
+
+    // Holds its wallets until released, on another thread
+    private static CompletableFuture<Void> hold(WalletAdmission admission, Set<UUID> walletIds,
+            CountDownLatch admitted, CountDownLatch release) {
+        return CompletableFuture.runAsync(() -> admission.execute(walletIds, () -> {
+            admitted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+    }
+
+    @Test
+    void execute_OverTheCapWithoutWaiting_ShouldRejectOnlyTheHotWallet() throws Exception {
+        WalletAdmission admission = admission(1, 0, Duration.ZERO);
+        UUID hot = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        CountDownLatch admitted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = hold(admission, Set.of(hot, other), admitted, release);
+        assertTrue(admitted.await(5, TimeUnit.SECONDS));
+
+        assertThrows(TransferRejectedException.class, () -> admission.execute(Set.of(third, hot), () -> "transfer"));
+        assertEquals("transfer", admission.execute(Set.of(third, UUID.randomUUID()), () -> "transfer"));
+
+        List<HotWallet> hotWallets = admission.getHotWallets();
+        assertEquals(2, hotWallets.size());
+        assertEquals(new HotWallet(hot, 1, 0, 1, 1), hotWallets.getFirst());
+        assertEquals(1, meterRegistry.get("bookkeeping.transfer.admission.rejected").counter().count());
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(), admission.getHotWallets());
+    }
+
+    @Test
+    void execute_OverTheCap_ShouldWaitInABoundedQueue() throws Exception {
+        WalletAdmission admission = admission(1, 1, Duration.ofSeconds(10));
+        UUID hot = UUID.randomUUID();
+        CountDownLatch admitted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = hold(admission, Set.of(hot), admitted, release);
+        assertTrue(admitted.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<String> waiting = CompletableFuture.supplyAsync(
+                () -> admission.execute(Set.of(hot), () -> "transfer"));
+        while (admission.getHotWallets().getFirst().waiting() == 0) {
+            Thread.sleep(10);
+        }
+        assertThrows(TransferRejectedException.class, () -> admission.execute(Set.of(hot), () -> "transfer"));
+
+        release.countDown();
+        assertEquals("transfer", waiting.get(5, TimeUnit.SECONDS));
+        holder.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(), admission.getHotWallets());
+    }
+
+    @Test
+    void execute_WhenTheWaitTimesOut_ShouldReject() throws Exception {
+        WalletAdmission admission = admission(1, 1, Duration.ofMillis(50));
+        UUID hot = UUID.randomUUID();
+        CountDownLatch admitted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = hold(admission, Set.of(hot), admitted, release);
+        assertTrue(admitted.await(5, TimeUnit.SECONDS));
+
+        assertThrows(TransferRejectedException.class, () -> admission.execute(Set.of(hot), () -> "transfer"));
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        assertEquals("transfer", admission.execute(Set.of(hot), () -> "transfer"));
+    }
+
+}
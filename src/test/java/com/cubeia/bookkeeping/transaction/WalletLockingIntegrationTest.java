@@ -0,0 +1,135 @@
+package com.cubeia.bookkeeping.transaction;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.cubeia.bookkeeping.BaseIntegrationTest;
+import com.cubeia.bookkeeping.wallet.CreateWalletInput;
+import com.cubeia.bookkeeping.wallet.CreateWalletOutput;
+import com.cubeia.bookkeeping.wallet.ShardWalletInput;
+import com.cubeia.bookkeeping.wallet.TransferInput;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Transfers under the wallet locking strategies other than the default row locks, which every other
+// transfer test runs with. Each subclass selects one strategy.
+@AutoConfigureMockMvc
+abstract class WalletLockingIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private UUID createWallet(String amount) throws Exception {
+        CreateWalletInput input = new CreateWalletInput("test-" + UUID.randomUUID() + "@example.com",
+                new BigDecimal(amount));
+        String response = mockMvc.perform(post("/wallets")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(input)))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return objectMapper.readValue(response, CreateWalletOutput.class).id();
+    }
+
+    private void transfer(UUID from, UUID to, String amount, ResultMatcher expected) throws Exception {
+        mockMvc.perform(post("/transactions/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new TransferInput(from, to, new BigDecimal(amount)))))
+                .andExpect(expected);
+    }
+
+    private void assertBalance(UUID walletId, long balance) throws Exception {
+        mockMvc.perform(get("/wallets/{id}/balance", walletId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(balance));
+    }
+
+    @Test
+    void concurrentTransfers_ShouldMaintainBalanceConsistency() throws Exception {
+        UUID hot = createWallet("1000");
+        List<UUID> others = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            others.add(createWallet("1000"));
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(20);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (UUID other : others) {
+            for (int i = 0; i < 20; i++) {
+                boolean fromHot = i % 2 == 0;
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        transfer(fromHot ? hot : other, fromHot ? other : hot, "10", status().isOk());
+                    } catch (Exception e) {
+                        throw new RuntimeException("Transfer failed", e);
+                    }
+                }, executorService));
+            }
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        executorService.shutdown();
+        executorService.awaitTermination(5, TimeUnit.SECONDS);
+
+        assertBalance(hot, 1000);
+        for (UUID other : others) {
+            assertBalance(other, 1000);
+        }
+    }
+
+    @Test
+    void transfer_WithoutFundsOrToUnknownWallet_ShouldChangeNothing() throws Exception {
+        UUID source = createWallet("100");
+        UUID destination = createWallet("1");
+
+        transfer(source, destination, "101", status().isConflict());
+        transfer(source, UUID.randomUUID(), "10", status().isNotFound());
+        transfer(UUID.randomUUID(), destination, "10", status().isNotFound());
+        transfer(source, destination, "100", status().isOk());
+
+        assertBalance(source, 0);
+        assertBalance(destination, 101);
+    }
+
+    @Test
+    void transfer_WithShardedWallets_ShouldKeepPublicBalance() throws Exception {
+        UUID house = createWallet("103");
+        UUID player = createWallet("10");
+        mockMvc.perform(put("/wallets/{id}/shards", house)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ShardWalletInput(4))))
+                .andExpect(status().isOk());
+
+        transfer(house, player, "90", status().isOk());
+        transfer(player, house, "5", status().isOk());
+        transfer(house, player, "19", status().isConflict());
+
+        assertBalance(house, 18);
+        assertBalance(player, 95);
+
+        // Every shard holds at least 3 now, the response is the balance of the wallet, not of the shard
+        transfer(house, player, "1", jsonPath("$.newBalance").value(17));
+        assertBalance(house, 17);
+    }
+
+}
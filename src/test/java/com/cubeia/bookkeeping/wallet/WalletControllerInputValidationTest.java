@@ -84,4 +84,28 @@ class WalletControllerInputValidationTest {
         assertEquals(1, violations.size());
         assertEquals("must be greater than or equal to 1", violations.iterator().next().getMessage());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void createWalletInput_WithFractionalAmount_ShouldFailValidation() {
+        CreateWalletInput input = new CreateWalletInput("test@example.com", new BigDecimal("10.25"));
+        Set<ConstraintViolation<CreateWalletInput>> violations = validator.validate(input);
+        assertEquals(1, violations.size());
+        assertEquals("amount", violations.iterator().next().getPropertyPath().toString());
+    }
+
+    @Test
+    void shardWalletInput_WithTooManyShards_ShouldFailValidation() {
+        ShardWalletInput input = new ShardWalletInput(65);
+        Set<ConstraintViolation<ShardWalletInput>> violations = validator.validate(input);
+        assertEquals(1, violations.size());
+        assertEquals("must be less than or equal to 64", violations.iterator().next().getMessage());
+    }
+
+    @Test
+    void shardWalletInput_WithNegativeShards_ShouldFailValidation() {
+        ShardWalletInput input = new ShardWalletInput(-1);
+        Set<ConstraintViolation<ShardWalletInput>> violations = validator.validate(input);
+        assertEquals(1, violations.size());
+        assertEquals("must be greater than or equal to 0", violations.iterator().next().getMessage());
+    }
+}
@@ -8,12 +8,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.cubeia.bookkeeping.BaseIntegrationTest;
+import com.cubeia.bookkeeping.api.Cursor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @AutoConfigureMockMvc
@@ -41,6 +47,22 @@ class WalletControllerIntegrationTest extends BaseIntegrationTest {
       .andExpect(jsonPath("$.id").exists());
   }
 
+  @Test
+  void createWallet_WithExistingEmail_ShouldReturnConflict() throws Exception {
+    String content = objectMapper.writeValueAsString(
+      new CreateWalletInput(generateUniqueEmail(), new BigDecimal("100")));
+    mockMvc.perform(post("/wallets")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(content))
+      .andExpect(status().isOk());
+
+    mockMvc.perform(post("/wallets")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(content))
+      .andExpect(status().isConflict())
+      .andExpect(jsonPath("$.detail").value("Wallet with email already exists"));
+  }
+
   @Test
   void getWallet_ShouldReturnWallet() throws Exception {
     String uniqueEmail = generateUniqueEmail();
@@ -60,4 +82,114 @@ class WalletControllerIntegrationTest extends BaseIntegrationTest {
       .andExpect(jsonPath("$.balance").value(100));
   }
 
-} 
\ No newline at end of file
+  private CreateWalletOutput createWallet(BigDecimal amount) throws Exception {
+    CreateWalletInput input = new CreateWalletInput(generateUniqueEmail(), amount);
+    String response = mockMvc.perform(post("/wallets")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(input)))
+      .andReturn()
+      .getResponse()
+      .getContentAsString();
+    return objectMapper.readValue(response, CreateWalletOutput.class);
+  }
+
+  private void transfer(UUID fromId, UUID toId, String amount) throws Exception {
+    mockMvc.perform(post("/transactions/transfer")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(new TransferInput(fromId, toId, new BigDecimal(amount)))))
+      .andExpect(status().isOk());
+  }
+
+  @Test
+  void shardWallet_ShouldKeepPublicBalanceAcrossTransfers() throws Exception {
+    CreateWalletOutput house = createWallet(new BigDecimal("103"));
+    CreateWalletOutput player = createWallet(new BigDecimal("10"));
+
+    mockMvc.perform(put("/wallets/{id}/shards", house.id())
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(new ShardWalletInput(4))))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.balance").value(103));
+
+    // Each shard holds about a quarter, so this debit needs a rebalance
+    transfer(house.id(), player.id(), "90");
+    transfer(player.id(), house.id(), "5");
+
+    mockMvc.perform(get("/wallets/{id}/balance", house.id()))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.balance").value(18));
+    mockMvc.perform(get("/wallets/{id}/balance", player.id()))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.balance").value(95));
+
+    // Every shard holds at least 3 now, the response is the balance of the wallet, not of the shard
+    mockMvc.perform(post("/transactions/transfer")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(new TransferInput(house.id(), player.id(), new BigDecimal("1")))))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.newBalance").value(17));
+
+    mockMvc.perform(post("/transactions/transfer")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(new TransferInput(house.id(), player.id(), new BigDecimal("18")))))
+      .andExpect(status().isConflict());
+
+    mockMvc.perform(put("/wallets/{id}/shards", house.id())
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(new ShardWalletInput(0))))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.balance").value(17));
+
+    transfer(house.id(), player.id(), "17");
+
+    mockMvc.perform(get("/wallets/{id}/balance", house.id()))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.balance").value(0));
+  }
+
+  @Test
+  void getWallets_WithCursor_ShouldReturnNextPage() throws Exception {
+    createWallet(new BigDecimal("1"));
+    createWallet(new BigDecimal("1"));
+
+    MvcResult firstPage = mockMvc.perform(get("/wallets?limit=1"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.length()").value(1))
+      .andReturn();
+    String cursor = firstPage.getResponse().getHeader(Cursor.NEXT_CURSOR_HEADER);
+    assertNotNull(cursor);
+
+    MvcResult secondPage = mockMvc.perform(get("/wallets?limit=1&after={cursor}", cursor))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.length()").value(1))
+      .andReturn();
+
+    String firstId = objectMapper.readTree(firstPage.getResponse().getContentAsString()).get(0).get("id").asText();
+    String secondId = objectMapper.readTree(secondPage.getResponse().getContentAsString()).get(0).get("id").asText();
+    assertNotEquals(firstId, secondId);
+  }
+
+
+  @Test
+  void getWalletBalance_AfterTransfer_ShouldNotReturnCachedBalance() throws Exception {
+    CreateWalletOutput source = createWallet(new BigDecimal("100"));
+    CreateWalletOutput target = createWallet(new BigDecimal("1"));
+
+    for (int i = 0; i < 2; i++) {
+      mockMvc.perform(get("/wallets/{id}/balance", source.id()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.balance").value(100));
+    }
+
+    transfer(source.id(), target.id(), "40");
+
+    mockMvc.perform(get("/wallets/{id}/balance", source.id()))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.balance").value(60));
+
+    mockMvc.perform(get("/actuator/metrics/cache.gets")
+        .param("tag", "cache:wallet.balance", "result:hit"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.measurements[0].value").value(greaterThan(0.0)));
+  }
+}
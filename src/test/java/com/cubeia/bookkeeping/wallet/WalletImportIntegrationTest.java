@@ -0,0 +1,143 @@
+package com.cubeia.bookkeeping.wallet;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import com.cubeia.bookkeeping.BaseIntegrationTest;
+
+class WalletImportIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcClient jdbcClient;
+
+    private static String email() {
+        return "import-" + UUID.randomUUID() + "@example.com";
+    }
+
+    private ResponseEntity<WalletImportOutput> importWallets(String body, MediaType contentType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        return restTemplate.postForEntity("/wallets/import", new HttpEntity<>(body, headers),
+                WalletImportOutput.class);
+    }
+
+    private UUID walletId(String email) {
+        return jdbcClient.sql("SELECT id FROM mng.wallet WHERE email = ?")
+                .param(email)
+                .query(UUID.class)
+                .optional()
+                .orElse(null);
+    }
+
+    private long balance(UUID walletId) {
+        return restTemplate.getForObject("/wallets/" + walletId + "/balance", WalletBalance.class)
+                .balance().longValueExact();
+    }
+
+    private long ledgerTotal(UUID walletId) {
+        return jdbcClient.sql("SELECT COALESCE(SUM(amount), 0) FROM gnl.ledger WHERE wallet_id = ?")
+                .param(walletId)
+                .query(Long.class)
+                .single();
+    }
+
+    @Test
+    void importWallets_FromCsv_ShouldCreateWalletsWithOpeningTransactions() {
+        String first = email();
+        String second = email();
+
+        ResponseEntity<WalletImportOutput> response = importWallets(
+                "email,amount\n" + first + ",100\n\"" + second + "\",\"2500\"\n", new MediaType("text", "csv"));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(new WalletImportOutput(2, 0, List.of()), response.getBody());
+        for (var entry : List.of(List.of(first, 100L), List.of(second, 2500L))) {
+            UUID walletId = walletId((String) entry.get(0));
+            assertNotNull(walletId);
+            assertEquals(entry.get(1), balance(walletId));
+            assertEquals(entry.get(1), ledgerTotal(walletId));
+        }
+    }
+
+    @Test
+    void importWallets_FromNdjson_ShouldCreateWallets() {
+        String first = email();
+        String second = email();
+
+        ResponseEntity<WalletImportOutput> response = importWallets(
+                "{\"email\":\"" + first + "\",\"amount\":10}\n\n{\"amount\":\"20\",\"email\":\"" + second + "\"}\n",
+                MediaType.APPLICATION_NDJSON);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(new WalletImportOutput(2, 0, List.of()), response.getBody());
+        assertEquals(10, balance(walletId(first)));
+        assertEquals(20, balance(walletId(second)));
+    }
+
+    @Test
+    void importWallets_WithInvalidAndDuplicateLines_ShouldRejectThemAndImportTheRest() {
+        String existing = email();
+        restTemplate.postForObject("/wallets", new CreateWalletInput(existing, new BigDecimal("5")),
+                CreateWalletOutput.class);
+        String repeated = email();
+        String valid = email();
+
+        ResponseEntity<WalletImportOutput> response = importWallets(String.join("\n",
+                repeated + ",1",
+                "not-an-email,1",
+                valid + ",0",
+                repeated + ",2",
+                existing + ",3",
+                valid + ",1.5",
+                "no amount",
+                valid + ",abc",
+                valid + ",7"
+        ), new MediaType("text", "csv"));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(new WalletImportOutput(2, 7, List.of(
+                new WalletImportRejection(2, "not-an-email", "email: must be a well-formed email address"),
+                new WalletImportRejection(3, valid, "amount: must be greater than or equal to 1"),
+                new WalletImportRejection(4, repeated, "Duplicate email in file"),
+                new WalletImportRejection(5, existing, "Wallet with email already exists"),
+                new WalletImportRejection(6, valid,
+                        "amount: numeric value out of bounds (<18 digits>.<0 digits> expected)"),
+                new WalletImportRejection(7, null, "Malformed line"),
+                new WalletImportRejection(8, valid, "amount: must be a number")
+        )), response.getBody());
+        assertEquals(1, balance(walletId(repeated)));
+        assertEquals(7, balance(walletId(valid)));
+        assertEquals(5, balance(walletId(existing)));
+    }
+
+    @Test
+    void importWallets_WithMalformedJson_ShouldRejectTheLine() {
+        String valid = email();
+
+        ResponseEntity<WalletImportOutput> response = importWallets(
+                "{\"email\":\n{\"email\":\"" + valid + "\",\"amount\":3}",
+                MediaType.APPLICATION_NDJSON);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(new WalletImportOutput(1, 1, List.of(new WalletImportRejection(1, null, "Malformed line"))),
+                response.getBody());
+        assertEquals(3, balance(walletId(valid)));
+    }
+
+}